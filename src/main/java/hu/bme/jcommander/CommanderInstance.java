@@ -2,7 +2,10 @@ package hu.bme.jcommander;
 
 import hu.bme.jcommander.bars.MenuBarFacade;
 import hu.bme.jcommander.bars.NavigationBarFacade;
+import hu.bme.jcommander.bars.StatusBarFacade;
 import hu.bme.jcommander.bars.ToolBarFacade;
+import hu.bme.jcommander.operation.ChecksumAlgorithm;
+import hu.bme.jcommander.operation.ExecutionMode;
 import hu.bme.jcommander.operation.OperationExecutor;
 import hu.bme.jcommander.pane.WorkPane;
 import hu.bme.jcommander.settings.Settings;
@@ -25,13 +28,17 @@ public class CommanderInstance {
     private static final String INSTANCE_TITLE = "JCommander";
     private final Settings settings = new Settings(new File(SETTINGS_FILE_NAME));
 
-    private final OperationExecutor executor = new OperationExecutor();
+    private final OperationExecutor executor = new OperationExecutor(
+            Boolean.parseBoolean(settings.get(Settings.Option.USE_VIRTUAL_THREADS))
+                    ? ExecutionMode.VIRTUAL_THREADS
+                    : ExecutionMode.PLATFORM_THREADS);
 
     private final JFrame frame;
     private final WorkPane paneA;
     private final WorkPane paneB;
     private final NavigationBarFacade navBar;
     private final ToolBarFacade toolBar;
+    private final StatusBarFacade statusBar;
     private WorkPane activePane;
     private WorkPane passivePane;
 
@@ -89,6 +96,7 @@ public class CommanderInstance {
 
         navBar = new NavigationBarFacade(paneA, paneB, getActivePane);
         toolBar = new ToolBarFacade(frame, executor, getActivePane, getPassivePane);
+        statusBar = new StatusBarFacade(executor);
 
         setActiveAndPassivePane(paneA, paneB); // by default, paneA is in foreground, and paneB is in background
 
@@ -103,6 +111,7 @@ public class CommanderInstance {
                                         .addComponent(toolBar.get())
                                         .addComponent(paneB.component())
                         )
+                        .addComponent(statusBar.get())
         );
 
         layout.setVerticalGroup(
@@ -114,18 +123,45 @@ public class CommanderInstance {
                                         .addComponent(toolBar.get())
                                         .addComponent(paneB.component())
                         )
+                        .addComponent(statusBar.get(), GroupLayout.PREFERRED_SIZE, GroupLayout.PREFERRED_SIZE,
+                                GroupLayout.PREFERRED_SIZE)
         );
 
         settings.addSettingChangedListener(event -> {
             if (event.option() == Settings.Option.HIGHLIGHT_ACTIVE_PANE) {
                 setPaneBorderVisibility(Boolean.parseBoolean(event.value()));
+            } else if (event.option() == Settings.Option.COPY_VERIFICATION) {
+                executor.setVerification(verificationOf(event.value()));
+            } else if (event.option() == Settings.Option.FILES_PER_DEVICE) {
+                executor.setFilesPerDevice(filesPerDeviceOf(event.value()));
             }
         });
+        executor.setVerification(verificationOf(settings.get(Settings.Option.COPY_VERIFICATION)));
+        executor.setFilesPerDevice(filesPerDeviceOf(settings.get(Settings.Option.FILES_PER_DEVICE)));
 
         settings.refreshSettings();
 
         frame.getContentPane().setLayout(layout);
         frame.setVisible(true);
+
+        executor.resumeInterruptedOperations(frame);
+    }
+
+    private static ChecksumAlgorithm verificationOf(String value) {
+        for (ChecksumAlgorithm algorithm : ChecksumAlgorithm.values()) {
+            if (algorithm.name().equals(value)) {
+                return algorithm;
+            }
+        }
+        return null; // Settings.NO_VERIFICATION (or anything unknown) turns the verification off
+    }
+
+    private static int filesPerDeviceOf(String value) {
+        try {
+            return Math.max(Integer.parseInt(value), Settings.UNLIMITED_FILES);
+        } catch (NumberFormatException e) {
+            return Settings.UNLIMITED_FILES;
+        }
     }
 
     private void setActiveAndPassivePane(WorkPane active, WorkPane passive) {
@@ -0,0 +1,77 @@
+package hu.bme.jcommander.bars;
+
+import hu.bme.jcommander.filesystem.SizeFormatter;
+import hu.bme.jcommander.operation.DuplicateGroup;
+
+import javax.swing.*;
+import java.awt.*;
+import java.nio.file.Path;
+import java.util.List;
+
+public class DuplicateListFacade {
+
+    private static final String TITLE = "Duplicates";
+
+    private final JPanel panel;
+
+    /**
+     * Constructs a DuplicateListFacade listing the given groups of duplicates, along with the space
+     * that could be reclaimed by keeping only one file of each group.
+     *
+     * @param groups the groups of duplicates to be listed
+     */
+    public DuplicateListFacade(List<DuplicateGroup> groups) {
+        long reclaimable = groups.stream().mapToLong(DuplicateGroup::reclaimableBytes).sum();
+        JLabel summary = new JLabel(String.format("%d group(s) of duplicates, %s reclaimable", groups.size(),
+                SizeFormatter.format(reclaimable)));
+        summary.setBorder(BorderFactory.createEmptyBorder(4, 4, 4, 4));
+
+        JList<DuplicateGroup> groupList = new JList<>(groups.toArray(new DuplicateGroup[0]));
+        groupList.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+        groupList.setCellRenderer(new DefaultListCellRenderer() {
+            @Override
+            public Component getListCellRendererComponent(JList<?> list, Object value, int index, boolean isSelected,
+                                                          boolean cellHasFocus) {
+                DuplicateGroup group = (DuplicateGroup) value;
+                String text = String.format("%d × %s (%s reclaimable)", group.files().size(),
+                        SizeFormatter.format(group.size()), SizeFormatter.format(group.reclaimableBytes()));
+                return super.getListCellRendererComponent(list, text, index, isSelected, cellHasFocus);
+            }
+        });
+
+        // The files of the selected group are listed below the groups.
+        DefaultListModel<Path> files = new DefaultListModel<>();
+        groupList.addListSelectionListener(e -> {
+            files.clear();
+            DuplicateGroup selected = groupList.getSelectedValue();
+            if (selected != null) {
+                files.addAll(selected.files());
+            }
+        });
+        if (!groups.isEmpty()) {
+            groupList.setSelectedIndex(0);
+        }
+
+        JSplitPane split = new JSplitPane(JSplitPane.VERTICAL_SPLIT, new JScrollPane(groupList),
+                new JScrollPane(new JList<>(files)));
+        split.setResizeWeight(0.5);
+
+        panel = new JPanel(new BorderLayout());
+        panel.add(summary, BorderLayout.NORTH);
+        panel.add(split, BorderLayout.CENTER);
+    }
+
+    /**
+     * Shows the list in a dialog of its own.
+     *
+     * @param parent the component whose window the dialog belongs to
+     */
+    public void show(Component parent) {
+        JDialog dialog = new JDialog(SwingUtilities.getWindowAncestor(parent), TITLE);
+        dialog.setDefaultCloseOperation(WindowConstants.DISPOSE_ON_CLOSE);
+        dialog.add(panel);
+        dialog.setSize(480, 320);
+        dialog.setLocationRelativeTo(parent);
+        dialog.setVisible(true);
+    }
+}
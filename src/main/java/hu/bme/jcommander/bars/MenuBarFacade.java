@@ -1,11 +1,14 @@
 package hu.bme.jcommander.bars;
 
+import hu.bme.jcommander.operation.ChecksumAlgorithm;
 import hu.bme.jcommander.settings.Settings;
 
 import javax.swing.*;
 
 public class MenuBarFacade {
 
+    private static final int[] FILE_LIMITS = {1, 2, 4, 8};
+
     private final JMenuBar menuBar;
 
     /**
@@ -35,6 +38,46 @@ public class MenuBarFacade {
         viewMenu.add(highlightActivePane);
 
         menuBar.add(viewMenu);
+
+        JMenu operationsMenu = new JMenu("Operations");
+
+        // The executor is set up on startup, so the change only takes effect on the next one.
+        JCheckBoxMenuItem useVirtualThreads = new JCheckBoxMenuItem("Use Virtual Threads (After Restart)");
+        useVirtualThreads.setSelected(Boolean.parseBoolean(settings.get(Settings.Option.USE_VIRTUAL_THREADS)));
+        useVirtualThreads.addActionListener(event -> settings.set(Settings.Option.USE_VIRTUAL_THREADS, useVirtualThreads.isSelected()));
+        operationsMenu.add(useVirtualThreads);
+
+        JMenu verifyCopies = new JMenu("Verify Copies");
+        ButtonGroup verifications = new ButtonGroup();
+        addChoice(verifyCopies, verifications, settings, Settings.Option.COPY_VERIFICATION, "Off",
+                Settings.NO_VERIFICATION);
+        for (ChecksumAlgorithm algorithm : ChecksumAlgorithm.values()) {
+            addChoice(verifyCopies, verifications, settings, Settings.Option.COPY_VERIFICATION,
+                    algorithm.name().replace('_', '-'), algorithm.name());
+        }
+        operationsMenu.add(verifyCopies);
+
+        // e.g.: 1 for a spinning disk, so that its heads don't have to seek back and forth between the files
+        JMenu filesPerDevice = new JMenu("Files per Device");
+        ButtonGroup fileLimits = new ButtonGroup();
+        addChoice(filesPerDevice, fileLimits, settings, Settings.Option.FILES_PER_DEVICE, "Unlimited",
+                Settings.UNLIMITED_FILES);
+        for (int limit : FILE_LIMITS) {
+            addChoice(filesPerDevice, fileLimits, settings, Settings.Option.FILES_PER_DEVICE, String.valueOf(limit),
+                    limit);
+        }
+        operationsMenu.add(filesPerDevice);
+
+        menuBar.add(operationsMenu);
+    }
+
+    private static void addChoice(JMenu menu, ButtonGroup group, Settings settings, Settings.Option option,
+                                  String text, Object value) {
+        JRadioButtonMenuItem item = new JRadioButtonMenuItem(text);
+        item.setSelected(value.toString().equals(settings.get(option)));
+        item.addActionListener(event -> settings.set(option, value));
+        group.add(item);
+        menu.add(item);
     }
 
     /**
@@ -0,0 +1,137 @@
+package hu.bme.jcommander.bars;
+
+import hu.bme.jcommander.operation.OperationExecutor;
+import hu.bme.jcommander.operation.OperationHandle;
+import hu.bme.jcommander.operation.Progress;
+
+import javax.swing.*;
+import java.awt.*;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+public class OperationListFacade {
+
+    private static final String TITLE = "Operations";
+    private static final int PROGRESS_RESOLUTION = 1000;
+
+    private final OperationExecutor executor;
+    private final JPanel list;
+    private final Map<OperationHandle, Row> rows = new LinkedHashMap<>();
+    private JDialog dialog = null;
+
+    /**
+     * Constructs an OperationListFacade listing the active operations of the given executor,
+     * each of them with its progress and the buttons to pause, resume or cancel it.
+     *
+     * @param executor the OperationExecutor whose operations are to be listed
+     */
+    public OperationListFacade(OperationExecutor executor) {
+        this.executor = executor;
+
+        list = new JPanel();
+        list.setLayout(new BoxLayout(list, BoxLayout.Y_AXIS));
+        list.setBorder(BorderFactory.createEmptyBorder(4, 4, 4, 4));
+
+        executor.addChangeListener(e -> reloadRows());
+        executor.addProgressListener(e -> updateRows());
+    }
+
+    /**
+     * Shows the list in a dialog (the same one every time).
+     *
+     * @param parent the component whose window the dialog belongs to
+     */
+    public void show(Component parent) {
+        if (dialog == null) {
+            dialog = new JDialog(SwingUtilities.getWindowAncestor(parent), TITLE);
+            dialog.setDefaultCloseOperation(WindowConstants.HIDE_ON_CLOSE);
+            dialog.add(new JScrollPane(list));
+            dialog.setSize(480, 320);
+            dialog.setLocationRelativeTo(parent);
+        }
+
+        reloadRows();
+        dialog.setVisible(true);
+    }
+
+    private void reloadRows() {
+        List<OperationHandle> active = executor.getActiveOperations();
+        rows.keySet().retainAll(active);
+        for (OperationHandle handle : active) {
+            rows.computeIfAbsent(handle, Row::new);
+        }
+
+        list.removeAll();
+        if (rows.isEmpty()) {
+            list.add(new JLabel("There are no operations in progress."));
+        }
+        for (Row row : rows.values()) {
+            list.add(row.panel);
+        }
+        updateRows();
+
+        list.revalidate();
+        list.repaint();
+    }
+
+    private void updateRows() {
+        for (Row row : rows.values()) {
+            row.update();
+        }
+    }
+
+    private static class Row {
+
+        private final OperationHandle handle;
+        private final JPanel panel = new JPanel(new BorderLayout(8, 0));
+        private final JProgressBar progressBar = new JProgressBar(0, PROGRESS_RESOLUTION);
+        private final JButton pause = new JButton("Pause");
+        private final JButton cancel = new JButton("Cancel");
+
+        private Row(OperationHandle handle) {
+            this.handle = handle;
+
+            progressBar.setStringPainted(true);
+            progressBar.setString(handle.getName());
+
+            pause.setFocusable(false);
+            pause.addActionListener(e -> {
+                if (handle.isPaused()) {
+                    handle.resume();
+                } else {
+                    handle.pause();
+                }
+                update();
+            });
+
+            cancel.setFocusable(false);
+            cancel.addActionListener(e -> {
+                handle.cancel();
+                update();
+            });
+
+            JPanel buttons = new JPanel(new GridLayout(1, 2, 4, 0));
+            buttons.add(pause);
+            buttons.add(cancel);
+
+            panel.add(progressBar, BorderLayout.CENTER);
+            panel.add(buttons, BorderLayout.EAST);
+            panel.setBorder(BorderFactory.createEmptyBorder(2, 0, 2, 0));
+            panel.setMaximumSize(new Dimension(Integer.MAX_VALUE, panel.getPreferredSize().height));
+        }
+
+        private void update() {
+            Progress progress = handle.getProgress();
+            progressBar.setValue((int) (progress.fraction() * PROGRESS_RESOLUTION));
+            progressBar.setToolTipText(StatusBarFacade.describe(progress));
+
+            pause.setText(handle.isPaused() ? "Resume" : "Pause");
+            pause.setEnabled(!handle.isCancelled());
+            cancel.setEnabled(!handle.isCancelled());
+            if (handle.isCancelled()) {
+                progressBar.setString(handle.getName() + " (cancelling)");
+            }
+        }
+    }
+}
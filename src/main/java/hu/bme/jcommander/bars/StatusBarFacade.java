@@ -0,0 +1,121 @@
+package hu.bme.jcommander.bars;
+
+import hu.bme.jcommander.filesystem.SizeFormatter;
+import hu.bme.jcommander.operation.Operation;
+import hu.bme.jcommander.operation.OperationExecutor;
+import hu.bme.jcommander.operation.Progress;
+import hu.bme.jcommander.operation.ProgressEvent;
+
+import javax.swing.*;
+import java.awt.*;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+public class StatusBarFacade {
+
+    private static final String IDLE_TEXT = "Ready";
+    private static final int PROGRESS_RESOLUTION = 1000;
+
+    private final JPanel statusBar;
+    private final JLabel status;
+    private final JProgressBar progressBar;
+    // The operations in progress in the order of their latest reports, so the last one is shown.
+    private final Map<Operation, Progress> running = new LinkedHashMap<>();
+
+    /**
+     * Constructs a StatusBarFacade showing the progress of the operations executed by the given executor.
+     *
+     * @param executor the OperationExecutor whose operations are to be followed
+     */
+    public StatusBarFacade(OperationExecutor executor) {
+        statusBar = new JPanel(new BorderLayout(8, 0));
+        statusBar.setBorder(BorderFactory.createEmptyBorder(2, 4, 2, 4));
+
+        status = new JLabel(IDLE_TEXT);
+        statusBar.add(status, BorderLayout.CENTER);
+
+        progressBar = new JProgressBar(0, PROGRESS_RESOLUTION);
+        progressBar.setVisible(false);
+
+        OperationListFacade operationList = new OperationListFacade(executor);
+        JButton operations = new JButton("Operations");
+        operations.setFocusable(false);
+        operations.addActionListener(e -> operationList.show(statusBar));
+
+        JPanel east = new JPanel(new BorderLayout(8, 0));
+        east.add(progressBar, BorderLayout.CENTER);
+        east.add(operations, BorderLayout.EAST);
+        statusBar.add(east, BorderLayout.EAST);
+
+        executor.addProgressListener(this::progressChanged);
+    }
+
+    private void progressChanged(ProgressEvent event) {
+        running.remove(event.getOperation());
+        if (!event.getProgress().finished()) {
+            running.put(event.getOperation(), event.getProgress());
+        }
+
+        if (running.isEmpty()) {
+            status.setText(IDLE_TEXT);
+            progressBar.setVisible(false);
+            return;
+        }
+
+        Progress latest = null;
+        for (Progress progress : running.values()) {
+            latest = progress;
+        }
+
+        String text = describe(latest);
+        if (running.size() > 1) {
+            text += String.format(" (+%d more)", running.size() - 1);
+        }
+        status.setText(text);
+        progressBar.setValue((int) (latest.fraction() * PROGRESS_RESOLUTION));
+        progressBar.setVisible(true);
+    }
+
+    /**
+     * Describes the progress of an operation in a human-readable form.
+     *
+     * @param progress the progress
+     * @return the description
+     */
+    static String describe(Progress progress) {
+        StringBuilder text = new StringBuilder();
+
+        Path current = progress.currentFile();
+        if (current != null) {
+            Path name = current.getFileName();
+            text.append(name != null ? name : current).append(" - ");
+        }
+
+        text.append(String.format("%d of %d files", progress.filesDone(), progress.filesTotal()));
+        if (progress.bytesTotal() > 0) {
+            text.append(String.format(", %s of %s", SizeFormatter.format(progress.bytesDone()),
+                    SizeFormatter.format(progress.bytesTotal())));
+        }
+        if (progress.throughput() > 0) {
+            text.append(", ").append(SizeFormatter.format((long) progress.throughput())).append("/s");
+        }
+
+        Duration eta = progress.eta();
+        if (eta != null) {
+            text.append(String.format(", %d:%02d left", eta.toMinutes(), eta.toSecondsPart()));
+        }
+
+        return text.toString();
+    }
+
+    /**
+     * Retrieves the status bar as a component.
+     *
+     * @return the status bar
+     */
+    public JPanel get() {
+        return statusBar;
+    }
+}
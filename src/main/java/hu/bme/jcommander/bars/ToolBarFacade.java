@@ -8,9 +8,6 @@ import hu.bme.jcommander.settings.IconType;
 
 import javax.swing.*;
 import java.awt.*;
-import java.io.File;
-import java.nio.file.Path;
-import java.util.Arrays;
 import java.util.function.Supplier;
 
 import static hu.bme.jcommander.ResourceFactory.getIcon;
@@ -44,7 +41,7 @@ public class ToolBarFacade {
         delete.setFocusable(false);
         delete.setIcon(getIcon(IconType.DELETE));
         delete.addActionListener(e -> executor.issueDeleteOperation(activePane.get(), parent,
-                Arrays.stream(activePane.get().getSelectedFiles()).map(File::toPath).toList().toArray(new Path[0])));
+                activePane.get().getSelectedFiles()));
         centerBar.add(delete);
 
         // Copy button
@@ -60,6 +57,28 @@ public class ToolBarFacade {
         move.setIcon(getIcon(IconType.MOVE));
         move.addActionListener(e -> executor.issueFileOperation(activePane.get(), passivePane.get(), MoveOperation.class));
         centerBar.add(move);
+
+        // Sync button
+        JButton sync = new JButton();
+        sync.setFocusable(false);
+        sync.setIcon(getIcon(IconType.SYNC));
+        sync.addActionListener(e -> executor.issueSyncOperation(activePane.get(), passivePane.get(), parent));
+        centerBar.add(sync);
+
+        // Pack button
+        JButton pack = new JButton();
+        pack.setFocusable(false);
+        pack.setIcon(getIcon(IconType.PACK));
+        pack.addActionListener(e -> executor.issuePackOperation(activePane.get(), passivePane.get(), parent));
+        centerBar.add(pack);
+
+        // Find Duplicates button
+        JButton findDuplicates = new JButton();
+        findDuplicates.setFocusable(false);
+        findDuplicates.setIcon(getIcon(IconType.FIND));
+        findDuplicates.addActionListener(e -> executor.issueDuplicateSearch(activePane.get(), parent,
+                groups -> new DuplicateListFacade(groups).show(parent)));
+        centerBar.add(findDuplicates);
     }
 
     /**
@@ -0,0 +1,125 @@
+package hu.bme.jcommander.filesystem;
+
+import java.io.IOException;
+import java.nio.file.FileSystem;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.ProviderNotFoundException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * Keeps track of the files that have been opened as file systems of their own, so that every archive is opened
+ * only once, and so that the root of such a file system knows which file it lives in.
+ *
+ * <p>
+ * An open archive holds on to its file (and often to a good part of its contents in memory), so only a limited number
+ * of them are kept open, and the least recently used ones get closed once the limit is exceeded. An archive is never
+ * closed while it's in use (e.g.: it's the working directory of a pane, or a running operation works on it), though,
+ * only once it's been released. A closed archive gets opened again whenever it's entered anew.
+ * </p>
+ */
+public final class Archives {
+
+    static final int MAX_OPEN_ARCHIVES = 8;
+
+    private static final Map<Path, FileSystem> opened = new LinkedHashMap<>(16, 0.75f, true);
+    private static final Map<FileSystem, Integer> users = new HashMap<>();
+    // The handles within a closed archive may still be around (e.g.: in the history of a pane), and they still have to
+    // know where they belong, but once they're gone, so is the file system.
+    private static final Map<FileSystem, Path> containers = new WeakHashMap<>();
+
+    private Archives() {
+        // Prevent instantiation from outside the class.
+    }
+
+    /**
+     * Opens the given file as a file system, or reuses the one already opened.
+     *
+     * @param file the file to be opened
+     * @return the root directory of the file system, or null if no provider could open the file
+     */
+    static synchronized Path open(Path file) {
+        FileSystem fileSystem = opened.get(file);
+        if (fileSystem == null || !fileSystem.isOpen()) {
+            try {
+                fileSystem = FileSystems.newFileSystem(file);
+            } catch (IOException | ProviderNotFoundException | UnsupportedOperationException | SecurityException e) {
+                return null;
+            }
+            opened.put(file, fileSystem);
+            containers.put(fileSystem, file);
+            closeUnused();
+        }
+
+        return fileSystem.getRootDirectories().iterator().next();
+    }
+
+    /**
+     * Looks up the file that a file system has been opened from.
+     *
+     * @param fileSystem the file system
+     * @return the file containing the file system, or null if it's not been opened from a file
+     */
+    static synchronized Path containerOf(FileSystem fileSystem) {
+        return containers.get(fileSystem);
+    }
+
+    /**
+     * Keeps the archive that the given path is in (along with the archives containing that one) open until it gets
+     * released. Nothing happens if the path isn't in an archive.
+     *
+     * @param path the path being used, or null
+     */
+    public static synchronized void retain(Path path) {
+        for (FileSystem fileSystem : archivesOf(path)) {
+            users.merge(fileSystem, 1, Integer::sum);
+        }
+    }
+
+    /**
+     * Lets the archive that the given path is in be closed again, once it has been released as many times as it has
+     * been retained.
+     *
+     * @param path the path not being used anymore, or null
+     */
+    public static synchronized void release(Path path) {
+        for (FileSystem fileSystem : archivesOf(path)) {
+            users.computeIfPresent(fileSystem, (key, count) -> count > 1 ? count - 1 : null);
+        }
+        closeUnused();
+    }
+
+    private static List<FileSystem> archivesOf(Path path) {
+        List<FileSystem> archives = new ArrayList<>();
+        for (Path current = path; current != null && containers.containsKey(current.getFileSystem()); ) {
+            archives.add(current.getFileSystem());
+            current = containers.get(current.getFileSystem());
+        }
+        return archives;
+    }
+
+    private static void closeUnused() {
+        Iterator<FileSystem> leastRecentlyUsed = opened.values().iterator();
+        while (opened.size() > MAX_OPEN_ARCHIVES && leastRecentlyUsed.hasNext()) {
+            FileSystem fileSystem = leastRecentlyUsed.next();
+            if (!users.containsKey(fileSystem)) {
+                close(fileSystem);
+                leastRecentlyUsed.remove();
+            }
+        }
+    }
+
+    private static void close(FileSystem fileSystem) {
+        try {
+            fileSystem.close();
+        } catch (IOException e) {
+            System.err.println("Couldn't close archive: " + e.getMessage());
+        }
+    }
+}
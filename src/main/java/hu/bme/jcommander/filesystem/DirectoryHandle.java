@@ -2,47 +2,55 @@ package hu.bme.jcommander.filesystem;
 
 import hu.bme.jcommander.settings.IconType;
 
-import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 public class DirectoryHandle extends FileHandle {
 
     /**
      * Constructs a handle representing a directory.
      *
-     * @param directory the directory
+     * @param directory the path of the directory
      */
-    public DirectoryHandle(File directory) {
+    public DirectoryHandle(Path directory) {
         super(directory);
-        if (!directory.isDirectory()) {
+        if (!Files.isDirectory(directory)) {
             throw new IllegalArgumentException("Argument must be a directory");
         }
     }
 
+    // The attributes have already told us that it is a directory, so there's no need to ask the file system again.
+    DirectoryHandle(Path directory, BasicFileAttributes attributes) {
+        super(directory, attributes);
+    }
+
+    DirectoryHandle(DirectoryHandle parent, String name, BasicFileAttributes attributes) {
+        super(parent, name, attributes);
+    }
+
     @Override
     public String getName() {
-        if (file.getParentFile() == null) {
-            return file.getAbsolutePath();
-        }
-        return file.getName();
+        return getFileName();
     }
 
     @Override
     public Handle[] getChildren() {
-        File[] filesInDirectory = file.listFiles();
-        // even though it technically should never be null, that's pretty much what our guard-clause is for,
-        // but in some weird, hacky Windows-tested edge cases, it can indeed happen that a file is seemingly
-        // a directory but one cannot access its contents
-
-        if (filesInDirectory == null) {
-            return new Handle[0];
-        }
-
-        Handle[] children = new Handle[filesInDirectory.length];
-        for (int i = 0; i < filesInDirectory.length; i++) {
-            children[i] = new FileHandleBuilder(filesInDirectory[i]).toFileHandle();
+        try (Stream<Handle> children = streamChildren()) {
+            return children.toArray(Handle[]::new);
         }
+    }
 
-        return children;
+    @Override
+    public Stream<Handle> streamChildren() {
+        DirectoryListing listing = new DirectoryListing(this);
+        Spliterator<Handle> spliterator = Spliterators.spliteratorUnknownSize(listing,
+                Spliterator.DISTINCT | Spliterator.NONNULL);
+        return StreamSupport.stream(spliterator, false).onClose(listing::close);
     }
 
     @Override
@@ -0,0 +1,189 @@
+package hu.bme.jcommander.filesystem;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.ClosedFileSystemException;
+import java.nio.file.DirectoryIteratorException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * Iterates over the children of a directory one by one as they are read from the file system,
+ * so that the first entries of a huge directory are available long before the last ones.
+ *
+ * <p>
+ * The directory only gets opened on the first call to {@link #hasNext()}, so the listing can be created on one thread
+ * and consumed on another. A valid listing of the {@link ListingCache} is served from memory (its attributes
+ * are only read from the file system again if the cache doesn't trust them anymore), and a listing read to its end
+ * without errors is put into the cache.
+ * </p>
+ */
+class DirectoryListing implements Iterator<Handle>, Closeable {
+
+    private final DirectoryHandle parent;
+    private final Path directory;
+    private final FileHandleBuilder builder = new FileHandleBuilder();
+    private FileTime lastModified;
+    private ListingCache.Entries cached;
+    private int position = 0;
+    private DirectoryStream<Path> entries;
+    private Iterator<Path> pending;
+    private List<String> collected = new ArrayList<>();
+    private final List<BasicFileAttributes> collectedAttributes = new ArrayList<>();
+    private boolean opened = false;
+    private boolean exhausted = false;
+
+    /**
+     * Constructs a listing of the given directory without touching the file system yet.
+     *
+     * @param parent the handle of the directory, which the handles of the entries will refer to
+     */
+    DirectoryListing(DirectoryHandle parent) {
+        this.parent = parent;
+        this.directory = parent.getPath();
+    }
+
+    private void open() {
+        opened = true;
+        try {
+            // The modification time is read before the listing, so if the directory changes in the meantime,
+            // the next lookup will see a newer timestamp and won't be served the outdated listing.
+            lastModified = Files.getLastModifiedTime(directory);
+
+            cached = ListingCache.get(directory, lastModified);
+            if (cached != null) {
+                if (cached.attributes() != null) {
+                    collected = null; // there's nothing new to be cached
+                }
+                return;
+            }
+
+            entries = Files.newDirectoryStream(directory);
+            pending = entries.iterator();
+        } catch (IOException | SecurityException | ClosedFileSystemException e) {
+            // in some weird, hacky Windows-tested edge cases, it can indeed happen that a file is seemingly
+            // a directory but one cannot access its contents (just like a directory of an archive closed since)
+            collected = null;
+            exhausted = true;
+        }
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (!opened) {
+            open();
+        }
+
+        if (exhausted) {
+            return false;
+        }
+
+        if (cached != null) {
+            if (position < cached.names().length) {
+                return true;
+            }
+            finish();
+            return false;
+        }
+
+        try {
+            if (pending.hasNext()) {
+                return true;
+            }
+        } catch (DirectoryIteratorException e) {
+            collected = null; // an incomplete listing must not be cached
+        }
+
+        finish();
+        return false;
+    }
+
+    @Override
+    public Handle next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+
+        // Every entry gets stat-ed at most once: its type, size and modification time all come from the same
+        // attribute snapshot. The handle only keeps the entry's name and refers to the directory's handle.
+        Path entry;
+        BasicFileAttributes attributes;
+        if (cached != null) {
+            entry = directory.resolve(cached.names()[position]);
+            attributes = cached.attributes() != null ? cached.attributes()[position] : readAttributes(entry);
+            position++;
+        } else {
+            entry = pending.next();
+            attributes = readAttributes(entry);
+        }
+        Handle handle = toHandle(entry, attributes);
+
+        if (collected != null) {
+            collected.add(entry.getFileName().toString());
+            collectedAttributes.add(attributes);
+            if (collected.size() > ListingCache.MAX_CACHED_NAMES) {
+                collected = null; // it wouldn't be cached anyway, so there's no point in holding on to it
+                collectedAttributes.clear();
+            }
+        }
+
+        return handle;
+    }
+
+    private void finish() {
+        exhausted = true;
+        close();
+
+        if (collected != null) {
+            ListingCache.put(directory, lastModified, new ListingCache.Entries(collected.toArray(new String[0]),
+                    collectedAttributes.toArray(new BasicFileAttributes[0])));
+            collected = null;
+        }
+    }
+
+    @Override
+    public void close() {
+        if (entries == null) {
+            return;
+        }
+
+        try {
+            entries.close();
+        } catch (IOException ignored) {
+            // There's nothing left to be read, so there's nothing to be lost either.
+        }
+    }
+
+    private Handle toHandle(Path entry, BasicFileAttributes attributes) {
+        if (attributes == null) {
+            return builder.setPath(entry).toFileHandle(); // let the builder figure it out on its own
+        }
+
+        String name = entry.getFileName().toString();
+        if (attributes.isDirectory()) {
+            return new DirectoryHandle(parent, name, attributes);
+        }
+        return new RegularFileHandle(parent, name, attributes);
+    }
+
+    private static BasicFileAttributes readAttributes(Path entry) {
+        try {
+            return Files.readAttributes(entry, BasicFileAttributes.class);
+        } catch (IOException e) {
+            // Most likely a dangling symbolic link, so let's describe the link itself instead of its target.
+            try {
+                return Files.readAttributes(entry, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+            } catch (IOException ignored) {
+                return null; // the builder will fall back to querying the file on its own
+            }
+        }
+    }
+}
@@ -1,36 +1,155 @@
 package hu.bme.jcommander.filesystem;
 
-import java.io.File;
+import java.io.IOException;
+import java.nio.file.ClosedFileSystemException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
 
 public abstract class FileHandle implements Handle {
 
-    protected File file;
+    private static final long UNKNOWN = -1;
 
-    protected FileHandle(File file) {
-        this.file = file;
+    // A handle coming from a listing only keeps its own name and a reference to the handle of its directory, so the
+    // common prefixes of a large tree are shared instead of being stored in every single path. Its path is only
+    // built when asked for. Every other handle keeps its path as it is.
+    private final DirectoryHandle parent;
+    private String name;
+    private Path path;
+    private long size = UNKNOWN;
+    private long lastModified = UNKNOWN;
+
+    protected FileHandle(Path path) {
+        this.parent = null;
+        this.path = path;
+    }
+
+    /**
+     * Constructs a handle from an attribute snapshot that has already been read from the file system,
+     * so that no further system calls are needed to describe the file.
+     *
+     * @param path       the path of the underlying file
+     * @param attributes the attributes of the file read at listing time, or null if they're to be read on demand
+     */
+    protected FileHandle(Path path, BasicFileAttributes attributes) {
+        this(path);
+        setAttributes(attributes);
+    }
+
+    /**
+     * Constructs a handle of an entry of a listed directory.
+     *
+     * @param parent     the handle of the directory
+     * @param name       the name of the entry within the directory
+     * @param attributes the attributes of the entry read at listing time
+     */
+    FileHandle(DirectoryHandle parent, String name, BasicFileAttributes attributes) {
+        this.parent = parent;
+        this.name = name;
+        setAttributes(attributes);
+    }
+
+    private void setAttributes(BasicFileAttributes attributes) {
+        if (attributes != null) {
+            size = attributes.size();
+            lastModified = attributes.lastModifiedTime().toMillis();
+        }
     }
 
     @Override
     public String getAbsolutePath() {
-        return file.getAbsolutePath();
+        return getPath().toAbsolutePath().toString();
+    }
+
+    @Override
+    public Path getPath() {
+        return parent != null ? parent.getPath().resolve(name) : path;
+    }
+
+    /**
+     * Retrieves the last segment of the path, without building the whole path if possible.
+     *
+     * @return the name of the file, or the whole path if it has no parent (e.g.: a mount point)
+     */
+    protected String getFileName() {
+        if (parent != null) {
+            return name;
+        }
+
+        Path fileName = path.getFileName();
+        return fileName != null && path.getParent() != null ? fileName.toString() : path.toString();
     }
 
     @Override
     public Handle getParent() {
-        return new FileHandleBuilder(file).parent().toFileHandle();
+        if (parent != null) {
+            return parent;
+        }
+        return new FileHandleBuilder(path).parent().toFileHandle();
+    }
+
+    /**
+     * Retrieves the size of the underlying file as it was when the handle got created.
+     *
+     * @return the size in bytes
+     */
+    public long getSize() {
+        if (size == UNKNOWN) {
+            // only handles not coming from a listing have to query it on demand
+            try {
+                size = Files.size(getPath());
+            } catch (IOException | SecurityException | ClosedFileSystemException e) {
+                size = 0;
+            }
+        }
+        return size;
+    }
+
+    /**
+     * Retrieves the last modification time of the underlying file as it was when the handle got created.
+     *
+     * @return the time of the last modification in milliseconds since the epoch
+     */
+    public long getLastModified() {
+        if (lastModified == UNKNOWN) {
+            try {
+                lastModified = Files.getLastModifiedTime(getPath()).toMillis();
+            } catch (IOException | SecurityException | ClosedFileSystemException e) {
+                lastModified = 0;
+            }
+        }
+        return lastModified;
     }
 
     @Override
     public void rename(String to) throws RenamingException {
-        File newDirectory = new File(file.getParent(), to);
-        if (!newDirectory.getParent().equals(file.getParent())) {
+        Path path = getPath();
+        Path renamed;
+        try {
+            renamed = path.resolveSibling(to);
+        } catch (InvalidPathException e) {
+            throw new RenamingException("Invalid file name");
+        }
+
+        if (!path.getParent().equals(renamed.getParent())) {
             throw new RenamingException("New file must not change path");
         }
 
-        if (file.renameTo(newDirectory)) {
-            file = newDirectory;
-        } else {
+        try {
+            Files.move(path, renamed);
+        } catch (FileAlreadyExistsException e) {
+            throw new RenamingException("File already exists");
+        } catch (IOException | SecurityException e) {
             throw new RenamingException("Couldn't rename file");
         }
+
+        ListingCache.invalidate(path.getParent());
+        if (parent != null) {
+            name = to;
+        } else {
+            this.path = renamed;
+        }
     }
 }
@@ -1,20 +1,33 @@
 package hu.bme.jcommander.filesystem;
 
 import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
 
 public class FileHandleBuilder {
 
-    private File file;
+    private Path path;
+    private BasicFileAttributes attributes;
 
     /**
      * Constructs a builder.
      */
     public FileHandleBuilder() {
-        this(null);
+        this((Path) null);
     }
 
     /**
-     * Constructs a builder with an initial file.
+     * Constructs a builder with an initial path, which may belong to any file system.
+     *
+     * @param base the initial path
+     */
+    public FileHandleBuilder(Path base) {
+        setPath(base);
+    }
+
+    /**
+     * Constructs a builder with an initial file of the default file system.
      *
      * @param base the initial file
      */
@@ -23,13 +36,36 @@ public class FileHandleBuilder {
     }
 
     /**
-     * Sets the builder to the given file.
+     * Sets the builder to the given path.
+     *
+     * @param path the path
+     * @return the builder
+     */
+    public FileHandleBuilder setPath(Path path) {
+        this.path = path != null ? path.toAbsolutePath() : null;
+        this.attributes = null;
+        return this;
+    }
+
+    /**
+     * Sets the builder to the given file of the default file system.
      *
      * @param file the file
      * @return the builder
      */
     public FileHandleBuilder setFile(File file) {
-        this.file = file;
+        return setPath(file != null ? file.toPath() : null);
+    }
+
+    /**
+     * Sets the attributes already known about the current file, so that the handle can be built without
+     * querying the file system again. It has to be called after {@link #setPath(Path)}, as that clears them.
+     *
+     * @param attributes the attributes of the current file, or null if they're unknown
+     * @return the builder
+     */
+    public FileHandleBuilder setAttributes(BasicFileAttributes attributes) {
+        this.attributes = attributes;
         return this;
     }
 
@@ -39,19 +75,26 @@ public class FileHandleBuilder {
      * @return a handle
      */
     public Handle toFileHandle() {
-        if (file == null) {
+        if (path == null) {
             return new RootHandle();
         }
 
-        if (file.getParentFile() == null) {
-            return new MountHandle(file);
+        if (path.getParent() == null) {
+            return new MountHandle(path);
+        }
+
+        if (attributes != null) {
+            if (attributes.isDirectory()) {
+                return new DirectoryHandle(path, attributes);
+            }
+            return new RegularFileHandle(path, attributes);
         }
 
-        if (file.isDirectory()) {
-            return new DirectoryHandle(file);
+        if (Files.isDirectory(path)) {
+            return new DirectoryHandle(path);
         }
 
-        return new RegularFileHandle(file);
+        return new RegularFileHandle(path);
     }
 
     /**
@@ -60,7 +103,8 @@ public class FileHandleBuilder {
      * @return the builder
      */
     public FileHandleBuilder parent() {
-        file = file.getParentFile();
+        path = path.getParent();
+        attributes = null;
         return this;
     }
 }
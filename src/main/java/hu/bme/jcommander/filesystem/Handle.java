@@ -2,6 +2,10 @@ package hu.bme.jcommander.filesystem;
 
 import hu.bme.jcommander.settings.IconType;
 
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.stream.Stream;
+
 public interface Handle {
 
     /**
@@ -11,6 +15,13 @@ public interface Handle {
      */
     String getAbsolutePath();
 
+    /**
+     * Retrieves the path of the file, which may belong to any file system.
+     *
+     * @return the path, or null if the handle represents the system root
+     */
+    Path getPath();
+
     /**
      * Retrieves the name of the file.
      *
@@ -33,6 +44,18 @@ public interface Handle {
      */
     Handle[] getChildren();
 
+    /**
+     * Streams the handles to the underlying file's children as they are read, so that huge directories
+     * don't have to be read completely before the first children can be used.
+     * The stream should be closed after use, preferably with a try-with-resources statement.
+     *
+     * @return a stream of handles representing the handle's children if the handle is not a leaf,
+     * and an empty stream otherwise
+     */
+    default Stream<Handle> streamChildren() {
+        return Arrays.stream(getChildren());
+    }
+
     /**
      * Retrieves the icon type associated with the kind of handle.
      *
@@ -0,0 +1,163 @@
+package hu.bme.jcommander.filesystem;
+
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A process-wide cache of directory listings shared by every pane, tree and refresh.
+ *
+ * <p>
+ * Listings are keyed by the directory's absolute path and are only served as long as the directory's modification
+ * time is the same as it was at the time of listing. Since adding, removing or renaming an entry changes the
+ * directory's modification time, a matching timestamp means that the set of entries is still the same. Writing to an
+ * entry doesn't change it though, so the attributes of the entries (e.g.: their sizes and modification times) are
+ * only served as long as the {@link hu.bme.jcommander.watch.DirectoryWatcher} watches the directory, which drops the
+ * listing as soon as an entry gets modified, or for a short while after they've been read otherwise. The cache is
+ * bounded by the total number of names held, and the least recently used listings get evicted first.
+ * </p>
+ */
+public class ListingCache {
+
+    static final int MAX_CACHED_NAMES = 262_144;
+
+    // Some file systems only store timestamps with a granularity of seconds, so a directory changed within the same
+    // tick as it got listed would look unchanged. Listings of such freshly modified directories are not cached.
+    private static final long RACY_WINDOW_MILLIS = 2_000;
+
+    // Nothing tells about the modifications of the entries of an unwatched directory, so their attributes are only
+    // trusted for as long as a user wouldn't notice the difference.
+    static final long ATTRIBUTES_TTL_MILLIS = 1_000;
+
+    private static final Map<Path, Listing> cache = new LinkedHashMap<>(16, 0.75f, true);
+    private static final Set<Path> watched = new HashSet<>();
+    private static int cachedNames = 0;
+    private static long hits = 0;
+    private static long misses = 0;
+
+    private ListingCache() {
+        // Prevent instantiation from outside the class.
+    }
+
+    /**
+     * Looks up the listing of a directory.
+     *
+     * @param directory    the absolute path of the directory
+     * @param lastModified the current modification time of the directory
+     * @return a copy of the cached entries if the cached listing is still valid, null otherwise
+     */
+    public static synchronized Entries get(Path directory, FileTime lastModified) {
+        Listing listing = cache.get(directory);
+        if (listing == null || !listing.lastModified.equals(lastModified)) {
+            misses++;
+            return null;
+        }
+
+        hits++;
+        boolean fresh = watched.contains(directory)
+                || System.currentTimeMillis() - listing.attributesReadAt < ATTRIBUTES_TTL_MILLIS;
+        // nobody should be able to tamper with the cached arrays themselves
+        return new Entries(listing.names.clone(), fresh ? listing.attributes.clone() : null);
+    }
+
+    /**
+     * Stores the listing of a directory, evicting the least recently used listings if the cache is full.
+     *
+     * @param directory    the absolute path of the directory
+     * @param lastModified the modification time of the directory read before it got listed
+     * @param entries      the entries of the directory, along with their attributes read just now
+     */
+    public static synchronized void put(Path directory, FileTime lastModified, Entries entries) {
+        invalidate(directory);
+
+        String[] names = entries.names();
+        if (names.length > MAX_CACHED_NAMES
+                || System.currentTimeMillis() - lastModified.toMillis() < RACY_WINDOW_MILLIS) {
+            return;
+        }
+
+        cache.put(directory, new Listing(lastModified, names.clone(), entries.attributes().clone(),
+                System.currentTimeMillis()));
+        cachedNames += names.length;
+
+        Iterator<Listing> leastRecentlyUsed = cache.values().iterator();
+        while (cachedNames > MAX_CACHED_NAMES && leastRecentlyUsed.hasNext()) {
+            cachedNames -= leastRecentlyUsed.next().names.length;
+            leastRecentlyUsed.remove();
+        }
+    }
+
+    /**
+     * Drops the listing of a directory, so that the next lookup has to go to the disk.
+     *
+     * @param directory the absolute path of the directory
+     */
+    public static synchronized void invalidate(Path directory) {
+        Listing removed = cache.remove(directory);
+        if (removed != null) {
+            cachedNames -= removed.names.length;
+        }
+    }
+
+    /**
+     * Tells the cache whether a directory is being watched, in which case the attributes of its entries are served
+     * until its listing gets invalidated, instead of only for a short while.
+     *
+     * @param directory the absolute path of the directory
+     * @param watching  true if the directory is being watched from now on, false if it's not anymore
+     */
+    public static synchronized void setWatched(Path directory, boolean watching) {
+        if (watching) {
+            watched.add(directory);
+        } else {
+            watched.remove(directory);
+        }
+    }
+
+    /**
+     * Drops every cached listing.
+     */
+    public static synchronized void clear() {
+        cache.clear();
+        cachedNames = 0;
+    }
+
+    /**
+     * Retrieves the number of lookups served from memory.
+     *
+     * @return the number of hits
+     */
+    public static synchronized long getHits() {
+        return hits;
+    }
+
+    /**
+     * Retrieves the number of lookups that had to go to the disk.
+     *
+     * @return the number of misses
+     */
+    public static synchronized long getMisses() {
+        return misses;
+    }
+
+    /**
+     * The entries of a directory.
+     *
+     * @param names      the names of the entries
+     * @param attributes the attributes of the entries in the same order (null for the ones that couldn't be read),
+     *                   or null if they have to be read again
+     */
+    public record Entries(String[] names, BasicFileAttributes[] attributes) {
+
+    }
+
+    private record Listing(FileTime lastModified, String[] names, BasicFileAttributes[] attributes,
+                           long attributesReadAt) {
+
+    }
+}
@@ -2,7 +2,8 @@ package hu.bme.jcommander.filesystem;
 
 import hu.bme.jcommander.settings.IconType;
 
-import java.io.File;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
 
 public class MountHandle extends DirectoryHandle {
 
@@ -13,14 +14,49 @@ public class MountHandle extends DirectoryHandle {
      * @throws IllegalArgumentException if the provided mount point has a non-null parent,
      *                                  indicating it is not a mount point.
      */
-    public MountHandle(File mount) {
+    public MountHandle(Path mount) {
         super(mount); // this is quirky
         // only because of inheritance are we obliged to call super first, even if the parameter turns out to be wrong
-        if (mount.getParentFile() != null) {
+        if (mount.getParent() != null) {
             throw new IllegalArgumentException("Argument must be a mount point");
         }
     }
 
+    private MountHandle(Path mount, BasicFileAttributes attributes) {
+        super(mount, attributes);
+    }
+
+    /**
+     * Creates a handle of a mount point that is known to exist without touching it, as a hung (e.g.: network) mount
+     * would block the caller.
+     *
+     * @param mount the mount point
+     * @return the handle
+     */
+    static MountHandle unchecked(Path mount) {
+        return new MountHandle(mount, null);
+    }
+
+    /**
+     * Retrieves the details of the file store behind the mount point. They are loaded in the background on first
+     * request, so that a hung mount can't block the caller.
+     *
+     * @return the details of the file store, or null if they're not (yet) known
+     */
+    public MountInfo getStoreInfo() {
+        return MountRegistry.getInstance().getStoreInfo(getPath());
+    }
+
+    /**
+     * Describes the file store behind the mount point in a human-readable form.
+     *
+     * @return the description, or a placeholder if the details of the file store are not (yet) known
+     */
+    public String describeStore() {
+        MountInfo info = getStoreInfo();
+        return info != null ? info.describe() : "Loading...";
+    }
+
     @Override
     public String getName() {
         return getAbsolutePath(); // for mount points, the name shall be equal to the absolute path
@@ -33,6 +69,12 @@ public class MountHandle extends DirectoryHandle {
 
     @Override
     public Handle getParent() {
+        // The root of an archive belongs to the directory of the archive, not to the system root.
+        Path container = Archives.containerOf(getPath().getFileSystem());
+        if (container != null) {
+            return new FileHandleBuilder(container).parent().toFileHandle();
+        }
+
         return new RootHandle();
     }
 
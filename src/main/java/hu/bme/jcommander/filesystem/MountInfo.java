@@ -0,0 +1,21 @@
+package hu.bme.jcommander.filesystem;
+
+/**
+ * Describes the file store behind a mount point.
+ *
+ * @param type        the type of the file store (e.g.: NTFS, ext4)
+ * @param totalSpace  the size of the file store in bytes
+ * @param usableSpace the number of bytes available to this application on the file store
+ */
+public record MountInfo(String type, long totalSpace, long usableSpace) {
+
+    /**
+     * Describes the file store in a human-readable form (e.g.: "ext4 - 12.3 GB free of 100.0 GB").
+     *
+     * @return the description
+     */
+    public String describe() {
+        return String.format("%s - %s free of %s", type, SizeFormatter.format(usableSpace),
+                SizeFormatter.format(totalSpace));
+    }
+}
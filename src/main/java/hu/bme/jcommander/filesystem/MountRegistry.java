@@ -0,0 +1,178 @@
+package hu.bme.jcommander.filesystem;
+
+import javax.swing.*;
+import javax.swing.event.ChangeEvent;
+import javax.swing.event.ChangeListener;
+import java.io.IOException;
+import java.nio.file.FileStore;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps track of the mount points of the default file system, shared by every part of the application.
+ *
+ * <p>
+ * The mount points are enumerated once, then re-enumerated periodically in the background, and the listeners are
+ * notified if they have changed. The details of the file stores behind them are only loaded when first asked for,
+ * on background threads of their own, so that a hung network mount can never stall navigation.
+ * </p>
+ */
+public class MountRegistry {
+
+    private static final long POLL_INTERVAL_SECONDS = 5;
+
+    private static MountRegistry instance;
+
+    private final ScheduledExecutorService poller = Executors.newSingleThreadScheduledExecutor(
+            daemonThreads("mount-registry"));
+    private final ExecutorService storeLoader = Executors.newCachedThreadPool(daemonThreads("file-store-loader"));
+    private final List<ChangeListener> listeners = new CopyOnWriteArrayList<>();
+    private final Map<Path, MountInfo> storeInfo = new ConcurrentHashMap<>();
+    private final Set<Path> loading = ConcurrentHashMap.newKeySet();
+    private final Set<Path> unavailable = ConcurrentHashMap.newKeySet();
+    private volatile List<Path> mountPoints;
+    private volatile Handle[] mounts;
+
+    private MountRegistry() {
+        mountPoints = enumerate();
+        mounts = toHandles(mountPoints);
+        poller.scheduleWithFixedDelay(this::poll, POLL_INTERVAL_SECONDS, POLL_INTERVAL_SECONDS, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Retrieves the registry shared by the whole application.
+     *
+     * @return the registry
+     */
+    public static synchronized MountRegistry getInstance() {
+        if (instance == null) {
+            instance = new MountRegistry();
+        }
+        return instance;
+    }
+
+    /**
+     * Retrieves the handles of the mount points known at the moment.
+     *
+     * @return the handles of the mount points
+     */
+    public Handle[] getMounts() {
+        return mounts.clone();
+    }
+
+    /**
+     * Retrieves the details of the file store behind a mount point. If they haven't been loaded yet, their loading
+     * starts in the background, so they're meant to be asked for whenever they're shown (e.g.: in a tooltip).
+     *
+     * @param mountPoint the path of the mount point
+     * @return the details of the file store, or null if they're not (yet) known
+     */
+    public MountInfo getStoreInfo(Path mountPoint) {
+        MountInfo info = storeInfo.get(mountPoint);
+        if (info == null && !unavailable.contains(mountPoint)) {
+            load(mountPoint);
+        }
+        return info;
+    }
+
+    private void load(Path mountPoint) {
+        if (!loading.add(mountPoint)) {
+            return; // it's already on its way
+        }
+
+        storeLoader.execute(() -> {
+            try {
+                FileStore store = Files.getFileStore(mountPoint);
+                storeInfo.put(mountPoint, new MountInfo(store.type(), store.getTotalSpace(), store.getUsableSpace()));
+                unavailable.remove(mountPoint);
+            } catch (IOException | SecurityException e) {
+                unavailable.add(mountPoint); // e.g.: an empty optical drive, it will be tried again on the next poll
+            } finally {
+                loading.remove(mountPoint);
+            }
+        });
+    }
+
+    private void poll() {
+        List<Path> current = enumerate();
+        boolean changed = !current.equals(mountPoints);
+        if (changed) {
+            mountPoints = current;
+            mounts = toHandles(current);
+            storeInfo.keySet().retainAll(current);
+        }
+
+        // The free space changes all the time, so the details that have already been asked for are reloaded as well.
+        unavailable.clear();
+        for (Path mountPoint : storeInfo.keySet()) {
+            load(mountPoint);
+        }
+
+        if (changed) {
+            notifyAllChanged();
+        }
+    }
+
+    private static List<Path> enumerate() {
+        List<Path> mountPoints = new ArrayList<>();
+        for (Path mountPoint : FileSystems.getDefault().getRootDirectories()) {
+            mountPoints.add(mountPoint);
+        }
+        return mountPoints;
+    }
+
+    private static Handle[] toHandles(List<Path> mountPoints) {
+        Handle[] handles = new Handle[mountPoints.size()];
+        for (int i = 0; i < handles.length; i++) {
+            handles[i] = MountHandle.unchecked(mountPoints.get(i));
+        }
+        return handles;
+    }
+
+    private static ThreadFactory daemonThreads(String name) {
+        return runnable -> {
+            Thread thread = new Thread(runnable, name);
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    /**
+     * Adds a ChangeListener to be notified on the Event Dispatch Thread whenever the mount points change.
+     *
+     * @param listener the ChangeListener to be added
+     */
+    public void addChangeListener(ChangeListener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Removes a ChangeListener from the list of listeners.
+     *
+     * @param listener the ChangeListener to be removed
+     */
+    public void removeChangeListener(ChangeListener listener) {
+        listeners.remove(listener);
+    }
+
+    private void notifyAllChanged() {
+        SwingUtilities.invokeLater(() -> {
+            ChangeEvent e = new ChangeEvent(this);
+            for (ChangeListener listener : listeners) {
+                listener.stateChanged(e);
+            }
+        });
+    }
+}
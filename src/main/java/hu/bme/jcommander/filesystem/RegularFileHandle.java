@@ -2,22 +2,41 @@ package hu.bme.jcommander.filesystem;
 
 import hu.bme.jcommander.settings.IconType;
 
-import java.io.File;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
 
 public class RegularFileHandle extends FileHandle {
 
     /**
-     * Constructs a RegularFileHandle representing a regular file with the specified {@code file}.
+     * Constructs a RegularFileHandle representing a regular file with the specified {@code path}.
      *
-     * @param file the {@code File} object representing the regular file
+     * @param path the {@code Path} of the regular file
      */
-    public RegularFileHandle(File file) {
-        super(file);
+    public RegularFileHandle(Path path) {
+        super(path);
+    }
+
+    RegularFileHandle(Path path, BasicFileAttributes attributes) {
+        super(path, attributes);
+    }
+
+    RegularFileHandle(DirectoryHandle parent, String name, BasicFileAttributes attributes) {
+        super(parent, name, attributes);
+    }
+
+    /**
+     * Opens the file as a file system of its own (e.g.: a zip archive), if any installed provider supports it.
+     *
+     * @return a handle to the root of the file system within the file, or null if the file can't be opened as such
+     */
+    public Handle open() {
+        Path root = Archives.open(getPath());
+        return root != null ? new MountHandle(root) : null;
     }
 
     @Override
     public String getName() {
-        return file.getName();
+        return getFileName();
     }
 
     @Override
@@ -2,22 +2,16 @@ package hu.bme.jcommander.filesystem;
 
 import hu.bme.jcommander.settings.IconType;
 
-import java.io.File;
+import java.nio.file.Path;
 
 public class RootHandle implements Handle {
 
-    private final Handle[] children;
-
     /**
      * Constructs a RootHandle representing the system root in a file system.
+     * It's cheap to construct, as the mount points themselves are kept track of by the {@link MountRegistry}.
      */
     public RootHandle() {
-        File[] mountPoints = File.listRoots();
-        children = new Handle[mountPoints.length];
-
-        for (int i = 0; i < mountPoints.length; i++) {
-            children[i] = new MountHandle(mountPoints[i]);
-        }
+        // Nothing to set up here.
     }
 
     @Override
@@ -25,6 +19,11 @@ public class RootHandle implements Handle {
         return ""; // The root's path is an empty string.
     }
 
+    @Override
+    public Path getPath() {
+        return null; // The root is above every file system, so it has no path.
+    }
+
     @Override
     public String getName() {
         return "This PC";
@@ -37,7 +36,7 @@ public class RootHandle implements Handle {
 
     @Override
     public Handle[] getChildren() {
-        return children;
+        return MountRegistry.getInstance().getMounts();
     }
 
     @Override
@@ -54,4 +53,15 @@ public class RootHandle implements Handle {
     public void rename(String to) throws RenamingException {
         throw new RenamingException("Can't rename root");
     }
+
+    // There's only one system root, no matter how many handles refer to it.
+    @Override
+    public boolean equals(Object obj) {
+        return obj instanceof RootHandle;
+    }
+
+    @Override
+    public int hashCode() {
+        return RootHandle.class.hashCode();
+    }
 }
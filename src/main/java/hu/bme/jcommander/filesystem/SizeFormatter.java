@@ -0,0 +1,26 @@
+package hu.bme.jcommander.filesystem;
+
+public class SizeFormatter {
+
+    private static final String[] UNITS = {"B", "KB", "MB", "GB", "TB", "PB"};
+
+    private SizeFormatter() {
+        // Prevent instantiation from outside the class.
+    }
+
+    /**
+     * Formats a number of bytes in a human-readable form (e.g.: "12.3 GB").
+     *
+     * @param bytes the number of bytes
+     * @return the formatted size
+     */
+    public static String format(long bytes) {
+        double size = bytes;
+        int unit = 0;
+        while (size >= 1024 && unit < UNITS.length - 1) {
+            size /= 1024;
+            unit++;
+        }
+        return unit == 0 ? bytes + " B" : String.format("%.1f %s", size, UNITS[unit]);
+    }
+}
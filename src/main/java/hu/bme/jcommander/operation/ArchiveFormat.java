@@ -0,0 +1,51 @@
+package hu.bme.jcommander.operation;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Represents the archive formats that files can be packed into.
+ */
+public enum ArchiveFormat {
+    ZIP("zip") {
+        @Override
+        ArchiveWriter newWriter(OutputStream output) {
+            return new ZipArchiveWriter(output);
+        }
+    },
+    TAR_GZ("tar.gz") {
+        @Override
+        ArchiveWriter newWriter(OutputStream output) throws IOException {
+            return new TarGzArchiveWriter(output);
+        }
+    };
+
+    private final String extension;
+
+    ArchiveFormat(String extension) {
+        this.extension = extension;
+    }
+
+    /**
+     * Retrieves the file name extension of the format (without the leading dot).
+     *
+     * @return the extension
+     */
+    public String getExtension() {
+        return extension;
+    }
+
+    /**
+     * Starts writing an archive of the format.
+     *
+     * @param output the stream to write the archive to, which gets closed along with the writer
+     * @return the writer of the archive
+     * @throws IOException if the output couldn't be written
+     */
+    abstract ArchiveWriter newWriter(OutputStream output) throws IOException;
+
+    @Override
+    public String toString() {
+        return "." + extension;
+    }
+}
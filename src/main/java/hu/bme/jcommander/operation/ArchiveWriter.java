@@ -0,0 +1,54 @@
+package hu.bme.jcommander.operation;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.attribute.BasicFileAttributes;
+
+/**
+ * Writes the entries of an archive one after the other, without ever seeking back in its output.
+ */
+interface ArchiveWriter extends Closeable {
+
+    /**
+     * Adds a directory to the archive.
+     *
+     * @param name       the path of the directory inside the archive, separated by slashes
+     * @param attributes the attributes of the directory
+     * @throws IOException if the output couldn't be written
+     */
+    void putDirectory(String name, BasicFileAttributes attributes) throws IOException;
+
+    /**
+     * Adds a file to the archive. Its contents are to be written into the returned stream, and the entry
+     * is complete once that stream has been closed. No other entry may be added in the meantime.
+     *
+     * @param name       the path of the file inside the archive, separated by slashes
+     * @param attributes the attributes of the file
+     * @return the stream to write the contents of the file into
+     * @throws IOException if the output couldn't be written
+     */
+    OutputStream putFile(String name, BasicFileAttributes attributes) throws IOException;
+
+    /**
+     * Tells whether the size of a file is stored before its contents, so that exactly as many bytes have to be
+     * written into its stream as the attributes given to {@link #putFile} say. A stream closed early gets padded
+     * with zeros to that size.
+     *
+     * @return true if the sizes of the files are fixed up front, false if they're whatever gets written
+     */
+    boolean hasFixedSizes();
+
+    /**
+     * Completes the archive and closes its output.
+     *
+     * @throws IOException if the output couldn't be written
+     */
+    @Override
+    void close() throws IOException;
+
+    /**
+     * Gives up on the archive, and closes its output, leaving an incomplete archive behind.
+     */
+    void abort();
+}
@@ -0,0 +1,122 @@
+package hu.bme.jcommander.operation;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.zip.CRC32C;
+
+import static java.nio.file.StandardOpenOption.READ;
+
+/**
+ * Represents the algorithms that copies can be verified with.
+ */
+public enum ChecksumAlgorithm {
+
+    /**
+     * A fast checksum, computed by the processor itself where it's supported. It catches accidental corruption,
+     * which is what a copy is up against.
+     */
+    CRC32C {
+        @Override
+        Hasher newHasher() {
+            CRC32C checksum = new CRC32C();
+            return new Hasher() {
+                @Override
+                public void update(ByteBuffer buffer) {
+                    checksum.update(buffer);
+                }
+
+                @Override
+                public byte[] digest() {
+                    return ByteBuffer.allocate(Long.BYTES).putLong(checksum.getValue()).array();
+                }
+            };
+        }
+    },
+
+    /**
+     * A cryptographic hash, much slower than a checksum, but it also holds up against deliberate tampering.
+     */
+    SHA_256 {
+        @Override
+        Hasher newHasher() {
+            MessageDigest digest;
+            try {
+                digest = MessageDigest.getInstance("SHA-256");
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException("Every Java platform has to support SHA-256.", e);
+            }
+
+            return new Hasher() {
+                @Override
+                public void update(ByteBuffer buffer) {
+                    digest.update(buffer);
+                }
+
+                @Override
+                public byte[] digest() {
+                    return digest.digest();
+                }
+            };
+        }
+    };
+
+    private static final int BUFFER_SIZE = 1024 * 1024;
+
+    /**
+     * Creates a new, empty hasher of the algorithm.
+     *
+     * @return the hasher
+     */
+    abstract Hasher newHasher();
+
+    /**
+     * Computes the digest of the beginning of a file.
+     *
+     * @param file   the file
+     * @param length the number of bytes to be read from the beginning of the file (or more to read all of it)
+     * @return the digest
+     * @throws IOException if the file couldn't be read
+     */
+    byte[] digestOf(Path file, long length) throws IOException {
+        Hasher hasher = newHasher();
+        ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+        try (FileChannel channel = FileChannel.open(file, READ)) {
+            long remaining = length;
+            while (remaining > 0) {
+                buffer.clear().limit((int) Math.min(buffer.capacity(), remaining));
+                int read = channel.read(buffer);
+                if (read < 0) {
+                    break;
+                }
+                buffer.flip();
+                hasher.update(buffer);
+                remaining -= read;
+            }
+        }
+        return hasher.digest();
+    }
+
+    /**
+     * Accumulates the digest of the bytes it's fed with.
+     */
+    interface Hasher {
+
+        /**
+         * Feeds the remaining bytes of the buffer to the hasher, consuming them.
+         *
+         * @param buffer the buffer
+         */
+        void update(ByteBuffer buffer);
+
+        /**
+         * Completes the digest of the bytes fed so far.
+         *
+         * @return the digest
+         */
+        byte[] digest();
+    }
+}
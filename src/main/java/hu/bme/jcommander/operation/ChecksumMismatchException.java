@@ -0,0 +1,15 @@
+package hu.bme.jcommander.operation;
+
+import java.io.IOException;
+
+public class ChecksumMismatchException extends IOException {
+
+    /**
+     * Constructs a ChecksumMismatchException with the specified detail message.
+     *
+     * @param message the detail message
+     */
+    public ChecksumMismatchException(String message) {
+        super(message);
+    }
+}
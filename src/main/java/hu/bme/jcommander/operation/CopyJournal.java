@@ -0,0 +1,238 @@
+package hu.bme.jcommander.operation;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.URLDecoder;
+import java.net.URLEncoder;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.StandardOpenOption.APPEND;
+import static java.nio.file.StandardOpenOption.CREATE_NEW;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+/**
+ * An append-only journal of the files completed by a copy (or move), and of the offsets reached within the large files
+ * being transferred, so that the operation can be resumed if the application dies halfway.
+ *
+ * <p>
+ * The journal is a text file of one record per line, with the paths encoded (relative to the source of the operation),
+ * so a record torn by a crash is simply ignored. The file only gets created on the first record, and it's deleted once
+ * the operation comes to an end in any way, so only the journals of interrupted operations are left behind. The paths
+ * are resolved on the file system of the journal itself when it's read back.
+ * </p>
+ */
+final class CopyJournal implements Closeable {
+
+    private static final String EXTENSION = ".journal";
+    private static final String MAGIC = "JCJ1";
+    private static final String DONE = "D";
+    private static final String OFFSET = "P";
+
+    private final Path file;
+    private final String kind;
+    private final Path from;
+    private final Path to;
+    private final Set<String> done = ConcurrentHashMap.newKeySet();
+    private final Map<String, Long> offsets = new ConcurrentHashMap<>();
+    private FileChannel channel = null;
+
+    private CopyJournal(Path file, String kind, Path from, Path to) {
+        this.file = file;
+        this.kind = kind;
+        this.from = from;
+        this.to = to;
+    }
+
+    /**
+     * Prepares a new journal in the given directory. Nothing is written until the first record.
+     *
+     * @param directory the directory of the journals
+     * @param kind      the kind of the operation (e.g.: "Copy")
+     * @param from      the source of the operation
+     * @param to        the target of the operation
+     * @return the journal
+     */
+    static CopyJournal create(Path directory, String kind, Path from, Path to) {
+        return new CopyJournal(directory.resolve(UUID.randomUUID() + EXTENSION), kind, from.toAbsolutePath(),
+                to.toAbsolutePath());
+    }
+
+    /**
+     * Reads back a journal left behind by an interrupted operation, so that it can be resumed and appended to.
+     *
+     * @param file the file of the journal
+     * @return the journal
+     * @throws IOException if the journal couldn't be read or isn't a journal at all
+     */
+    static CopyJournal open(Path file) throws IOException {
+        byte[] content = Files.readAllBytes(file);
+        int complete = content.length; // whatever follows the last line break has been torn
+        while (complete > 0 && content[complete - 1] != '\n') {
+            complete--;
+        }
+        String[] lines = new String(content, 0, complete, UTF_8).split("\n");
+        if (lines.length < 4 || !lines[0].equals(MAGIC)) {
+            throw new IOException("Not a journal: " + file);
+        }
+
+        CopyJournal journal = new CopyJournal(file, lines[1], file.getFileSystem().getPath(decode(lines[2])),
+                file.getFileSystem().getPath(decode(lines[3])));
+        for (int i = 4; i < lines.length; i++) {
+            String[] fields = lines[i].split(" ", -1);
+            if (fields[0].equals(DONE) && fields.length == 2) {
+                journal.done.add(decode(fields[1]));
+                journal.offsets.remove(decode(fields[1]));
+            } else if (fields[0].equals(OFFSET) && fields.length == 3) {
+                journal.offsets.put(decode(fields[2]), Long.parseLong(fields[1]));
+            }
+        }
+
+        journal.channel = FileChannel.open(file, READ, WRITE);
+        journal.channel.truncate(complete);
+        journal.channel.position(journal.channel.size());
+        return journal;
+    }
+
+    /**
+     * Lists the journals left behind in the given directory.
+     *
+     * @param directory the directory of the journals
+     * @return the files of the journals
+     */
+    static List<Path> list(Path directory) {
+        List<Path> journals = new ArrayList<>();
+        if (!Files.isDirectory(directory)) {
+            return journals;
+        }
+
+        try (DirectoryStream<Path> entries = Files.newDirectoryStream(directory, "*" + EXTENSION)) {
+            entries.forEach(journals::add);
+        } catch (IOException e) {
+            // There's nothing to be resumed then.
+        }
+        return journals;
+    }
+
+    String getKind() {
+        return kind;
+    }
+
+    Path getFrom() {
+        return from;
+    }
+
+    Path getTo() {
+        return to;
+    }
+
+    /**
+     * Tells whether a file has been completed before the operation got interrupted.
+     *
+     * @param source the file within the source of the operation
+     * @return true if the file has been completed, false otherwise
+     */
+    boolean isDone(Path source) {
+        return done.contains(relativize(source));
+    }
+
+    /**
+     * Retrieves the number of bytes transferred of a file before the operation got interrupted.
+     *
+     * @param source the file within the source of the operation
+     * @return the number of bytes, or 0 if the transfer of the file hasn't been started
+     */
+    long getOffset(Path source) {
+        return offsets.getOrDefault(relativize(source), 0L);
+    }
+
+    /**
+     * Records that a file has been completed.
+     *
+     * @param source the file within the source of the operation
+     * @throws IOException if the record couldn't be written
+     */
+    void fileDone(Path source) throws IOException {
+        String relative = relativize(source);
+        done.add(relative);
+        offsets.remove(relative);
+        append(DONE + " " + encode(relative), false);
+    }
+
+    /**
+     * Records the number of bytes transferred of a file so far. The record is forced onto the device, as it's only
+     * written once per chunk of a large file.
+     *
+     * @param source the file within the source of the operation
+     * @param offset the number of bytes transferred
+     * @throws IOException if the record couldn't be written
+     */
+    void progress(Path source, long offset) throws IOException {
+        String relative = relativize(source);
+        offsets.put(relative, offset);
+        append(OFFSET + " " + offset + " " + encode(relative), true);
+    }
+
+    private synchronized void append(String record, boolean force) throws IOException {
+        if (channel == null) {
+            Files.createDirectories(file.getParent());
+            channel = FileChannel.open(file, WRITE, APPEND, CREATE_NEW);
+            write(MAGIC + "\n" + kind + "\n" + encode(from.toString()) + "\n" + encode(to.toString()) + "\n");
+        }
+
+        write(record + "\n");
+        if (force) {
+            channel.force(false);
+        }
+    }
+
+    private void write(String text) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(text.getBytes(UTF_8));
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    /**
+     * Closes and deletes the journal, as the operation has come to an end.
+     */
+    synchronized void delete() {
+        try {
+            close();
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            System.err.println("Couldn't delete journal: " + e.getMessage());
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (channel != null) {
+            channel.close();
+            channel = null;
+        }
+    }
+
+    private String relativize(Path source) {
+        return from.relativize(source.toAbsolutePath()).toString();
+    }
+
+    private static String encode(String text) {
+        return URLEncoder.encode(text, UTF_8);
+    }
+
+    private static String decode(String text) {
+        return URLDecoder.decode(text, UTF_8);
+    }
+}
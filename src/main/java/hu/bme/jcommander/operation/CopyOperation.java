@@ -1,15 +1,48 @@
 package hu.bme.jcommander.operation;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.ClosedFileSystemException;
+import java.nio.file.DirectoryIteratorException;
+import java.nio.file.DirectoryStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
 
+import static java.nio.file.LinkOption.NOFOLLOW_LINKS;
 import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.CREATE_NEW;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.TRUNCATE_EXISTING;
+import static java.nio.file.StandardOpenOption.WRITE;
 
 public class CopyOperation extends FileOperation {
 
+    /**
+     * Regular files at least this large are transferred between channels in chunks instead of being copied at once.
+     */
+    static final long LARGE_FILE_THRESHOLD = 1024 * 1024;
+
+    /**
+     * The default number of bytes transferred at once between the channels of a large file.
+     */
+    public static final long DEFAULT_CHUNK_SIZE = 64L * 1024 * 1024;
+
+    private static final int VERIFIED_BUFFER_SIZE = 1024 * 1024;
+
+    private long chunkSize = DEFAULT_CHUNK_SIZE;
+    private ChecksumAlgorithm verification = null;
+
     /**
      * Copies a file or directory from one location to another location.
+     * Directories are copied recursively: they're created in order, while the files within are copied in parallel.
      *
      * @param from the source location represented as a path
      * @param to   the destination location represented as a path
@@ -21,9 +54,425 @@ public class CopyOperation extends FileOperation {
     @Override
     public void run() {
         try {
-            Files.copy(from, to, REPLACE_EXISTING);
-        } catch (IOException ignored) {
-            failed = true;
+            copy();
+        } finally {
+            if (journal != null) {
+                journal.delete(); // it's come to an end, so there's nothing left to be resumed
+            }
+        }
+    }
+
+    private void copy() {
+        boolean directory;
+        if (scanned != null) {
+            // The totals are known up front, so the progress is exact from the first byte.
+            addToTotal(scanned.bytes(), scanned.files());
+            directory = scanned.directory();
+        } else {
+            BasicFileAttributes attributes;
+            try {
+                attributes = Files.readAttributes(from, BasicFileAttributes.class, NOFOLLOW_LINKS);
+            } catch (IOException | SecurityException | ClosedFileSystemException e) {
+                reportError(from, e);
+                return;
+            }
+
+            directory = attributes.isDirectory();
+            if (!directory) {
+                addToTotal(attributes.size(), 1);
+            }
+        }
+
+        if (!directory) {
+            copyEntry(from, to);
+            return;
+        }
+
+        if (from.getFileSystem().equals(to.getFileSystem()) && to.toAbsolutePath().startsWith(from.toAbsolutePath())) {
+            // A directory can't be copied into itself, it would never end.
+            reportError(from, new IOException("A directory can't be copied into itself."));
+            return;
+        }
+
+        if (checkpoint()) {
+            FileTaskPool.get().invoke(new DirectoryCopy(from, to, scanned));
+        }
+    }
+
+    /**
+     * Gets called once a file has been copied successfully, e.g.: so that it can be deleted when moving.
+     *
+     * @param source the file copied
+     * @throws IOException if the follow-up action failed, in which case the file is reported as an error
+     */
+    protected void fileCopied(Path source) throws IOException {
+        // Nothing to do by default.
+    }
+
+    /**
+     * Gets called once every entry of a directory has been copied successfully.
+     *
+     * @param source the directory copied
+     * @throws IOException if the follow-up action failed, in which case the directory is reported as an error
+     */
+    protected void directoryCopied(Path source) throws IOException {
+        // Nothing to do by default.
+    }
+
+    /**
+     * Sets the number of bytes transferred at once between the channels of a large file.
+     * Smaller chunks mean more frequent progress reports, larger ones mean fewer system calls.
+     *
+     * @param chunkSize the size of a chunk in bytes
+     */
+    public void setChunkSize(long chunkSize) {
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("Chunk size must be positive.");
+        }
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Retrieves the number of bytes transferred at once between the channels of a large file.
+     *
+     * @return the size of a chunk in bytes
+     */
+    public long getChunkSize() {
+        return chunkSize;
+    }
+
+    /**
+     * Sets the algorithm that every copied file is verified with, or turns the verification off.
+     * A verified file is read only once, being hashed on its way to the target, and then the target is read back
+     * to see if it has the same digest. A file that doesn't is reported as an error.
+     *
+     * @param verification the checksum algorithm, or null to turn the verification off
+     */
+    public void setVerification(ChecksumAlgorithm verification) {
+        this.verification = verification;
+    }
+
+    /**
+     * Retrieves the algorithm that every copied file is verified with.
+     *
+     * @return the checksum algorithm, or null if the copied files aren't verified
+     */
+    public ChecksumAlgorithm getVerification() {
+        return verification;
+    }
+
+    /**
+     * Copies a single file (or anything else that is not a directory), replacing the target if it already exists.
+     * It waits for a slot of the operation's devices first, if the executor limits them.
+     *
+     * @param source the file to be copied
+     * @param target the location of the copy
+     * @return true if the file has been copied, false if the operation has been cancelled halfway
+     * (in which case the partial target has been deleted)
+     * @throws IOException if the file couldn't be copied
+     */
+    protected boolean copyFile(Path source, Path target) throws IOException {
+        try (DeviceSlots.Slot ignored = takeSlots()) {
+            if (!checkpoint()) {
+                return false; // it's been cancelled while waiting for its devices
+            }
+            return copyWithinSlots(source, target);
+        }
+    }
+
+    private boolean copyWithinSlots(Path source, Path target) throws IOException {
+        BasicFileAttributes attributes = Files.readAttributes(source, BasicFileAttributes.class);
+        if (verification != null && attributes.isRegularFile()) {
+            return copyVerified(source, target);
+        }
+
+        if (!attributes.isRegularFile() || attributes.size() < LARGE_FILE_THRESHOLD) {
+            Files.copy(source, target, REPLACE_EXISTING);
+            chunkCopied(source, attributes.size());
+            return true;
+        }
+
+        return transfer(source, target);
+    }
+
+    /**
+     * Copies a regular file between channels, so that the kernel can move the data without it passing through
+     * buffers of our own (where the file systems allow it).
+     *
+     * @return true if the file has been copied, false if the operation has been cancelled halfway
+     */
+    private boolean transfer(Path source, Path target) throws IOException {
+        long resumed = resumableOffset(source, target);
+        if (resumed == 0) {
+            // Just like REPLACE_EXISTING, the target gets replaced instead of written through.
+            Files.deleteIfExists(target);
+        }
+
+        boolean cancelled = false;
+        try (FileChannel in = FileChannel.open(source, READ);
+             FileChannel out = resumed > 0
+                     ? FileChannel.open(target, WRITE)
+                     : FileChannel.open(target, WRITE, CREATE_NEW)) {
+            long size = in.size();
+            long position = resumed;
+            if (resumed > 0) {
+                out.truncate(resumed);
+                out.position(resumed);
+                addBytesDone(resumed);
+            }
+
+            while (position < size) {
+                if (!checkpoint()) {
+                    cancelled = true;
+                    break;
+                }
+
+                long transferred = in.transferTo(position, Math.min(chunkSize, size - position), out);
+                if (transferred == 0 && position >= in.size()) {
+                    break; // the file got truncated in the meantime
+                }
+
+                position += transferred;
+                chunkCopied(source, transferred);
+                recordOffset(source, position);
+            }
+        }
+
+        if (cancelled) {
+            Files.deleteIfExists(target); // a partially written file is of no use to anyone
+        }
+        return !cancelled;
+    }
+
+    /**
+     * Copies a regular file through a buffer of our own, so that it can be hashed while it's being copied,
+     * then reads the target back to verify it.
+     *
+     * @return true if the file has been copied, false if the operation has been cancelled halfway
+     */
+    private boolean copyVerified(Path source, Path target) throws IOException {
+        ChecksumAlgorithm.Hasher hasher = verification.newHasher();
+        boolean cancelled = false;
+        try (FileChannel in = FileChannel.open(source, READ);
+             FileChannel out = FileChannel.open(target, WRITE, CREATE, TRUNCATE_EXISTING)) {
+            ByteBuffer buffer = ByteBuffer.allocateDirect(VERIFIED_BUFFER_SIZE);
+            int read;
+            while ((read = in.read(buffer)) >= 0) {
+                if (!checkpoint()) {
+                    cancelled = true;
+                    break;
+                }
+
+                buffer.flip();
+                hasher.update(buffer.duplicate());
+                while (buffer.hasRemaining()) {
+                    out.write(buffer);
+                }
+                buffer.clear();
+                chunkCopied(source, read);
+            }
+
+            if (!cancelled) {
+                out.force(false); // the target is read back from the device (as far as the system lets us)
+            }
+        }
+
+        if (cancelled) {
+            Files.deleteIfExists(target); // a partially written file is of no use to anyone
+            return false;
+        }
+
+        if (!Arrays.equals(hasher.digest(), verification.digestOf(target, Long.MAX_VALUE))) {
+            throw new ChecksumMismatchException(String.format("The copy of %s doesn't match its %s digest.", source,
+                    verification));
+        }
+        return true;
+    }
+
+    /**
+     * Tells where the transfer of a file can be continued from, if it got interrupted earlier. The part of the target
+     * written so far is only trusted if it's still the same as the beginning of the source (e.g.: it may have been
+     * lost from a cache by a crash of the machine).
+     */
+    private long resumableOffset(Path source, Path target) throws IOException {
+        long offset = journal != null ? journal.getOffset(source) : 0;
+        if (offset <= 0 || !Files.isRegularFile(target) || Files.size(target) < offset || Files.size(source) < offset) {
+            return 0;
+        }
+
+        ChecksumAlgorithm algorithm = ChecksumAlgorithm.CRC32C;
+        return Arrays.equals(algorithm.digestOf(source, offset), algorithm.digestOf(target, offset)) ? offset : 0;
+    }
+
+    /**
+     * Gets called whenever another chunk of a file has been copied. Small files are reported as a single chunk.
+     * By default, the bytes are reported as the progress of the operation.
+     *
+     * @param source the file being copied
+     * @param bytes  the number of bytes copied since the last call
+     */
+    protected void chunkCopied(Path source, long bytes) {
+        addBytesDone(bytes);
+    }
+
+    private boolean copyEntry(Path source, Path target) {
+        if (!checkpoint()) {
+            return false; // the files that haven't been started yet are simply skipped
+        }
+
+        startedFile(source);
+        try {
+            if (journal != null && journal.isDone(source) && Files.exists(target, NOFOLLOW_LINKS)) {
+                // It's been copied before the operation got interrupted, only its follow-up might be missing.
+                addBytesDone(Files.size(source));
+            } else if (copyFile(source, target)) {
+                record(source);
+            } else {
+                return false; // it's been cut off, so neither has it been copied nor may its source be touched
+            }
+            fileCopied(source);
+            return true;
+        } catch (IOException | SecurityException | ClosedFileSystemException e) {
+            reportError(source, e); // the rest of the files are still copied
+            return false;
+        } finally {
+            fileDone();
+        }
+    }
+
+    private void record(Path source) {
+        if (journal == null) {
+            return;
+        }
+
+        try {
+            journal.fileDone(source);
+        } catch (IOException e) {
+            System.err.println("Couldn't write journal: " + e.getMessage()); // the copy itself is fine, though
+        }
+    }
+
+    private void recordOffset(Path source, long offset) {
+        if (journal == null) {
+            return;
+        }
+
+        try {
+            journal.progress(source, offset);
+        } catch (IOException e) {
+            System.err.println("Couldn't write journal: " + e.getMessage());
+        }
+    }
+
+    private class DirectoryCopy extends RecursiveTask<Boolean> {
+
+        private final Path source;
+        private final Path target;
+        private final ScannedTree scanned;
+
+        private DirectoryCopy(Path source, Path target, ScannedTree scanned) {
+            this.source = source;
+            this.target = target;
+            this.scanned = scanned;
+        }
+
+        @Override
+        protected Boolean compute() {
+            // The directory is created before anything gets copied into it, and its entries are forked
+            // as soon as they're read, so the copying of a huge directory starts right away.
+            try {
+                Files.createDirectories(target);
+            } catch (IOException | SecurityException | ClosedFileSystemException e) {
+                reportError(source, e);
+                return false; // there's nowhere to copy its entries
+            }
+
+            boolean complete = true;
+            List<ForkJoinTask<Boolean>> tasks = new ArrayList<>();
+            if (scanned != null && scanned.children() != null) {
+                // The directory has already been listed by the scan, and its entries are counted in the totals.
+                for (ScannedTree child : scanned.children()) {
+                    if (!checkpoint()) {
+                        complete = false;
+                        break;
+                    }
+
+                    Path targetEntry = target.resolve(child.path().getFileName().toString());
+                    tasks.add(child.directory()
+                            ? new DirectoryCopy(child.path(), targetEntry, child).fork()
+                            : new FileCopy(child.path(), targetEntry).fork());
+                }
+            } else {
+                try (DirectoryStream<Path> entries = Files.newDirectoryStream(source)) {
+                    for (Path entry : entries) {
+                        if (!checkpoint()) {
+                            complete = false;
+                            break; // whatever has been forked so far will stop at its own checkpoint
+                        }
+
+                        ForkJoinTask<Boolean> task = toTask(entry);
+                        if (task != null) {
+                            tasks.add(task.fork());
+                        } else {
+                            complete = false;
+                        }
+                    }
+                } catch (IOException | SecurityException | ClosedFileSystemException e) {
+                    reportError(source, e);
+                    complete = false;
+                } catch (DirectoryIteratorException e) {
+                    reportError(source, e.getCause());
+                    complete = false;
+                }
+            }
+
+            for (ForkJoinTask<Boolean> task : tasks) {
+                complete &= task.join();
+            }
+
+            if (complete) {
+                try {
+                    directoryCopied(source);
+                } catch (IOException | SecurityException | ClosedFileSystemException e) {
+                    reportError(source, e);
+                    complete = false;
+                }
+            }
+            return complete;
+        }
+
+        private ForkJoinTask<Boolean> toTask(Path entry) {
+            // The name is resolved as a string, as the target may be on a different file system.
+            Path targetEntry = target.resolve(entry.getFileName().toString());
+            try {
+                BasicFileAttributes attributes = Files.readAttributes(entry, BasicFileAttributes.class,
+                        NOFOLLOW_LINKS);
+                if (attributes.isDirectory()) {
+                    return new DirectoryCopy(entry, targetEntry, null);
+                }
+
+                addToTotal(attributes.size(), 1);
+                return new FileCopy(entry, targetEntry);
+            } catch (IOException | SecurityException | ClosedFileSystemException e) {
+                reportError(entry, e); // only this entry gets left out, not the rest of the directory
+                return null;
+            }
+        }
+    }
+
+    private class FileCopy extends RecursiveTask<Boolean> {
+
+        private final Path source;
+        private final Path target;
+
+        private FileCopy(Path source, Path target) {
+            this.source = source;
+            this.target = target;
+        }
+
+        @Override
+        protected Boolean compute() {
+            return copyEntry(source, target);
         }
     }
 }
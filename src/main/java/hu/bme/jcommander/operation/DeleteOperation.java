@@ -1,9 +1,19 @@
 package hu.bme.jcommander.operation;
 
-import java.io.File;
 import java.io.IOException;
+import java.nio.file.ClosedFileSystemException;
+import java.nio.file.DirectoryIteratorException;
+import java.nio.file.DirectoryStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+
+import static java.nio.file.LinkOption.NOFOLLOW_LINKS;
 
 public class DeleteOperation extends Operation {
 
@@ -11,6 +21,9 @@ public class DeleteOperation extends Operation {
 
     /**
      * Constructs a DeleteOperation with the specified array of files to be deleted.
+     * Directories are deleted recursively: their entries are deleted in parallel, and every directory gets deleted
+     * as soon as it has become empty. A directory is only reported as an error if it couldn't be deleted on its own,
+     * not if some of its entries couldn't.
      *
      * @param selectedFiles the array of paths (corresponding to files or directories) to be deleted
      */
@@ -18,14 +31,91 @@ public class DeleteOperation extends Operation {
         this.filesToDelete = selectedFiles;
     }
 
+    @Override
+    public Collection<Path> getPaths() {
+        return List.of(filesToDelete);
+    }
+
     @Override
     public void run() {
+        addToTotal(0, filesToDelete.length);
+
+        List<ForkJoinTask<Boolean>> tasks = new ArrayList<>();
         for (Path file : filesToDelete) {
+            tasks.add(new TreeDeletion(file));
+        }
+        FileTaskPool.get().invoke(ForkJoinTask.adapt(() -> ForkJoinTask.invokeAll(tasks)));
+    }
+
+    private class TreeDeletion extends RecursiveTask<Boolean> {
+
+        private final Path path;
+
+        private TreeDeletion(Path path) {
+            this.path = path;
+        }
+
+        @Override
+        protected Boolean compute() {
+            // Every path counted in the totals is counted as done, however its deletion ends, so that the progress
+            // adds up even if some of them have failed or the operation has been cancelled.
+            try {
+                return delete();
+            } finally {
+                fileDone();
+            }
+        }
+
+        private boolean delete() {
+            if (!checkpoint()) {
+                return false;
+            }
+
+            BasicFileAttributes attributes;
+            try {
+                // Symbolic links get deleted themselves, their targets are left alone.
+                attributes = Files.readAttributes(path, BasicFileAttributes.class, NOFOLLOW_LINKS);
+            } catch (IOException | SecurityException | ClosedFileSystemException e) {
+                reportError(path, e);
+                return false;
+            }
+
+            if (attributes.isDirectory() && !deleteEntries()) {
+                return false; // it can't be empty, and the reason has already been reported
+            }
+
+            // A deletion only touches the metadata, so it doesn't take a slot of its device.
+            startedFile(path);
             try {
-                Files.delete(file);
-            } catch (IOException e) {
-                failed = true;
+                Files.delete(path);
+                return true;
+            } catch (IOException | SecurityException | ClosedFileSystemException e) {
+                reportError(path, e);
+                return false;
+            }
+        }
+
+        private boolean deleteEntries() {
+            List<ForkJoinTask<Boolean>> tasks = new ArrayList<>();
+            boolean listed = true;
+            try (DirectoryStream<Path> entries = Files.newDirectoryStream(path)) {
+                for (Path entry : entries) {
+                    addToTotal(0, 1);
+                    tasks.add(new TreeDeletion(entry).fork());
+                }
+            } catch (IOException | SecurityException | ClosedFileSystemException e) {
+                reportError(path, e);
+                listed = false;
+            } catch (DirectoryIteratorException e) {
+                reportError(path, e.getCause());
+                listed = false;
+            }
+
+            boolean deleted = listed;
+            for (ForkJoinTask<Boolean> task : tasks) {
+                deleted &= task.join();
             }
+            return deleted;
         }
     }
 }
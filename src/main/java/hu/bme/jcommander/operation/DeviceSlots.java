@@ -0,0 +1,129 @@
+package hu.bme.jcommander.operation;
+
+import java.nio.file.FileStore;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Limits the number of files read or written on the same device (file store) at the same time, across every operation.
+ * The devices without a limit (which is the default) don't make the files wait at all.
+ *
+ * <p>
+ * A file takes a slot of every device it works on (e.g.: both the source and the target device of a copy) at once,
+ * or none of them until they're all free, so two files can't end up holding one of each other's devices while waiting
+ * for the other one. On a worker of a {@link ForkJoinPool}, the pool is told about the waiting, so that the files
+ * of other devices can still be worked on in the meantime.
+ * </p>
+ */
+final class DeviceSlots {
+
+    private final Map<FileStore, Integer> limits = new HashMap<>();
+    private final Map<FileStore, Integer> taken = new HashMap<>();
+    private int defaultLimit = 0;
+
+    /**
+     * Sets the number of files allowed to be read or written at the same time on the devices without a limit
+     * of their own. By default, there's no limit.
+     *
+     * @param limit the number of files, or 0 for no limit
+     */
+    synchronized void setDefaultLimit(int limit) {
+        if (limit < 0) {
+            throw new IllegalArgumentException("Limit must not be negative.");
+        }
+        defaultLimit = limit;
+        notifyAll();
+    }
+
+    /**
+     * Sets the number of files allowed to be read or written on a device at the same time.
+     * The slots taken already stay valid, the limit only applies to the files starting later.
+     *
+     * @param device the device
+     * @param limit  the number of files
+     */
+    synchronized void setLimit(FileStore device, int limit) {
+        if (limit <= 0) {
+            throw new IllegalArgumentException("Limit must be positive.");
+        }
+        limits.put(device, limit);
+        notifyAll();
+    }
+
+    /**
+     * Waits until every given device has a free slot, then takes them.
+     *
+     * @param devices the devices that the file is read from or written to
+     * @return the slots taken, to be closed once the file is done
+     * @throws InterruptedException if the thread has been interrupted while waiting
+     */
+    Slot acquire(Set<FileStore> devices) throws InterruptedException {
+        Slot slot = new Slot(devices);
+        ForkJoinPool.managedBlock(slot);
+        return slot;
+    }
+
+    private boolean haveFreeSlots(Set<FileStore> devices) {
+        for (FileStore device : devices) {
+            int limit = limits.getOrDefault(device, defaultLimit);
+            if (limit > 0 && taken.getOrDefault(device, 0) >= limit) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * The slots of the devices taken by a single file.
+     */
+    final class Slot implements ForkJoinPool.ManagedBlocker, AutoCloseable {
+
+        private final Set<FileStore> devices;
+        private boolean held = false;
+
+        private Slot(Set<FileStore> devices) {
+            this.devices = devices;
+        }
+
+        @Override
+        public boolean block() throws InterruptedException {
+            synchronized (DeviceSlots.this) {
+                while (!isReleasable()) {
+                    DeviceSlots.this.wait();
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public boolean isReleasable() {
+            synchronized (DeviceSlots.this) {
+                if (!held && haveFreeSlots(devices)) {
+                    for (FileStore device : devices) {
+                        taken.merge(device, 1, Integer::sum);
+                    }
+                    held = true;
+                }
+                return held;
+            }
+        }
+
+        /**
+         * Gives the slots back, so that the next files waiting for them can go on.
+         */
+        @Override
+        public void close() {
+            synchronized (DeviceSlots.this) {
+                if (held) {
+                    for (FileStore device : devices) {
+                        taken.merge(device, -1, Integer::sum);
+                    }
+                    held = false;
+                    DeviceSlots.this.notifyAll();
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package hu.bme.jcommander.operation;
+
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Represents a group of files with the same contents, as found by a {@link DuplicateSearch}.
+ *
+ * @param size  the size of each file in bytes
+ * @param files the paths of the files
+ */
+public record DuplicateGroup(long size, List<Path> files) {
+
+    /**
+     * Tells how many bytes could be freed by keeping only one of the files.
+     *
+     * @return the number of reclaimable bytes
+     */
+    public long reclaimableBytes() {
+        return size * (files.size() - 1);
+    }
+}
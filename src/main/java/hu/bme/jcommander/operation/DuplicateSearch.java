@@ -0,0 +1,269 @@
+package hu.bme.jcommander.operation;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryIteratorException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
+
+import static java.nio.channels.FileChannel.MapMode.READ_ONLY;
+import static java.nio.file.LinkOption.NOFOLLOW_LINKS;
+import static java.nio.file.StandardOpenOption.READ;
+
+public class DuplicateSearch extends Operation {
+
+    /**
+     * The number of bytes hashed from both the beginning and the end of a file to tell apart the files of the same
+     * size cheaply.
+     */
+    static final int PARTIAL_BYTES = 4 * 1024;
+
+    // The files are mapped into memory a window at a time, so huge files don't exhaust the address space.
+    private static final long MAPPED_WINDOW = 64L * 1024 * 1024;
+    private static final int BUFFER_SIZE = 1024 * 1024;
+    private static final ChecksumAlgorithm ALGORITHM = ChecksumAlgorithm.SHA_256;
+
+    private final Path[] roots;
+    private final Map<Long, Queue<Path>> bySize = new ConcurrentHashMap<>();
+    private final Queue<DuplicateGroup> duplicates = new ConcurrentLinkedQueue<>();
+
+    /**
+     * Constructs a DuplicateSearch looking for the files with the same contents under the specified directories.
+     *
+     * <p>
+     * The files are narrowed down in stages, each of them only looking at the files left by the previous one: first
+     * they're grouped by their sizes, then by a hash of their first and last few kilobytes, and only the files that
+     * still have company are hashed completely, memory-mapped and in parallel. The contents of the files are never
+     * held in memory, so it scales to millions of files. Empty files and symbolic links are left out.
+     * </p>
+     *
+     * @param roots the files and directories to be searched
+     */
+    public DuplicateSearch(Path[] roots) {
+        this.roots = roots;
+    }
+
+    @Override
+    public Collection<Path> getPaths() {
+        return List.of(roots);
+    }
+
+    /**
+     * Retrieves the groups of duplicates found, the ones taking up the most space first.
+     * It's only complete once the operation has finished.
+     *
+     * @return the groups of duplicates
+     */
+    public List<DuplicateGroup> getDuplicates() {
+        return duplicates.stream()
+                .sorted(Comparator.comparingLong(DuplicateGroup::reclaimableBytes).reversed())
+                .toList();
+    }
+
+    @Override
+    public void run() {
+        List<ForkJoinTask<?>> walks = new ArrayList<>();
+        for (Path root : roots) {
+            walks.add(new Walk(root));
+        }
+        FileTaskPool.get().invoke(ForkJoinTask.adapt(() -> ForkJoinTask.invokeAll(walks)));
+
+        // Files of a unique size can't have duplicates, so they're dropped before anything gets read.
+        List<BucketSearch> buckets = new ArrayList<>();
+        for (Map.Entry<Long, Queue<Path>> bucket : bySize.entrySet()) {
+            if (bucket.getValue().size() > 1) {
+                buckets.add(new BucketSearch(bucket.getKey(), List.copyOf(bucket.getValue())));
+                addToTotal(0, bucket.getValue().size());
+            }
+        }
+        bySize.clear();
+
+        if (checkpoint()) {
+            FileTaskPool.get().invoke(ForkJoinTask.adapt(() -> ForkJoinTask.invokeAll(buckets)));
+        }
+    }
+
+    private class Walk extends RecursiveAction {
+
+        private final Path path;
+
+        private Walk(Path path) {
+            this.path = path;
+        }
+
+        @Override
+        protected void compute() {
+            if (!checkpoint()) {
+                return;
+            }
+
+            BasicFileAttributes attributes;
+            try {
+                attributes = Files.readAttributes(path, BasicFileAttributes.class, NOFOLLOW_LINKS);
+            } catch (IOException | SecurityException e) {
+                reportError(path, e);
+                return;
+            }
+
+            if (attributes.isRegularFile() && attributes.size() > 0) {
+                bySize.computeIfAbsent(attributes.size(), size -> new ConcurrentLinkedQueue<>()).add(path);
+            } else if (attributes.isDirectory()) {
+                List<Walk> walks = new ArrayList<>();
+                try (DirectoryStream<Path> entries = Files.newDirectoryStream(path)) {
+                    for (Path entry : entries) {
+                        walks.add(new Walk(entry));
+                    }
+                } catch (IOException | SecurityException e) {
+                    reportError(path, e);
+                } catch (DirectoryIteratorException e) {
+                    reportError(path, e.getCause());
+                }
+                invokeAll(walks);
+            }
+        }
+    }
+
+    /**
+     * Narrows down the files of the same size to the groups of duplicates.
+     */
+    private class BucketSearch extends RecursiveAction {
+
+        private final long size;
+        private final List<Path> files;
+
+        private BucketSearch(long size, List<Path> files) {
+            this.size = size;
+            this.files = files;
+        }
+
+        @Override
+        protected void compute() {
+            boolean partialIsFull = size <= 2L * PARTIAL_BYTES;
+            for (List<Path> candidates : groupByDigest(files, true)) {
+                if (partialIsFull) {
+                    // The partial hash has covered the whole files already.
+                    duplicates.add(new DuplicateGroup(size, candidates));
+                    continue;
+                }
+
+                addToTotal(size * candidates.size(), candidates.size());
+                for (List<Path> group : groupByDigest(candidates, false)) {
+                    duplicates.add(new DuplicateGroup(size, group));
+                }
+            }
+        }
+
+        private List<List<Path>> groupByDigest(List<Path> paths, boolean partial) {
+            List<Digest> digests = new ArrayList<>();
+            for (Path path : paths) {
+                digests.add(new Digest(path, size, partial));
+            }
+            invokeAll(digests);
+
+            // The digests are wrapped into buffers, as those are compared by their contents.
+            Map<ByteBuffer, List<Path>> groups = new HashMap<>();
+            for (Digest digest : digests) {
+                byte[] value = digest.join();
+                if (value != null) {
+                    groups.computeIfAbsent(ByteBuffer.wrap(value), key -> new ArrayList<>()).add(digest.path);
+                }
+            }
+            return groups.values().stream().filter(group -> group.size() > 1).toList();
+        }
+    }
+
+    /**
+     * Hashes a file, either partially or completely. It results in null if the file couldn't be read.
+     */
+    private class Digest extends RecursiveTask<byte[]> {
+
+        private final Path path;
+        private final long size;
+        private final boolean partial;
+
+        private Digest(Path path, long size, boolean partial) {
+            this.path = path;
+            this.size = size;
+            this.partial = partial;
+        }
+
+        @Override
+        protected byte[] compute() {
+            if (!checkpoint()) {
+                return null;
+            }
+
+            startedFile(path);
+            try (FileChannel channel = FileChannel.open(path, READ)) {
+                return partial ? partialDigest(channel) : fullDigest(channel);
+            } catch (IOException | SecurityException e) {
+                reportError(path, e);
+                return null;
+            } finally {
+                fileDone();
+            }
+        }
+
+        private byte[] partialDigest(FileChannel channel) throws IOException {
+            ChecksumAlgorithm.Hasher hasher = ALGORITHM.newHasher();
+            ByteBuffer buffer = ByteBuffer.allocate((int) Math.min(size, 2L * PARTIAL_BYTES));
+            if (size > buffer.capacity()) {
+                readFully(channel, buffer.limit(PARTIAL_BYTES), 0);
+                readFully(channel, buffer.limit(buffer.capacity()), size - PARTIAL_BYTES);
+            } else {
+                readFully(channel, buffer, 0);
+            }
+            hasher.update(buffer.flip());
+            return hasher.digest();
+        }
+
+        private byte[] fullDigest(FileChannel channel) throws IOException {
+            ChecksumAlgorithm.Hasher hasher = ALGORITHM.newHasher();
+            for (long position = 0; position < size; position += MAPPED_WINDOW) {
+                if (!checkpoint()) {
+                    return null;
+                }
+
+                long length = Math.min(MAPPED_WINDOW, size - position);
+                try {
+                    hasher.update(channel.map(READ_ONLY, position, length));
+                } catch (UnsupportedOperationException e) {
+                    // Not every file system can map its files into memory (e.g.: the ones in archives).
+                    ByteBuffer buffer = ByteBuffer.allocate((int) Math.min(BUFFER_SIZE, length));
+                    for (long read = 0; read < length; read += buffer.limit()) {
+                        buffer.clear().limit((int) Math.min(buffer.capacity(), length - read));
+                        readFully(channel, buffer, position + read);
+                        hasher.update(buffer.flip());
+                    }
+                }
+                addBytesDone(length);
+            }
+            return hasher.digest();
+        }
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position);
+            if (read < 0) {
+                throw new IOException("The file has been truncated in the meantime.");
+            }
+            position += read;
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package hu.bme.jcommander.operation;
+
+/**
+ * Represents the kinds of threads that an {@link OperationExecutor} can run its operations on.
+ */
+public enum ExecutionMode {
+
+    /**
+     * A fixed pool of platform threads, one for each logical processor, with the operations waiting for their devices
+     * queued up in front of it.
+     */
+    PLATFORM_THREADS,
+
+    /**
+     * A virtual thread for every operation, with the operations waiting for their devices blocking on semaphores.
+     * It suits I/O-bound work (e.g.: walking or deleting trees on network mounts), where the number of processors
+     * is the wrong limit for the number of operations in flight.
+     */
+    VIRTUAL_THREADS
+}
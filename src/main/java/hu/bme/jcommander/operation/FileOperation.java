@@ -1,10 +1,14 @@
 package hu.bme.jcommander.operation;
 
 import java.nio.file.Path;
+import java.util.Collection;
+import java.util.List;
 
 public abstract class FileOperation extends Operation {
     protected final Path from;
     protected final Path to;
+    ScannedTree scanned = null;
+    CopyJournal journal = null;
 
     /**
      * An operation working with two operands with each being a path representing a file or directory.
@@ -16,4 +20,29 @@ public abstract class FileOperation extends Operation {
         this.from = from;
         this.to = to;
     }
+
+    /**
+     * Makes the operation work from the tree seen by a pre-flight scan of its source,
+     * instead of walking the source all over again.
+     *
+     * @param scanned the scanned tree of the source
+     */
+    void setScannedTree(ScannedTree scanned) {
+        this.scanned = scanned;
+    }
+
+    /**
+     * Makes the operation keep a journal of its progress, so that it can be resumed if it gets interrupted.
+     * Whatever has been recorded in the journal already is taken as done.
+     *
+     * @param journal the journal
+     */
+    void setJournal(CopyJournal journal) {
+        this.journal = journal;
+    }
+
+    @Override
+    public Collection<Path> getPaths() {
+        return List.of(from, to);
+    }
 }
@@ -0,0 +1,36 @@
+package hu.bme.jcommander.operation;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The pool running the per-file tasks of the recursive operations (e.g.: copying and deleting directory trees).
+ * It's shared by every operation, so the number of files being worked on at the same time is limited globally.
+ */
+final class FileTaskPool {
+
+    /**
+     * The maximum number of files being worked on at the same time.
+     */
+    static final int MAX_CONCURRENT_FILES = Math.max(4, Runtime.getRuntime().availableProcessors());
+
+    /**
+     * The maximum number of spare workers started in place of the ones waiting for their paused operations.
+     */
+    static final int MAX_SPARE_WORKERS = 256;
+
+    // As file operations are blocking I/O, the workers never get compensated for them, so the parallelism of the pool
+    // is a hard limit. Only the workers waiting at the checkpoints of paused operations get spares started in their
+    // place, and once there are too many of those, the rest of them simply wait.
+    private static final ForkJoinPool pool = new ForkJoinPool(MAX_CONCURRENT_FILES,
+            ForkJoinPool.defaultForkJoinWorkerThreadFactory, null, false, 0,
+            MAX_CONCURRENT_FILES + MAX_SPARE_WORKERS, 1, saturated -> true, 60, TimeUnit.SECONDS);
+
+    private FileTaskPool() {
+        // Prevent instantiation from outside the class.
+    }
+
+    static ForkJoinPool get() {
+        return pool;
+    }
+}
@@ -0,0 +1,61 @@
+package hu.bme.jcommander.operation;
+
+import java.io.IOException;
+import java.nio.file.FileStore;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.FutureTask;
+
+/**
+ * Defines an interface for the schedulers that run operations by the devices (file stores) they work on, limiting the
+ * number of operations working on the same device at the same time.
+ */
+interface IoScheduler {
+
+    /**
+     * The number of operations allowed to work on the same device at the same time by default.
+     */
+    int DEFAULT_DEVICE_CONCURRENCY = 2;
+
+    /**
+     * Sets the number of operations allowed to work on a device at the same time.
+     *
+     * @param device the device
+     * @param limit  the number of operations
+     */
+    void setLimit(FileStore device, int limit);
+
+    /**
+     * Runs the task of an operation once the devices of the operation have free slots.
+     * A task that's been cancelled in the meantime gets dropped without ever taking up a slot.
+     *
+     * @param operation the operation, which tells the paths it works on
+     * @param task      the task running the operation
+     */
+    void schedule(Operation operation, FutureTask<?> task);
+
+    /**
+     * Looks up the devices that the given paths reside on.
+     *
+     * @param paths the paths, which don't even have to exist yet
+     * @return the devices of the paths
+     */
+    static Set<FileStore> devicesOf(Collection<Path> paths) {
+        Set<FileStore> devices = new HashSet<>();
+        for (Path path : paths) {
+            // A target may not exist yet, so it belongs to the device of its closest existing ancestor.
+            for (Path existing = path.toAbsolutePath(); existing != null; existing = existing.getParent()) {
+                try {
+                    devices.add(Files.getFileStore(existing));
+                    break;
+                } catch (IOException | SecurityException ignored) {
+                    // Let's try its parent then.
+                }
+            }
+        }
+        return devices;
+    }
+}
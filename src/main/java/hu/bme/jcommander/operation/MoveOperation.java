@@ -1,16 +1,27 @@
 package hu.bme.jcommander.operation;
 
 import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
 import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
 
 public class MoveOperation extends FileOperation {
 
+    private long chunkSize = CopyOperation.DEFAULT_CHUNK_SIZE;
+    private ChecksumAlgorithm verification = null;
+
     /**
      * Moves a file or directory from one location to another location.
      *
+     * <p>
+     * Within the same file store, it's a single atomic rename. Otherwise, the files get copied one by one, and each of
+     * them is deleted right after its copy has been completed, so if the move fails or gets cancelled halfway, every
+     * file is either at its source or at its target, and the errors tell what has been left behind.
+     * </p>
+     *
      * @param from the source location represented as a path
      * @param to   the destination location represented as a path
      */
@@ -18,12 +29,101 @@ public class MoveOperation extends FileOperation {
         super(from, to);
     }
 
+    /**
+     * Sets the number of bytes transferred at once between the channels of a large file,
+     * when the move has to fall back to copying.
+     *
+     * @param chunkSize the size of a chunk in bytes
+     */
+    public void setChunkSize(long chunkSize) {
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("Chunk size must be positive.");
+        }
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Sets the algorithm that every file is verified with (before its source gets deleted),
+     * when the move has to fall back to copying.
+     *
+     * @param verification the checksum algorithm, or null to turn the verification off
+     */
+    public void setVerification(ChecksumAlgorithm verification) {
+        this.verification = verification;
+    }
+
     @Override
     public void run() {
         try {
-            Files.move(from, to, REPLACE_EXISTING);
-        } catch (SecurityException | IOException ignored) {
-            failed = true;
+            move();
+        } finally {
+            if (journal != null) {
+                journal.delete(); // it's come to an end, so there's nothing left to be resumed
+            }
+        }
+    }
+
+    private void move() {
+        if (!checkpoint()) {
+            return;
+        }
+
+        if (isSameStore()) {
+            startedFile(from);
+            try {
+                Files.move(from, to, ATOMIC_MOVE, REPLACE_EXISTING);
+                addToTotal(0, 1); // a rename is a single step, no matter how large the file or directory is
+                fileDone();
+                return;
+            } catch (AtomicMoveNotSupportedException e) {
+                // Some file stores can't tell that they're on different devices (e.g.: bind mounts), so let's copy.
+            } catch (SecurityException | IOException e) {
+                reportError(from, e);
+                return;
+            }
+        }
+
+        StreamingMove move = new StreamingMove(from, to);
+        move.setChunkSize(chunkSize);
+        move.setVerification(verification);
+        move.setScannedTree(scanned);
+        move.setJournal(journal);
+        move.shareState(this);
+        move.run();
+        failed |= move.isFailed();
+    }
+
+    private boolean isSameStore() {
+        if (!from.getFileSystem().equals(to.getFileSystem())) {
+            return false; // there's no way to rename a file into another file system
+        }
+
+        try {
+            Path targetDirectory = to.toAbsolutePath().getParent();
+            return targetDirectory != null && Files.getFileStore(from).equals(Files.getFileStore(targetDirectory));
+        } catch (IOException | SecurityException e) {
+            return false; // the copy will find out what's wrong
+        }
+    }
+
+    /**
+     * A copy that deletes every source file as soon as its copy is complete,
+     * and every source directory as soon as all of its entries have been moved.
+     */
+    private static class StreamingMove extends CopyOperation {
+
+        private StreamingMove(Path from, Path to) {
+            super(from, to);
+        }
+
+        @Override
+        protected void fileCopied(Path source) throws IOException {
+            Files.delete(source);
+        }
+
+        @Override
+        protected void directoryCopied(Path source) throws IOException {
+            Files.delete(source);
         }
     }
 }
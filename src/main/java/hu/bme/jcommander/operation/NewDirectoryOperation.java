@@ -3,6 +3,8 @@ package hu.bme.jcommander.operation;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.Collection;
+import java.util.List;
 
 public class NewDirectoryOperation extends Operation {
 
@@ -17,12 +19,24 @@ public class NewDirectoryOperation extends Operation {
         this.path = path;
     }
 
+    @Override
+    public Collection<Path> getPaths() {
+        return List.of(path);
+    }
+
     @Override
     public void run() {
+        if (!checkpoint()) {
+            return;
+        }
+
+        addToTotal(0, 1);
+        startedFile(path);
         try {
             Files.createDirectory(path);
         } catch (IOException e) {
             failed = true;
         }
+        fileDone();
     }
 }
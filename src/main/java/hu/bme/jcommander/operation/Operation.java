@@ -1,10 +1,24 @@
 package hu.bme.jcommander.operation;
 
+import java.nio.file.FileStore;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
 /**
  * Represents an abstract operation that can be executed in the application.
  */
 public abstract class Operation implements Runnable {
     protected volatile boolean failed = false;
+    private ProgressTracker tracker = new ProgressTracker(this);
+    private OperationControl control = new OperationControl();
+    private Map<Path, Exception> errors = new ConcurrentHashMap<>();
+    private DeviceSlots deviceSlots = null;
+    private volatile Set<FileStore> devices = null;
 
     /**
      * Checks if the operation has failed.
@@ -24,4 +38,213 @@ public abstract class Operation implements Runnable {
     public Operation then(Operation operation) {
         return new ThenOperation(this, operation);
     }
+
+    /**
+     * Retrieves the paths the operation works on, so that it can be scheduled by the devices they're on.
+     *
+     * @return the paths read or written by the operation
+     */
+    public Collection<Path> getPaths() {
+        return List.of();
+    }
+
+    /**
+     * Retrieves the paths that couldn't be processed along with the reasons.
+     *
+     * @return the errors keyed by the paths
+     */
+    public Map<Path, Exception> getErrors() {
+        return Collections.unmodifiableMap(errors);
+    }
+
+    /**
+     * Records that a path couldn't be processed, which makes the operation fail. It's meant for operations that
+     * go on with the rest of their files after an error, so that it can be told afterwards what has been left out.
+     *
+     * @param path the path that couldn't be processed
+     * @param e    the reason
+     */
+    protected void reportError(Path path, Exception e) {
+        errors.put(path, e);
+        failed = true;
+    }
+
+    /**
+     * Requests the operation to stop at its next checkpoint. A cancelled operation counts as failed.
+     */
+    public void cancel() {
+        control.cancel();
+    }
+
+    /**
+     * Requests the operation to wait at its next checkpoint until it gets resumed (or cancelled).
+     */
+    public void pause() {
+        control.pause();
+    }
+
+    /**
+     * Lets a paused operation go on.
+     */
+    public void resume() {
+        control.resume();
+    }
+
+    /**
+     * Checks if the operation has been requested to stop.
+     *
+     * @return true if the operation has been cancelled, false otherwise
+     */
+    public boolean isCancelled() {
+        return control.isCancelled();
+    }
+
+    /**
+     * Checks if the operation has been requested to wait.
+     *
+     * @return true if the operation is paused, false otherwise
+     */
+    public boolean isPaused() {
+        return control.isPaused();
+    }
+
+    /**
+     * Waits while the operation is paused, then tells whether it may go on. Long-running operations are expected to
+     * call it between their steps (e.g.: files or chunks), and stop as soon as it returns false.
+     *
+     * @return true if the operation may go on, false if it has been cancelled (and thus failed)
+     */
+    protected boolean checkpoint() {
+        if (control.checkpoint()) {
+            return true;
+        }
+
+        failed = true;
+        return false;
+    }
+
+    /**
+     * Makes the operation take a slot of its devices for every file it reads or writes, so that only a limited number
+     * of files are worked on on the same device at the same time, even within a single operation.
+     *
+     * @param deviceSlots the slots of the devices, or null for no limit
+     */
+    void setDeviceSlots(DeviceSlots deviceSlots) {
+        this.deviceSlots = deviceSlots;
+    }
+
+    /**
+     * Waits for a slot of every device that the operation works on. It's meant to be called around the reading
+     * or writing of a single file, followed by a checkpoint, as the operation may get cancelled while waiting.
+     *
+     * @return the slots taken, to be closed once the file is done, or null if there's no limit on the devices
+     * (or the waiting has been interrupted, in which case the operation gets cancelled)
+     */
+    DeviceSlots.Slot takeSlots() {
+        if (deviceSlots == null) {
+            return null;
+        }
+
+        // The devices are only looked up once, as it may well touch the disks.
+        if (devices == null) {
+            devices = IoScheduler.devicesOf(getPaths());
+        }
+        try {
+            return deviceSlots.acquire(devices);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            cancel(); // the thread is being shut down, so there's no point in going on
+            return null;
+        }
+    }
+
+    /**
+     * Adds a ProgressListener to be notified about the progress of the operation.
+     * Once the operation is part of a chain, the listeners should be added to the chain instead.
+     *
+     * @param listener the ProgressListener to be added
+     */
+    public void addProgressListener(ProgressListener listener) {
+        tracker.addListener(listener);
+    }
+
+    /**
+     * Removes a ProgressListener from the list of listeners.
+     *
+     * @param listener the ProgressListener to be removed
+     */
+    public void removeProgressListener(ProgressListener listener) {
+        tracker.removeListener(listener);
+    }
+
+    /**
+     * Retrieves a snapshot of the operation's progress.
+     *
+     * @return the progress
+     */
+    public Progress getProgress() {
+        return tracker.snapshot();
+    }
+
+    /**
+     * Adds more work to be done to the totals of the progress.
+     *
+     * @param bytes the number of bytes to be processed
+     * @param files the number of files to be processed
+     */
+    protected void addToTotal(long bytes, long files) {
+        tracker.addToTotal(bytes, files);
+    }
+
+    /**
+     * Reports that the processing of a file has started.
+     *
+     * @param file the file being processed
+     */
+    protected void startedFile(Path file) {
+        tracker.startedFile(file);
+    }
+
+    /**
+     * Reports that some bytes have been processed.
+     *
+     * @param bytes the number of bytes processed since the last report
+     */
+    protected void addBytesDone(long bytes) {
+        tracker.addBytesDone(bytes);
+    }
+
+    /**
+     * Reports that a file has been processed.
+     */
+    protected void fileDone() {
+        tracker.fileDone();
+    }
+
+    /**
+     * Starts measuring the time of the operation. It's called by the executor right before the operation runs.
+     */
+    void start() {
+        tracker.start();
+    }
+
+    /**
+     * Publishes the final progress of the operation. It's called by the executor once the operation has returned.
+     */
+    void finish() {
+        tracker.finish();
+    }
+
+    /**
+     * Makes the operation report its progress and errors to the given one, and obey its control, so that a chain
+     * of operations (or an operation delegating to another one) can be followed and controlled as a whole.
+     *
+     * @param owner the operation whose state is to be shared
+     */
+    void shareState(Operation owner) {
+        this.tracker = owner.tracker;
+        this.control = owner.control;
+        this.errors = owner.errors;
+        this.deviceSlots = owner.deviceSlots;
+    }
 }
@@ -0,0 +1,75 @@
+package hu.bme.jcommander.operation;
+
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * The cancellation and pause state of an operation (or of a chain of operations sharing the same control).
+ * The operations themselves check it at their checkpoints, so cancelling and pausing are cooperative.
+ */
+class OperationControl {
+
+    private boolean cancelled = false;
+    private boolean paused = false;
+    private final Resumption resumption = new Resumption();
+
+    synchronized void cancel() {
+        cancelled = true;
+        notifyAll(); // a paused operation has to wake up to find out that it's been cancelled
+    }
+
+    synchronized void pause() {
+        if (!cancelled) {
+            paused = true;
+        }
+    }
+
+    synchronized void resume() {
+        paused = false;
+        notifyAll();
+    }
+
+    synchronized boolean isCancelled() {
+        return cancelled;
+    }
+
+    synchronized boolean isPaused() {
+        return paused;
+    }
+
+    /**
+     * Blocks while the operation is paused. On a worker of a {@link java.util.concurrent.ForkJoinPool} (e.g.: the
+     * per-file tasks of a copy), the pool is told about the blocking, so that it can start a spare worker in its place,
+     * and a paused operation doesn't hold up the others sharing the pool.
+     *
+     * @return true if the operation may go on, false if it has been cancelled
+     */
+    boolean checkpoint() {
+        try {
+            ForkJoinPool.managedBlock(resumption);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            cancel(); // the thread is being shut down, so there's no point in going on
+        }
+        return !isCancelled();
+    }
+
+    private class Resumption implements ForkJoinPool.ManagedBlocker {
+
+        @Override
+        public boolean block() throws InterruptedException {
+            synchronized (OperationControl.this) {
+                while (paused && !cancelled) {
+                    OperationControl.this.wait();
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public boolean isReleasable() {
+            synchronized (OperationControl.this) {
+                return !paused || cancelled;
+            }
+        }
+    }
+}
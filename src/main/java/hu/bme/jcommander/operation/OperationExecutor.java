@@ -1,43 +1,337 @@
 package hu.bme.jcommander.operation;
 
+import hu.bme.jcommander.filesystem.Archives;
+import hu.bme.jcommander.filesystem.SizeFormatter;
 import hu.bme.jcommander.pane.WorkPane;
 
 import javax.swing.*;
+import javax.swing.event.ChangeEvent;
+import javax.swing.event.ChangeListener;
 import java.awt.*;
-import java.io.File;
+import java.io.IOException;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.InvocationTargetException;
+import java.nio.file.FileStore;
+import java.nio.file.FileSystem;
+import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Executor;
-import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Consumer;
 
 public class OperationExecutor implements Executor {
 
-    // Automatically adjusts to the number of logical processors available on the target system.
-    private final ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(Runtime.getRuntime()
-            .availableProcessors());
+    private static final int MAX_ERRORS_SHOWN = 10;
+    private static final long PREFLIGHT_PATIENCE = 300; // ms
+    private static final String JOURNAL_DIRECTORY_NAME = "journals";
+
+    private final ExecutorService executor;
+    private final IoScheduler scheduler;
+    private final DeviceSlots deviceSlots = new DeviceSlots();
+    private final RefreshCoordinator refreshCoordinator = new RefreshCoordinator();
+    private Path journalDirectory = Path.of(JOURNAL_DIRECTORY_NAME);
+    private volatile ChecksumAlgorithm verification = null;
+
+    private final List<ProgressListener> listeners = new CopyOnWriteArrayList<>();
+    private final List<ChangeListener> changeListeners = new CopyOnWriteArrayList<>();
+    private final List<OperationHandle> active = new CopyOnWriteArrayList<>();
+
+    /**
+     * Constructs an OperationExecutor running its operations on a pool of platform threads.
+     */
+    public OperationExecutor() {
+        this(ExecutionMode.PLATFORM_THREADS);
+    }
+
+    /**
+     * Constructs an OperationExecutor running its operations on the specified kind of threads.
+     *
+     * @param mode the kind of threads to run the operations on
+     */
+    public OperationExecutor(ExecutionMode mode) {
+        if (mode == ExecutionMode.VIRTUAL_THREADS) {
+            executor = Executors.newVirtualThreadPerTaskExecutor();
+            scheduler = new SemaphoreIoScheduler(executor);
+        } else {
+            // Automatically adjusts to the number of logical processors available on the target system.
+            executor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+            scheduler = new QueueingIoScheduler(executor);
+        }
+    }
 
     @Override
     public void execute(Runnable operation) {
-        if (!(operation instanceof Operation)) {
+        if (!(operation instanceof Operation executed)) {
             throw new IllegalArgumentException("Only operations can be executed.");
         }
 
-        executor.execute(operation);
+        submit(executed, executed.getClass().getSimpleName());
+    }
+
+    /**
+     * Executes an operation, and keeps track of it until it comes to an end.
+     *
+     * @param operation the operation to be executed
+     * @param name      the name of the operation to be shown to the user
+     * @return the handle of the operation
+     */
+    public OperationHandle submit(Operation operation, String name) {
+        // Every operation gets followed by the listeners of the executor.
+        for (ProgressListener listener : listeners) {
+            operation.addProgressListener(listener);
+        }
+
+        operation.setDeviceSlots(deviceSlots);
+
+        // The archives that the operation works on are kept open until it comes to an end.
+        Collection<Path> paths = operation.getPaths();
+        for (Path path : paths) {
+            Archives.retain(path);
+        }
+
+        OperationHandle handle = new OperationHandle(operation, name);
+        FutureTask<Void> task = new FutureTask<>(operation, null) {
+            @Override
+            public void run() {
+                if (handle.claim()) {
+                    operation.start(); // the time spent in the queue doesn't count into its throughput
+                    super.run();
+                }
+            }
+
+            @Override
+            protected void done() {
+                // It also gets called if the operation has been cancelled before it could even start, so the final
+                // progress gets published and the operation stops being active in every case.
+                operation.finish();
+                for (Path path : paths) {
+                    Archives.release(path);
+                }
+                active.remove(handle);
+                notifyAllActiveOperationsChanged();
+                handle.ended();
+            }
+        };
+        handle.setFuture(task);
+
+        active.add(handle);
+        notifyAllActiveOperationsChanged();
+        scheduler.schedule(operation, task);
+        return handle;
+    }
+
+    /**
+     * Sets the number of operations allowed to work on a device at the same time, and the number of files read or
+     * written on it at the same time by them (e.g.: 1 for a spinning disk, so that its heads don't have to seek back
+     * and forth between the files of concurrent copies, or of a single copy of a whole directory).
+     *
+     * @param device the device
+     * @param limit  the number of operations and files
+     */
+    public void setDeviceConcurrency(FileStore device, int limit) {
+        scheduler.setLimit(device, limit);
+        deviceSlots.setLimit(device, limit);
+    }
+
+    /**
+     * Sets the number of files read or written at the same time on each device that hasn't got a limit of its own
+     * (see {@link #setDeviceConcurrency}), across every operation. By default, it's only limited by the number
+     * of workers.
+     *
+     * @param limit the number of files, or 0 for no limit
+     */
+    public void setFilesPerDevice(int limit) {
+        deviceSlots.setDefaultLimit(limit);
+    }
+
+    /**
+     * Sets the algorithm that the files copied (or moved across devices) by the operations issued from now on are
+     * verified with, or turns the verification off.
+     *
+     * @param verification the checksum algorithm, or null to turn the verification off
+     */
+    public void setVerification(ChecksumAlgorithm verification) {
+        this.verification = verification;
+    }
+
+    /**
+     * Sets the directory where the journals of the copies and moves are kept, so that they can be resumed
+     * if the application dies halfway.
+     *
+     * @param journalDirectory the directory of the journals
+     */
+    public void setJournalDirectory(Path journalDirectory) {
+        this.journalDirectory = journalDirectory;
+    }
+
+    /**
+     * Offers the user to resume every copy and move that has been interrupted the last time the application was
+     * running. The ones that the user doesn't want to resume are forgotten.
+     *
+     * @param parent the parent component for displaying the dialogs
+     * @return the handles of the resumed operations
+     */
+    public List<OperationHandle> resumeInterruptedOperations(Component parent) {
+        List<OperationHandle> handles = new ArrayList<>();
+        for (Path file : CopyJournal.list(journalDirectory)) {
+            CopyJournal journal;
+            try {
+                journal = CopyJournal.open(file);
+            } catch (IOException e) {
+                System.err.println("Couldn't read journal: " + e.getMessage());
+                continue;
+            }
+
+            String title = "Resume " + journal.getKind();
+            String message = String.format("%s of %s to %s has been interrupted.%nDo you want to resume it?",
+                    journal.getKind(), journal.getFrom(), journal.getTo());
+            if (JOptionPane.showConfirmDialog(parent, message, title, JOptionPane.YES_NO_OPTION)
+                    != JOptionPane.YES_OPTION) {
+                journal.delete();
+                continue;
+            }
+
+            FileOperation operation = resumed(journal);
+            if (operation != null) {
+                verify(operation);
+                showErrorsWhenFinished(operation, parent, title);
+                handles.add(submit(operation, String.format("%s %s", title, journal.getFrom().getFileName())));
+            }
+        }
+        return handles;
+    }
+
+    /**
+     * Recreates an interrupted operation from its journal.
+     *
+     * @param journal the journal of the operation
+     * @return the operation picking up where the interrupted one has left off, or null if the journal isn't of any
+     * known operation (in which case it gets deleted)
+     */
+    static FileOperation resumed(CopyJournal journal) {
+        FileOperation operation = switch (journal.getKind()) {
+            case "Copy" -> new CopyOperation(journal.getFrom(), journal.getTo());
+            case "Move" -> new MoveOperation(journal.getFrom(), journal.getTo());
+            default -> null;
+        };
+        if (operation == null) {
+            journal.delete();
+            return null;
+        }
+
+        operation.setJournal(journal);
+        return operation;
+    }
+
+    private void verify(FileOperation operation) {
+        if (operation instanceof CopyOperation copy) {
+            copy.setVerification(verification);
+        } else if (operation instanceof MoveOperation move) {
+            move.setVerification(verification);
+        }
+    }
+
+    private CopyJournal journalFor(String kind, Path from, Path to) {
+        // The paths are resolved on the file system of the journals when they're read back,
+        // so only the operations on that file system can be resumed.
+        FileSystem fileSystem = journalDirectory.getFileSystem();
+        if (!from.getFileSystem().equals(fileSystem) || !to.getFileSystem().equals(fileSystem)) {
+            return null;
+        }
+        return CopyJournal.create(journalDirectory, kind, from, to);
+    }
+
+    /**
+     * Retrieves the coordinator of the pane refreshes following the operations issued by the executor.
+     *
+     * @return the refresh coordinator
+     */
+    public RefreshCoordinator getRefreshCoordinator() {
+        return refreshCoordinator;
+    }
+
+    /**
+     * Retrieves the handles of the operations that haven't come to an end yet.
+     *
+     * @return the handles of the active operations in the order of their submission
+     */
+    public List<OperationHandle> getActiveOperations() {
+        return List.copyOf(active);
+    }
+
+    /**
+     * Adds a ChangeListener to be notified on the Event Dispatch Thread whenever an operation gets submitted
+     * or comes to an end.
+     *
+     * @param listener the ChangeListener to be added
+     */
+    public void addChangeListener(ChangeListener listener) {
+        changeListeners.add(listener);
+    }
+
+    /**
+     * Removes a ChangeListener from the list of listeners.
+     *
+     * @param listener the ChangeListener to be removed
+     */
+    public void removeChangeListener(ChangeListener listener) {
+        changeListeners.remove(listener);
+    }
+
+    private void notifyAllActiveOperationsChanged() {
+        SwingUtilities.invokeLater(() -> {
+            ChangeEvent e = new ChangeEvent(this);
+            for (ChangeListener listener : changeListeners) {
+                listener.stateChanged(e);
+            }
+        });
+    }
+
+    /**
+     * Adds a ProgressListener to be notified about the progress of every operation executed from now on.
+     *
+     * @param listener the ProgressListener to be added
+     */
+    public void addProgressListener(ProgressListener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Removes a ProgressListener from the list of listeners.
+     *
+     * @param listener the ProgressListener to be removed
+     */
+    public void removeProgressListener(ProgressListener listener) {
+        listeners.remove(listener);
     }
 
     /**
      * Issues a new directory creation operation.
      *
      * @param activePane the active work pane
+     * @return the handle of the operation, or null if no operation has been issued
      */
-    public void issueNewDirectoryOperation(WorkPane activePane) {
-        Operation operation = new NewDirectoryOperation(
-                Path.of(activePane.getWorkingDirectoryPath(), "New Directory"))
-                .then(new RefreshOperation(activePane));
-        executor.execute(operation);
+    public OperationHandle issueNewDirectoryOperation(WorkPane activePane) {
+        Path workingDirectory = activePane.getWorkingDirectory();
+        if (workingDirectory == null) {
+            return null; // there's no place for a new directory among the mount points
+        }
+
+        Operation operation = new NewDirectoryOperation(workingDirectory.resolve("New Directory"))
+                .then(new RefreshOperation(activePane, refreshCoordinator));
+        return submit(operation, "New Directory");
     }
 
     /**
@@ -46,23 +340,166 @@ public class OperationExecutor implements Executor {
      * @param activePane    the active work pane
      * @param parent        the parent component for displaying the confirmation dialog
      * @param selectedFiles the files to be deleted
+     * @return the handle of the operation, or null if no operation has been issued
      */
-    public void issueDeleteOperation(WorkPane activePane, Component parent, Path[] selectedFiles) {
+    public OperationHandle issueDeleteOperation(WorkPane activePane, Component parent, Path[] selectedFiles) {
         String title = "Delete Files";
         String message = "Are you sure you want to delete every selected file and directory?";
-        if (JOptionPane.showConfirmDialog(parent, message, title, JOptionPane.YES_NO_OPTION) == JOptionPane.YES_OPTION) {
-            executor.execute(new DeleteOperation(selectedFiles).then(new RefreshOperation(activePane)));
+        if (JOptionPane.showConfirmDialog(parent, message, title, JOptionPane.YES_NO_OPTION) != JOptionPane.YES_OPTION) {
+            return null;
+        }
+
+        Operation operation = new DeleteOperation(selectedFiles)
+                .then(new RefreshOperation(activePane, refreshCoordinator));
+        showErrorsWhenFinished(operation, parent, title);
+        return submit(operation, String.format("Delete %d item(s)", selectedFiles.length));
+    }
+
+    /**
+     * Issues a one-way synchronization of the active pane's working directory into the passive pane's,
+     * after asking the user how the files should be compared.
+     *
+     * @param activePane  the active work pane
+     * @param passivePane the passive work pane
+     * @param parent      the parent component for displaying the dialogs
+     * @return the handle of the operation, or null if no operation has been issued
+     */
+    public OperationHandle issueSyncOperation(WorkPane activePane, WorkPane passivePane, Component parent) {
+        Path source = activePane.getWorkingDirectory();
+        Path target = passivePane.getWorkingDirectory();
+        if (source == null || target == null || source.equals(target)) {
+            return null; // there's nothing to be synchronized among the mount points, or with itself
+        }
+
+        String title = "Synchronize Directories";
+        JCheckBox compareContents = new JCheckBox("Compare the contents of files with the same size (slower)");
+        JCheckBox deleteOrphans = new JCheckBox("Delete the files missing from the source");
+        Object[] message = {String.format("Synchronize %s%ninto %s?", source, target), compareContents, deleteOrphans};
+        if (JOptionPane.showConfirmDialog(parent, message, title, JOptionPane.OK_CANCEL_OPTION)
+                != JOptionPane.OK_OPTION) {
+            return null;
+        }
+
+        SyncOperation sync = new SyncOperation(source, target);
+        sync.setCompareContents(compareContents.isSelected());
+        sync.setDeleteOrphans(deleteOrphans.isSelected());
+        verify(sync);
+        Operation operation = sync.then(new RefreshOperation(passivePane, refreshCoordinator));
+        showErrorsWhenFinished(operation, parent, title);
+        return submit(operation, "Sync " + source);
+    }
+
+    /**
+     * Issues the packing of the selected files and directories of the active pane into an archive
+     * in the passive pane's working directory, after asking the user for its name and format.
+     *
+     * @param activePane  the active work pane
+     * @param passivePane the passive work pane
+     * @param parent      the parent component for displaying the dialogs
+     * @return the handle of the operation, or null if no operation has been issued
+     */
+    public OperationHandle issuePackOperation(WorkPane activePane, WorkPane passivePane, Component parent) {
+        Path[] selectedFiles = activePane.getSelectedFiles();
+        Path targetDirectory = passivePane.getWorkingDirectory();
+        if (selectedFiles.length == 0 || targetDirectory == null) {
+            return null; // there's nothing to be packed, or no place for the archive among the mount points
+        }
+
+        String title = "Pack Files";
+        Path suggested = selectedFiles.length == 1 ? selectedFiles[0] : activePane.getWorkingDirectory();
+        JTextField name = new JTextField(suggested != null && suggested.getFileName() != null
+                ? suggested.getFileName().toString() : "Archive");
+        JComboBox<ArchiveFormat> format = new JComboBox<>(ArchiveFormat.values());
+        Object[] message = {String.format("Pack %d item(s) into %s as:", selectedFiles.length, targetDirectory),
+                name, format};
+        if (JOptionPane.showConfirmDialog(parent, message, title, JOptionPane.OK_CANCEL_OPTION)
+                != JOptionPane.OK_OPTION || name.getText().isBlank()) {
+            return null;
+        }
+
+        ArchiveFormat archiveFormat = (ArchiveFormat) format.getSelectedItem();
+        Path target = targetDirectory.resolve(name.getText().strip() + "." + archiveFormat.getExtension());
+        if (Files.exists(target) && JOptionPane.showConfirmDialog(parent,
+                String.format("%s already exists. Do you want to replace it?", target.getFileName()), title,
+                JOptionPane.YES_NO_OPTION) != JOptionPane.YES_OPTION) {
+            return null;
+        }
+
+        Operation operation = new PackOperation(selectedFiles, target, archiveFormat)
+                .then(new RefreshOperation(passivePane, refreshCoordinator));
+        showErrorsWhenFinished(operation, parent, title);
+        return submit(operation, "Pack " + target.getFileName());
+    }
+
+    /**
+     * Issues a search for duplicate files among the selected files and directories of the active pane
+     * (or its whole working directory if nothing is selected).
+     *
+     * @param activePane the active work pane
+     * @param parent     the parent component for displaying the dialogs
+     * @param onFound    the consumer of the groups of duplicates found, called on the event dispatch thread
+     *                   unless the search has been cancelled
+     * @return the handle of the operation, or null if no operation has been issued
+     */
+    public OperationHandle issueDuplicateSearch(WorkPane activePane, Component parent,
+                                                Consumer<List<DuplicateGroup>> onFound) {
+        Path[] roots = activePane.getSelectedFiles();
+        if (roots.length == 0) {
+            Path workingDirectory = activePane.getWorkingDirectory();
+            if (workingDirectory == null) {
+                return null; // searching every mount point isn't something to be started by accident
+            }
+            roots = new Path[]{workingDirectory};
+        }
+
+        DuplicateSearch search = new DuplicateSearch(roots);
+        search.addProgressListener(e -> {
+            if (e.getProgress().finished() && !search.isCancelled()) {
+                onFound.accept(search.getDuplicates());
+            }
+        });
+        showErrorsWhenFinished(search, parent, "Find Duplicates");
+        return submit(search, roots.length == 1
+                ? "Find duplicates in " + roots[0]
+                : String.format("Find duplicates in %d item(s)", roots.length));
+    }
+
+    private static void showErrorsWhenFinished(Operation operation, Component parent, String title) {
+        operation.addProgressListener(e -> {
+            if (e.getProgress().finished() && !operation.getErrors().isEmpty()) {
+                showErrors(parent, title, operation.getErrors());
+            }
+        });
+    }
+
+    private static void showErrors(Component parent, String title, Map<Path, Exception> errors) {
+        StringBuilder message = new StringBuilder("The following files have been left out:");
+        errors.entrySet()
+                .stream()
+                .limit(MAX_ERRORS_SHOWN)
+                .forEach(error -> message.append(String.format("%n%s (%s)", error.getKey(),
+                        error.getValue().getClass().getSimpleName())));
+        if (errors.size() > MAX_ERRORS_SHOWN) {
+            message.append(String.format("%n...and %d more", errors.size() - MAX_ERRORS_SHOWN));
         }
+        JOptionPane.showMessageDialog(parent, message.toString(), title, JOptionPane.ERROR_MESSAGE);
     }
 
     /**
      * Issues a file operation between two work panes.
      *
+     * <p>
+     * The selected files are handled by a single operation graph: they're copied (or moved) concurrently, as far as
+     * the limits of their devices let them, and both panes get refreshed once they've all ended, so that the files
+     * that did make it show up even if some others have failed.
+     * </p>
+     *
      * @param activePane     the active work pane
      * @param passivePane    the passive work pane
      * @param operationClass the class of the file operation to be executed
+     * @return the handle of the batch, or null if no operation has been issued
      */
-    public void issueFileOperation(WorkPane activePane, WorkPane passivePane, Class<? extends FileOperation> operationClass) {
+    public OperationHandle issueFileOperation(WorkPane activePane, WorkPane passivePane, Class<? extends FileOperation> operationClass) {
         Constructor<?>[] declaredConstructors = operationClass.getDeclaredConstructors();
         Optional<Constructor<?>> matching = Arrays.stream(declaredConstructors)
                 .filter(constructor -> constructor.getParameterCount() == 2)
@@ -72,15 +509,127 @@ public class OperationExecutor implements Executor {
         }
         Constructor<?> constructor = matching.get();
 
-        for (File sourceFile : activePane.getSelectedFiles()) {
-            File targetFile = new File(passivePane.getWorkingDirectoryPath(), sourceFile.getName());
+        Path targetDirectory = passivePane.getWorkingDirectory();
+        if (targetDirectory == null) {
+            return null; // files can't be placed among the mount points
+        }
+
+        // e.g.: "Copy" for a CopyOperation
+        String verb = operationClass.getSimpleName().replaceFirst("Operation$", "");
+        String title = verb + " Files";
+
+        Path[] selectedFiles = activePane.getSelectedFiles();
+        if (selectedFiles.length == 0) {
+            return null;
+        }
+        PreflightScan scan = new PreflightScan(Arrays.asList(selectedFiles), targetDirectory,
+                MoveOperation.class.isAssignableFrom(operationClass));
+        if (!confirmPreflight(scan, activePane.component(), title)) {
+            return null;
+        }
+
+        OperationGraph batch = new OperationGraph();
+        List<Operation> transfers = new ArrayList<>();
+        for (Path sourceFile : selectedFiles) {
+            // The name is resolved as a string, as the two panes may be browsing different file systems.
+            Path targetFile = targetDirectory.resolve(sourceFile.getFileName().toString());
             try {
-                Operation operation = (Operation) constructor.newInstance(sourceFile.toPath(), targetFile.toPath());
-                executor.execute(operation.then(new RefreshOperation(passivePane))
-                        .then(new RefreshOperation(activePane)));
+                FileOperation operation = (FileOperation) constructor.newInstance(sourceFile, targetFile);
+                operation.setScannedTree(scan.getTree(sourceFile));
+                if (operation instanceof CopyOperation || operation instanceof MoveOperation) {
+                    operation.setJournal(journalFor(verb, sourceFile, targetFile));
+                }
+                verify(operation);
+                transfers.add(batch.add(operation));
             } catch (InstantiationException | IllegalAccessException | InvocationTargetException e) {
                 throw new IllegalArgumentException("Operation is unsuitable.");
             }
         }
+
+        Operation[] all = transfers.toArray(new Operation[0]);
+        batch.addFinally(new RefreshOperation(passivePane, refreshCoordinator), all);
+        batch.addFinally(new RefreshOperation(activePane, refreshCoordinator), all);
+        showErrorsWhenFinished(batch, activePane.component(), title);
+        return submit(batch, selectedFiles.length == 1
+                ? verb + " " + selectedFiles[0].getFileName()
+                : String.format("%s %d item(s)", verb, selectedFiles.length));
+    }
+
+    /**
+     * Runs a pre-flight scan, then tells the user if the files don't fit onto the target device, and asks them
+     * whether the files already existing at the target may be replaced.
+     */
+    private static boolean confirmPreflight(PreflightScan scan, Component parent, String title) {
+        if (!runPreflight(scan, parent, title)) {
+            return false;
+        }
+
+        if (!scan.hasEnoughSpace()) {
+            String message = String.format("There's not enough space at the target: %s is needed, but only %s is free.",
+                    SizeFormatter.format(scan.getRequiredSpace()), SizeFormatter.format(scan.getUsableSpace()));
+            JOptionPane.showMessageDialog(parent, message, title, JOptionPane.ERROR_MESSAGE);
+            return false;
+        }
+
+        List<Path> conflicts = scan.getConflicts();
+        if (conflicts.isEmpty()) {
+            return true;
+        }
+
+        StringBuilder message = new StringBuilder("The following files already exist at the target:");
+        conflicts.stream()
+                .limit(MAX_ERRORS_SHOWN)
+                .forEach(conflict -> message.append(String.format("%n%s", conflict.getFileName())));
+        if (conflicts.size() > MAX_ERRORS_SHOWN) {
+            message.append(String.format("%n...and %d more", conflicts.size() - MAX_ERRORS_SHOWN));
+        }
+        message.append(String.format("%n%nDo you want to replace them?"));
+        return JOptionPane.showConfirmDialog(parent, message.toString(), title, JOptionPane.YES_NO_OPTION)
+                == JOptionPane.YES_OPTION;
+    }
+
+    private static boolean runPreflight(PreflightScan scan, Component parent, String title) {
+        JOptionPane pane = new JOptionPane("Scanning the selected files...", JOptionPane.INFORMATION_MESSAGE,
+                JOptionPane.DEFAULT_OPTION, null, new Object[]{"Cancel"});
+        JDialog dialog = pane.createDialog(parent, title);
+
+        SwingWorker<Boolean, Void> worker = new SwingWorker<>() {
+            @Override
+            protected Boolean doInBackground() {
+                return scan.run();
+            }
+
+            @Override
+            protected void done() {
+                dialog.dispose();
+            }
+        };
+        worker.execute();
+
+        // Small selections are scanned in the blink of an eye, so the dialog only shows up for large trees.
+        try {
+            return worker.get(PREFLIGHT_PATIENCE, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            dialog.setVisible(true); // it blocks until the scan is done (or the user gives up on it)
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            scan.cancel();
+            return false;
+        } catch (ExecutionException e) {
+            return true; // the operations will walk the files on their own
+        }
+
+        if (!worker.isDone()) {
+            scan.cancel();
+            return false;
+        }
+        try {
+            return worker.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } catch (ExecutionException e) {
+            return true;
+        }
     }
 }
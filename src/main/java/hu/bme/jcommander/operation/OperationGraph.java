@@ -0,0 +1,178 @@
+package hu.bme.jcommander.operation;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * An operation made up of other operations, each of which runs as soon as the ones it depends on have ended,
+ * so the independent ones run concurrently on the file task pool (e.g.: creating a directory, then copying files
+ * into it in parallel, then refreshing the pane once).
+ *
+ * <p>
+ * An operation added with {@link #add} only runs if its dependencies have succeeded, otherwise it's skipped, and so
+ * are its own dependents in turn, while the rest of the graph goes on. An operation added with {@link #addFinally}
+ * runs once its dependencies have ended, whether they've succeeded or not. The graph fails if any of its operations
+ * has failed or been skipped.
+ * </p>
+ */
+public class OperationGraph extends Operation {
+
+    private final Map<Operation, Node> nodes = new LinkedHashMap<>();
+    private final AtomicReference<RuntimeException> thrown = new AtomicReference<>();
+
+    /**
+     * Adds an operation that only runs once all of its dependencies have succeeded.
+     *
+     * @param operation    the operation to be added
+     * @param dependencies the operations (added to the graph before) that it depends on
+     * @return the operation added, so that it can be depended on
+     */
+    public Operation add(Operation operation, Operation... dependencies) {
+        return add(operation, true, dependencies);
+    }
+
+    /**
+     * Adds an operation that runs once all of its dependencies have ended, even if some of them have failed
+     * (e.g.: refreshing the panes after a batch of copies).
+     *
+     * @param operation    the operation to be added
+     * @param dependencies the operations (added to the graph before) that it depends on
+     * @return the operation added, so that it can be depended on
+     */
+    public Operation addFinally(Operation operation, Operation... dependencies) {
+        return add(operation, false, dependencies);
+    }
+
+    private Operation add(Operation operation, boolean requiresSuccess, Operation... dependencies) {
+        if (nodes.containsKey(operation)) {
+            throw new IllegalArgumentException("The operation has already been added.");
+        }
+
+        // As the dependencies have to be added first, the graph can't have cycles.
+        Node node = new Node(operation, requiresSuccess);
+        for (Operation dependency : dependencies) {
+            Node prerequisite = nodes.get(dependency);
+            if (prerequisite == null) {
+                throw new IllegalArgumentException("The dependencies have to be added before their dependents.");
+            }
+            prerequisite.dependents.add(node);
+            node.dependencyCount++;
+        }
+
+        // Every operation reports to the graph's tracker, so the progress of the graph is the sum of theirs,
+        // and cancelling the graph cancels whichever of them are running.
+        operation.shareState(this);
+        nodes.put(operation, node);
+        return operation;
+    }
+
+    @Override
+    void shareState(Operation owner) {
+        super.shareState(owner);
+        for (Operation operation : nodes.keySet()) {
+            operation.shareState(owner);
+        }
+    }
+
+    @Override
+    void setDeviceSlots(DeviceSlots deviceSlots) {
+        // The graph only takes a single slot of the executor's queue, so it's its operations that have to keep
+        // to the limits of their devices, file by file.
+        super.setDeviceSlots(deviceSlots);
+        for (Operation operation : nodes.keySet()) {
+            operation.setDeviceSlots(deviceSlots);
+        }
+    }
+
+    @Override
+    public Collection<Path> getPaths() {
+        List<Path> paths = new ArrayList<>();
+        for (Operation operation : nodes.keySet()) {
+            paths.addAll(operation.getPaths());
+        }
+        return paths;
+    }
+
+    @Override
+    public void run() {
+        CountDownLatch ended = new CountDownLatch(nodes.size());
+        for (Node node : nodes.values()) {
+            node.reset();
+        }
+        for (Node node : nodes.values()) {
+            if (node.dependencyCount == 0) {
+                FileTaskPool.get().execute(() -> execute(node, ended));
+            }
+        }
+
+        boolean interrupted = false;
+        while (ended.getCount() > 0) {
+            try {
+                ended.await();
+            } catch (InterruptedException e) {
+                // The operations can't be abandoned while they're running, but they can be told to stop.
+                interrupted = true;
+                cancel();
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+
+        failed = nodes.values().stream().anyMatch(node -> !node.succeeded);
+        RuntimeException e = thrown.getAndSet(null);
+        if (e != null) {
+            throw e;
+        }
+    }
+
+    private void execute(Node node, CountDownLatch ended) {
+        try {
+            if (!node.blocked && checkpoint()) {
+                node.operation.run();
+                node.succeeded = !node.operation.isFailed();
+            }
+        } catch (RuntimeException e) {
+            thrown.compareAndSet(null, e); // the rest of the graph is let go on, and it's rethrown at the end
+        } finally {
+            for (Node dependent : node.dependents) {
+                if (!node.succeeded && dependent.requiresSuccess) {
+                    dependent.blocked = true;
+                }
+                if (dependent.pending.decrementAndGet() == 0) {
+                    FileTaskPool.get().execute(() -> execute(dependent, ended));
+                }
+            }
+            ended.countDown();
+        }
+    }
+
+    private static class Node {
+
+        private final Operation operation;
+        private final boolean requiresSuccess;
+        private final List<Node> dependents = new ArrayList<>();
+        private final AtomicInteger pending = new AtomicInteger();
+        private int dependencyCount = 0;
+        private volatile boolean blocked;
+        private volatile boolean succeeded;
+
+        private Node(Operation operation, boolean requiresSuccess) {
+            this.operation = operation;
+            this.requiresSuccess = requiresSuccess;
+        }
+
+        private void reset() {
+            pending.set(dependencyCount);
+            blocked = false;
+            succeeded = false;
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package hu.bme.jcommander.operation;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * A handle to an operation issued to an {@link OperationExecutor}, through which it can be followed and controlled.
+ */
+public class OperationHandle {
+
+    private final Operation operation;
+    private final String name;
+    // Either the worker starting the operation or a cancellation before that claims it, whichever comes first.
+    private final AtomicBoolean claimed = new AtomicBoolean(false);
+    private final CountDownLatch ended = new CountDownLatch(1);
+    private Future<?> future;
+
+    /**
+     * Constructs a handle.
+     *
+     * @param operation the operation issued
+     * @param name      the name of the operation to be shown to the user
+     */
+    OperationHandle(Operation operation, String name) {
+        this.operation = operation;
+        this.name = name;
+    }
+
+    void setFuture(Future<?> future) {
+        this.future = future;
+    }
+
+    boolean claim() {
+        return claimed.compareAndSet(false, true);
+    }
+
+    void ended() {
+        ended.countDown();
+    }
+
+    /**
+     * Retrieves the name of the operation to be shown to the user.
+     *
+     * @return the name
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Retrieves a snapshot of the operation's progress.
+     *
+     * @return the progress
+     */
+    public Progress getProgress() {
+        return operation.getProgress();
+    }
+
+    /**
+     * Stops the operation at its next checkpoint, or right away if it hasn't been started yet.
+     * The files being written at the time get deleted.
+     */
+    public void cancel() {
+        operation.cancel();
+        if (claim()) {
+            future.cancel(false); // it hasn't started yet, so it doesn't even have to be waited for
+        }
+    }
+
+    /**
+     * Makes the operation wait at its next checkpoint until it gets resumed (or cancelled).
+     */
+    public void pause() {
+        operation.pause();
+    }
+
+    /**
+     * Lets a paused operation go on.
+     */
+    public void resume() {
+        operation.resume();
+    }
+
+    /**
+     * Checks if the operation has been cancelled.
+     *
+     * @return true if the operation has been cancelled, false otherwise
+     */
+    public boolean isCancelled() {
+        return operation.isCancelled();
+    }
+
+    /**
+     * Checks if the operation is paused.
+     *
+     * @return true if the operation is paused, false otherwise
+     */
+    public boolean isPaused() {
+        return operation.isPaused();
+    }
+
+    /**
+     * Checks if the operation has come to an end, either by finishing, failing or being cancelled.
+     *
+     * @return true if the operation has come to an end, false otherwise
+     */
+    public boolean isDone() {
+        return ended.getCount() == 0;
+    }
+
+    /**
+     * Checks if the operation has failed (or has been cancelled).
+     *
+     * @return true if the operation has failed, false otherwise
+     */
+    public boolean isFailed() {
+        return operation.isFailed() || operation.isCancelled();
+    }
+
+    /**
+     * Blocks until the operation comes to an end.
+     *
+     * @throws InterruptedException if the waiting thread got interrupted
+     */
+    public void await() throws InterruptedException {
+        ended.await();
+    }
+}
@@ -0,0 +1,197 @@
+package hu.bme.jcommander.operation;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+public class PackOperation extends Operation {
+
+    private static final int BUFFER_SIZE = 1024 * 1024;
+
+    private final Path[] sources;
+    private final Path target;
+    private final ArchiveFormat format;
+
+    /**
+     * Constructs a PackOperation packing the specified files and directories into an archive.
+     *
+     * <p>
+     * The entries are read one after the other, but their contents are compressed in parallel blocks across the
+     * workers of the file task pool, and the archive is streamed straight to the target without any temporary files.
+     * Every entry is named relative to the directory containing its source. Symbolic links and other special files
+     * are left out. An archive that couldn't be completed (or got cancelled) is deleted.
+     * </p>
+     *
+     * @param sources the files and directories to be packed
+     * @param target  the archive to be created (or replaced)
+     * @param format  the format of the archive
+     */
+    public PackOperation(Path[] sources, Path target, ArchiveFormat format) {
+        this.sources = sources;
+        this.target = target;
+        this.format = format;
+    }
+
+    @Override
+    public Collection<Path> getPaths() {
+        List<Path> paths = new ArrayList<>(List.of(sources));
+        paths.add(target);
+        return paths;
+    }
+
+    @Override
+    public void run() {
+        List<Entry> entries = new ArrayList<>();
+        for (Path source : sources) {
+            collectEntries(source, entries);
+        }
+        if (!checkpoint()) {
+            return;
+        }
+
+        ArchiveWriter writer;
+        try {
+            writer = format.newWriter(new BufferedOutputStream(Files.newOutputStream(target), BUFFER_SIZE));
+        } catch (IOException | SecurityException e) {
+            reportError(target, e);
+            return;
+        }
+
+        boolean complete = false;
+        Path current = target;
+        try {
+            byte[] buffer = new byte[BUFFER_SIZE];
+            for (Entry entry : entries) {
+                current = entry.path();
+                if (!checkpoint() || !pack(writer, entry, buffer)) {
+                    return;
+                }
+            }
+            current = target;
+            writer.close();
+            complete = true;
+        } catch (IOException e) {
+            reportError(current, e);
+        } finally {
+            if (!complete) {
+                writer.abort();
+                deleteIncompleteArchive();
+            }
+        }
+    }
+
+    /**
+     * Packs an entry. A file that can't be opened is left out, but once it's started, it has to be completed.
+     * If the format stores the sizes up front, a file that has grown or shrunk since it's been walked (e.g.: a log
+     * being written) is packed as large as it was then, cut off or padded with zeros, and an error is reported
+     * for it, but the rest of the archive is kept.
+     *
+     * @return false if the operation has been cancelled in the meantime, true otherwise
+     */
+    private boolean pack(ArchiveWriter writer, Entry entry, byte[] buffer) throws IOException {
+        if (entry.attributes().isDirectory()) {
+            writer.putDirectory(entry.name(), entry.attributes());
+            return true;
+        }
+
+        InputStream input;
+        try {
+            input = Files.newInputStream(entry.path());
+        } catch (IOException | SecurityException e) {
+            reportError(entry.path(), e);
+            return true;
+        }
+
+        startedFile(entry.path());
+        try (input) {
+            OutputStream output = writer.putFile(entry.name(), entry.attributes());
+            long size = writer.hasFixedSizes() ? entry.attributes().size() : Long.MAX_VALUE;
+            long packed = 0;
+            int read;
+            while (packed < size && (read = input.read(buffer, 0, (int) Math.min(buffer.length, size - packed))) >= 0) {
+                if (!checkpoint()) {
+                    return false;
+                }
+                output.write(buffer, 0, read);
+                packed += read;
+                addBytesDone(read);
+            }
+            output.close();
+
+            if (writer.hasFixedSizes() && (packed < size || input.read() >= 0)) {
+                reportError(entry.path(), new IOException(entry.path() + " has changed its size while being packed, "
+                        + "so only its first " + size + " bytes have been packed."));
+            }
+            return true;
+        } finally {
+            fileDone();
+        }
+    }
+
+    private void collectEntries(Path source, List<Entry> entries) {
+        Path base = source.getParent() != null ? source.getParent() : source;
+        try {
+            Files.walkFileTree(source, new SimpleFileVisitor<>() {
+                @Override
+                public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attributes) {
+                    if (!checkpoint()) {
+                        return FileVisitResult.TERMINATE;
+                    }
+                    if (!dir.equals(base)) {
+                        entries.add(new Entry(dir, nameOf(base.relativize(dir)), attributes));
+                    }
+                    return FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult visitFile(Path file, BasicFileAttributes attributes) {
+                    // The archive may well be created inside one of the directories being packed.
+                    if (attributes.isRegularFile() && !file.equals(target)) {
+                        entries.add(new Entry(file, nameOf(base.relativize(file)), attributes));
+                        addToTotal(attributes.size(), 1);
+                    }
+                    return FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult visitFileFailed(Path file, IOException e) {
+                    reportError(file, e);
+                    return FileVisitResult.CONTINUE;
+                }
+            });
+        } catch (IOException | SecurityException e) {
+            reportError(source, e);
+        }
+    }
+
+    /**
+     * Tells the name of an entry inside the archive, which is always separated by slashes.
+     */
+    private static String nameOf(Path relative) {
+        List<String> names = new ArrayList<>();
+        for (Path name : relative) {
+            names.add(name.toString());
+        }
+        return String.join("/", names);
+    }
+
+    private void deleteIncompleteArchive() {
+        try {
+            Files.deleteIfExists(target);
+        } catch (IOException e) {
+            System.err.println("Couldn't delete the incomplete archive: " + e.getMessage());
+        }
+    }
+
+    private record Entry(Path path, String name, BasicFileAttributes attributes) {
+    }
+}
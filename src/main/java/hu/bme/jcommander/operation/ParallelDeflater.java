@@ -0,0 +1,200 @@
+package hu.bme.jcommander.operation;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.concurrent.ForkJoinTask;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * Compresses the bytes written into it as a raw DEFLATE stream, with the blocks of the stream compressed in
+ * parallel (the way pigz does it).
+ *
+ * <p>
+ * The input is cut into blocks, and each of them is compressed on its own, with the end of the previous block as
+ * its dictionary, so the ratio is barely worse than that of a single deflater. Every block but the last one ends
+ * with a sync flush, which leaves the output on a byte boundary, so the compressed blocks can simply be written one
+ * after the other. Only a bounded number of blocks are in flight at a time, and they're written to the sink in order
+ * as soon as they're done.
+ * </p>
+ *
+ * <p>
+ * It's not thread-safe, it's meant to be written by a single thread.
+ * </p>
+ */
+final class ParallelDeflater extends OutputStream {
+
+    static final int BLOCK_SIZE = 128 * 1024;
+    private static final int DICTIONARY_SIZE = 32 * 1024; // the window of DEFLATE
+    private static final int MAX_BLOCKS_IN_FLIGHT = 2 * FileTaskPool.MAX_CONCURRENT_FILES;
+
+    private final OutputStream sink;
+    private final int level;
+    private final Deque<ForkJoinTask<byte[]>> inFlight = new ArrayDeque<>();
+    private final CRC32 crc = new CRC32();
+
+    private byte[] block = new byte[BLOCK_SIZE];
+    private int blockLength = 0;
+    private byte[] dictionary = null;
+    private long bytesIn = 0;
+    private long bytesOut = 0;
+    private boolean finished = false;
+
+    /**
+     * Constructs a ParallelDeflater writing the compressed stream to the given sink. The sink doesn't get closed.
+     *
+     * @param sink  the stream to write the compressed bytes to
+     * @param level the compression level (see {@link Deflater})
+     */
+    ParallelDeflater(OutputStream sink, int level) {
+        this.sink = sink;
+        this.level = level;
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        write(new byte[]{(byte) b}, 0, 1);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        if (finished) {
+            throw new IOException("The stream has been finished already.");
+        }
+
+        crc.update(b, off, len);
+        bytesIn += len;
+        while (len > 0) {
+            int copied = Math.min(len, BLOCK_SIZE - blockLength);
+            System.arraycopy(b, off, block, blockLength, copied);
+            blockLength += copied;
+            off += copied;
+            len -= copied;
+
+            // A full block is only submitted once there's more input, as the last block has to be told apart.
+            if (blockLength == BLOCK_SIZE && len > 0) {
+                submitBlock(false);
+            }
+        }
+    }
+
+    /**
+     * Compresses the rest of the input as the last block, and writes every block left to the sink.
+     *
+     * @throws IOException if the sink couldn't be written
+     */
+    void finish() throws IOException {
+        if (finished) {
+            return;
+        }
+
+        if (blockLength == BLOCK_SIZE) {
+            submitBlock(false); // it's been held back for the input that's never come
+        }
+        submitBlock(true);
+        finished = true;
+        while (!inFlight.isEmpty()) {
+            writeBlock(inFlight.poll().join());
+        }
+    }
+
+    /**
+     * Finishes the stream, and leaves the sink open.
+     *
+     * @throws IOException if the sink couldn't be written
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            finish();
+        } finally {
+            abort();
+        }
+    }
+
+    /**
+     * Drops the blocks still being compressed without writing them anywhere.
+     */
+    void abort() {
+        finished = true;
+        for (ForkJoinTask<byte[]> task : inFlight) {
+            task.cancel(false);
+        }
+        inFlight.clear();
+    }
+
+    /**
+     * Retrieves the CRC-32 of the input, as required by the gzip and the zip formats.
+     *
+     * @return the CRC-32 of the bytes written so far
+     */
+    long getCrc() {
+        return crc.getValue();
+    }
+
+    long getBytesIn() {
+        return bytesIn;
+    }
+
+    /**
+     * Retrieves the number of compressed bytes written to the sink. It's only final once the stream's finished.
+     *
+     * @return the number of compressed bytes
+     */
+    long getBytesOut() {
+        return bytesOut;
+    }
+
+    private void submitBlock(boolean last) throws IOException {
+        if (inFlight.size() >= MAX_BLOCKS_IN_FLIGHT) {
+            writeBlock(inFlight.poll().join());
+        }
+
+        byte[] input = block;
+        int length = blockLength;
+        byte[] preset = dictionary;
+        inFlight.add(FileTaskPool.get().submit(ForkJoinTask.adapt(() -> compress(input, length, preset, last))));
+
+        dictionary = Arrays.copyOfRange(block, Math.max(0, blockLength - DICTIONARY_SIZE), blockLength);
+        block = new byte[BLOCK_SIZE]; // the previous one is still being compressed
+        blockLength = 0;
+    }
+
+    private void writeBlock(byte[] compressed) throws IOException {
+        sink.write(compressed);
+        bytesOut += compressed.length;
+    }
+
+    private byte[] compress(byte[] input, int length, byte[] preset, boolean last) {
+        Deflater deflater = new Deflater(level, true);
+        try {
+            if (preset != null && preset.length > 0) {
+                deflater.setDictionary(preset);
+            }
+            deflater.setInput(input, 0, length);
+
+            ByteArrayOutputStream output = new ByteArrayOutputStream(length / 2 + 64);
+            byte[] buffer = new byte[16 * 1024];
+            if (last) {
+                deflater.finish();
+                while (!deflater.finished()) {
+                    output.write(buffer, 0, deflater.deflate(buffer));
+                }
+            } else {
+                // A full buffer means that there may be more to be flushed.
+                int written;
+                do {
+                    written = deflater.deflate(buffer, 0, buffer.length, Deflater.SYNC_FLUSH);
+                    output.write(buffer, 0, written);
+                } while (written == buffer.length);
+            }
+            return output.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+}
@@ -0,0 +1,256 @@
+package hu.bme.jcommander.operation;
+
+import java.io.IOException;
+import java.nio.file.DirectoryIteratorException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileStore;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+import static java.nio.file.LinkOption.NOFOLLOW_LINKS;
+
+/**
+ * Walks the files selected for a copy or move before the operation starts, to find out in advance whether they fit
+ * onto the target device and which of them would replace existing files.
+ *
+ * <p>
+ * The directories are walked in parallel on the pool of the file operations. The trees seen by the scan are kept,
+ * so the operations issued afterwards know their totals from the first byte and don't have to walk them again.
+ * </p>
+ */
+public class PreflightScan {
+
+    private final List<Path> sources;
+    private final Path targetDirectory;
+    private final boolean moving;
+
+    private final AtomicBoolean cancelled = new AtomicBoolean(false);
+    private final Queue<Path> conflicts = new ConcurrentLinkedQueue<>();
+    private final LongAdder replacedBytes = new LongAdder();
+    private final Map<Path, ScannedTree> trees = new HashMap<>();
+    private long bytes = 0;
+    private long files = 0;
+    private long requiredSpace = 0;
+    private long usableSpace = Long.MAX_VALUE;
+
+    /**
+     * Constructs a scan of the given files, which are to be copied or moved into the target directory.
+     *
+     * @param sources         the files and directories to be scanned
+     * @param targetDirectory the directory the files are to be placed into
+     * @param moving          whether the files are to be moved (which only takes up space on another device)
+     */
+    public PreflightScan(List<Path> sources, Path targetDirectory, boolean moving) {
+        this.sources = List.copyOf(sources);
+        this.targetDirectory = targetDirectory;
+        this.moving = moving;
+    }
+
+    /**
+     * Scans the files. It blocks until the scan is complete or gets cancelled.
+     *
+     * @return true if the scan is complete, false if it's been cancelled
+     */
+    public boolean run() {
+        FileStore targetStore = storeOf(targetDirectory);
+
+        for (Path source : sources) {
+            // The name is resolved as a string, as the target may be on a different file system.
+            Path target = targetDirectory.resolve(source.getFileName().toString());
+            boolean takesSpace = !moving || targetStore == null || !targetStore.equals(storeOf(source));
+
+            ScannedTree tree = FileTaskPool.get().invoke(new Scan(source, target, takesSpace));
+            if (isCancelled()) {
+                return false;
+            }
+
+            synchronized (this) {
+                trees.put(source, tree);
+                bytes += tree.bytes();
+                files += tree.files();
+                if (takesSpace) {
+                    requiredSpace += tree.bytes();
+                }
+            }
+        }
+
+        synchronized (this) {
+            // The files being replaced are deleted before their copies get written.
+            requiredSpace = Math.max(0, requiredSpace - replacedBytes.sum());
+            if (targetStore != null) {
+                try {
+                    usableSpace = targetStore.getUsableSpace();
+                } catch (IOException e) {
+                    // The space can't be told in advance, so the operation will find out whether it fits.
+                }
+            }
+        }
+        return true;
+    }
+
+    private static FileStore storeOf(Path path) {
+        try {
+            return Files.getFileStore(path);
+        } catch (IOException | SecurityException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Cancels the scan. Every directory stops being walked after the entry it's currently reading.
+     */
+    public void cancel() {
+        cancelled.set(true);
+    }
+
+    /**
+     * Checks if the scan has been cancelled.
+     *
+     * @return true if the scan has been cancelled, false otherwise
+     */
+    public boolean isCancelled() {
+        return cancelled.get();
+    }
+
+    /**
+     * Retrieves the number of bytes in the scanned files.
+     *
+     * @return the number of bytes
+     */
+    public synchronized long getBytes() {
+        return bytes;
+    }
+
+    /**
+     * Retrieves the number of scanned files (not counting the directories).
+     *
+     * @return the number of files
+     */
+    public synchronized long getFiles() {
+        return files;
+    }
+
+    /**
+     * Retrieves the number of bytes that the operation is going to take up on the target device.
+     *
+     * @return the number of bytes
+     */
+    public synchronized long getRequiredSpace() {
+        return requiredSpace;
+    }
+
+    /**
+     * Retrieves the number of bytes available on the target device.
+     *
+     * @return the number of bytes, or {@link Long#MAX_VALUE} if it couldn't be told
+     */
+    public synchronized long getUsableSpace() {
+        return usableSpace;
+    }
+
+    /**
+     * Checks whether the files fit onto the target device.
+     *
+     * @return true if there's enough space for the files (or it couldn't be told), false otherwise
+     */
+    public synchronized boolean hasEnoughSpace() {
+        return requiredSpace <= usableSpace;
+    }
+
+    /**
+     * Retrieves the source files whose targets already exist, so they would be replaced.
+     *
+     * @return the paths of the conflicting source files
+     */
+    public List<Path> getConflicts() {
+        return List.copyOf(conflicts);
+    }
+
+    /**
+     * Retrieves the tree seen by the scan under one of the sources.
+     *
+     * @param source the source
+     * @return the tree, or null if the source hasn't been scanned
+     */
+    synchronized ScannedTree getTree(Path source) {
+        return trees.get(source);
+    }
+
+    private class Scan extends RecursiveTask<ScannedTree> {
+
+        private final Path source;
+        private final Path target;
+        private final boolean takesSpace;
+
+        private Scan(Path source, Path target, boolean takesSpace) {
+            this.source = source;
+            this.target = target;
+            this.takesSpace = takesSpace;
+        }
+
+        @Override
+        protected ScannedTree compute() {
+            BasicFileAttributes attributes;
+            try {
+                attributes = Files.readAttributes(source, BasicFileAttributes.class, NOFOLLOW_LINKS);
+            } catch (IOException | SecurityException e) {
+                // It's counted as a file of unknown size, which the operation will report when it can't copy it either.
+                return new ScannedTree(source, false, 0, 1, List.of());
+            }
+
+            if (!attributes.isDirectory()) {
+                checkConflict();
+                return new ScannedTree(source, false, attributes.size(), 1, List.of());
+            }
+
+            List<ForkJoinTask<ScannedTree>> tasks = new ArrayList<>();
+            try (DirectoryStream<Path> entries = Files.newDirectoryStream(source)) {
+                for (Path entry : entries) {
+                    if (isCancelled()) {
+                        break;
+                    }
+                    tasks.add(new Scan(entry, target.resolve(entry.getFileName().toString()), takesSpace).fork());
+                }
+            } catch (IOException | SecurityException | DirectoryIteratorException e) {
+                for (ForkJoinTask<ScannedTree> task : tasks) {
+                    task.join();
+                }
+                return new ScannedTree(source, true, 0, 0, null); // the operation is going to list it by itself
+            }
+
+            long bytes = 0;
+            long files = 0;
+            List<ScannedTree> children = new ArrayList<>(tasks.size());
+            for (ForkJoinTask<ScannedTree> task : tasks) {
+                ScannedTree child = task.join();
+                bytes += child.bytes();
+                files += child.files();
+                children.add(child);
+            }
+            return new ScannedTree(source, true, bytes, files, children);
+        }
+
+        private void checkConflict() {
+            try {
+                BasicFileAttributes existing = Files.readAttributes(target, BasicFileAttributes.class, NOFOLLOW_LINKS);
+                conflicts.add(source);
+                if (takesSpace && !existing.isDirectory()) {
+                    replacedBytes.add(existing.size());
+                }
+            } catch (IOException | SecurityException e) {
+                // There's nothing in its place yet.
+            }
+        }
+    }
+}
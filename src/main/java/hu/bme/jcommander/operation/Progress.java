@@ -0,0 +1,55 @@
+package hu.bme.jcommander.operation;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * A snapshot of how far an operation has got.
+ *
+ * <p>
+ * The totals only cover what the operation has discovered so far (e.g.: a recursive copy finds out about the files
+ * of a directory when it gets there), so they may grow while the operation is running.
+ * </p>
+ *
+ * @param bytesDone         the number of bytes processed
+ * @param bytesTotal        the number of bytes to be processed
+ * @param filesDone         the number of files processed
+ * @param filesTotal        the number of files to be processed
+ * @param currentFile       the file being processed most recently, or null if none has been started yet
+ * @param throughput        the number of bytes processed per second since the previous snapshot
+ * @param averageThroughput the number of bytes processed per second since the operation started
+ * @param finished          true if the operation has finished (either successfully or not), false otherwise
+ */
+public record Progress(long bytesDone, long bytesTotal, long filesDone, long filesTotal, Path currentFile,
+                       double throughput, double averageThroughput, boolean finished) {
+
+    /**
+     * Tells how large a part of the operation has been completed, preferably based on the bytes processed.
+     *
+     * @return the completed fraction between 0 and 1
+     */
+    public double fraction() {
+        if (bytesTotal > 0) {
+            return Math.min(1.0, (double) bytesDone / bytesTotal);
+        }
+        if (filesTotal > 0) {
+            return Math.min(1.0, (double) filesDone / filesTotal);
+        }
+        return finished ? 1.0 : 0.0;
+    }
+
+    /**
+     * Estimates the time left based on the average throughput.
+     *
+     * @return the estimated time left, or null if it can't be estimated (yet)
+     */
+    public Duration eta() {
+        if (finished) {
+            return Duration.ZERO;
+        }
+        if (averageThroughput <= 0 || bytesTotal <= 0) {
+            return null;
+        }
+        return Duration.ofMillis((long) (Math.max(0, bytesTotal - bytesDone) / averageThroughput * 1000));
+    }
+}
@@ -0,0 +1,37 @@
+package hu.bme.jcommander.operation;
+
+import java.util.EventObject;
+
+public class ProgressEvent extends EventObject {
+
+    private final transient Progress progress;
+
+    /**
+     * Constructs a ProgressEvent with the specified source and the snapshot of its progress.
+     *
+     * @param source   the operation that has made progress
+     * @param progress the snapshot of the progress
+     */
+    public ProgressEvent(Operation source, Progress progress) {
+        super(source);
+        this.progress = progress;
+    }
+
+    /**
+     * Retrieves the operation that has made progress.
+     *
+     * @return the operation
+     */
+    public Operation getOperation() {
+        return (Operation) getSource();
+    }
+
+    /**
+     * Retrieves the snapshot of the progress.
+     *
+     * @return the progress
+     */
+    public Progress getProgress() {
+        return progress;
+    }
+}
@@ -0,0 +1,14 @@
+package hu.bme.jcommander.operation;
+
+import java.util.EventListener;
+
+public interface ProgressListener extends EventListener {
+
+    /**
+     * A progress handler that gets called on the Event Dispatch Thread whenever an operation has made progress
+     * (at a bounded rate), and once more when it has finished.
+     *
+     * @param event the event
+     */
+    void progressChanged(ProgressEvent event);
+}
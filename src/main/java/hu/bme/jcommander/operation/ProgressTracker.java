@@ -0,0 +1,140 @@
+package hu.bme.jcommander.operation;
+
+import javax.swing.*;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Accumulates the progress of an operation (or of a chain of operations sharing the same tracker),
+ * and publishes it to the listeners at a bounded rate, so that the UI doesn't get flooded.
+ *
+ * <p>
+ * Progress can be reported from any number of threads at the same time, e.g.: by the workers of a parallel copy.
+ * </p>
+ */
+class ProgressTracker {
+
+    private static final long PUBLISH_INTERVAL_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+    private static final long NOT_STARTED = Long.MIN_VALUE;
+
+    private final Operation source;
+    private final List<ProgressListener> listeners = new CopyOnWriteArrayList<>();
+    private final LongAdder bytesDone = new LongAdder();
+    private final LongAdder bytesTotal = new LongAdder();
+    private final LongAdder filesDone = new LongAdder();
+    private final LongAdder filesTotal = new LongAdder();
+    private final AtomicLong startedAt = new AtomicLong(NOT_STARTED);
+    private final AtomicLong lastPublished = new AtomicLong(System.nanoTime());
+    private volatile Path currentFile = null;
+    private volatile boolean finished = false;
+
+    // The sample of the previous publication, which the instantaneous throughput is measured against.
+    private long sampledAt = lastPublished.get();
+    private long sampledBytes = 0;
+    private volatile double throughput = 0;
+
+    /**
+     * Constructs a tracker.
+     *
+     * @param source the operation to be reported as the source of the events
+     */
+    ProgressTracker(Operation source) {
+        this.source = source;
+    }
+
+    void addListener(ProgressListener listener) {
+        listeners.add(listener);
+    }
+
+    void removeListener(ProgressListener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Starts measuring the time of the operation, unless it's running already. The time the operation has spent
+     * waiting in the executor's queue doesn't count, so that the throughput and the estimates only reflect the time
+     * it's been working. An operation run on its own gets started by its first report.
+     */
+    void start() {
+        long now = System.nanoTime();
+        if (startedAt.compareAndSet(NOT_STARTED, now)) {
+            synchronized (this) {
+                sampledAt = now;
+            }
+        }
+    }
+
+    void addToTotal(long bytes, long files) {
+        bytesTotal.add(bytes);
+        filesTotal.add(files);
+        changed();
+    }
+
+    void startedFile(Path file) {
+        currentFile = file;
+        changed();
+    }
+
+    void addBytesDone(long bytes) {
+        bytesDone.add(bytes);
+        changed();
+    }
+
+    void fileDone() {
+        filesDone.increment();
+        changed();
+    }
+
+    /**
+     * Publishes the final snapshot, regardless of when the previous one was published.
+     */
+    void finish() {
+        finished = true;
+        publish(System.nanoTime());
+    }
+
+    Progress snapshot() {
+        long done = bytesDone.sum();
+        long started = startedAt.get();
+        double elapsedSeconds = started != NOT_STARTED ? (System.nanoTime() - started) / 1e9 : 0;
+        return new Progress(done, bytesTotal.sum(), filesDone.sum(), filesTotal.sum(), currentFile, throughput,
+                elapsedSeconds > 0 ? done / elapsedSeconds : 0, finished);
+    }
+
+    private void changed() {
+        if (startedAt.get() == NOT_STARTED) {
+            start();
+        }
+
+        long now = System.nanoTime();
+        long last = lastPublished.get();
+        // Only one of the reporting threads gets to publish within an interval, the rest just carry on.
+        if (now - last >= PUBLISH_INTERVAL_NANOS && lastPublished.compareAndSet(last, now)) {
+            publish(now);
+        }
+    }
+
+    private synchronized void publish(long now) {
+        long done = bytesDone.sum();
+        if (now > sampledAt) {
+            throughput = (done - sampledBytes) / ((now - sampledAt) / 1e9);
+        }
+        sampledAt = now;
+        sampledBytes = done;
+
+        if (listeners.isEmpty()) {
+            return;
+        }
+
+        ProgressEvent event = new ProgressEvent(source, snapshot());
+        SwingUtilities.invokeLater(() -> {
+            for (ProgressListener listener : listeners) {
+                listener.progressChanged(event);
+            }
+        });
+    }
+}
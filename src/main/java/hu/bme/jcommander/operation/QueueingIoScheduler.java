@@ -0,0 +1,114 @@
+package hu.bme.jcommander.operation;
+
+import java.nio.file.FileStore;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+
+/**
+ * Schedules operations onto a pool of platform threads by the devices (file stores) they work on.
+ *
+ * <p>
+ * Every device has a limit on the number of operations working on it at the same time, and the operations waiting for
+ * a device are queued in the order of their submission. An operation only gets started once every device it works on
+ * has a free slot, and it never blocks a thread while it's waiting, so operations on independent devices still run in
+ * parallel with each other.
+ * </p>
+ */
+class QueueingIoScheduler implements IoScheduler {
+
+    private final Executor executor;
+    private final Map<FileStore, Integer> limits = new HashMap<>();
+    private final Map<FileStore, Integer> running = new HashMap<>();
+    private final List<Job> queue = new ArrayList<>();
+
+    /**
+     * Constructs a scheduler.
+     *
+     * @param executor the executor to run the operations on
+     */
+    QueueingIoScheduler(Executor executor) {
+        this.executor = executor;
+    }
+
+    @Override
+    public synchronized void setLimit(FileStore device, int limit) {
+        if (limit <= 0) {
+            throw new IllegalArgumentException("Limit must be positive.");
+        }
+        limits.put(device, limit);
+        dispatch();
+    }
+
+    @Override
+    public void schedule(Operation operation, FutureTask<?> task) {
+        // Looking up the file stores touches the disks (which may even hang), so it's not done on the caller's thread.
+        executor.execute(() -> {
+            Set<FileStore> devices = IoScheduler.devicesOf(operation.getPaths());
+            synchronized (this) {
+                queue.add(new Job(devices, task));
+                dispatch();
+            }
+        });
+    }
+
+    private void dispatch() {
+        // The devices wanted by the jobs earlier in the queue are reserved for them, so that a job waiting
+        // for several devices can't be starved by the ones only needing one of them.
+        Set<FileStore> reserved = new HashSet<>();
+        Iterator<Job> iterator = queue.iterator();
+        while (iterator.hasNext()) {
+            Job job = iterator.next();
+            if (job.task.isDone()) {
+                iterator.remove(); // it's been cancelled while waiting
+            } else if (Collections.disjoint(job.devices, reserved) && haveFreeSlots(job.devices)) {
+                iterator.remove();
+                start(job);
+            } else {
+                reserved.addAll(job.devices);
+            }
+        }
+    }
+
+    private boolean haveFreeSlots(Set<FileStore> devices) {
+        for (FileStore device : devices) {
+            int limit = limits.getOrDefault(device, DEFAULT_DEVICE_CONCURRENCY);
+            if (running.getOrDefault(device, 0) >= limit) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void start(Job job) {
+        for (FileStore device : job.devices) {
+            running.merge(device, 1, Integer::sum);
+        }
+
+        executor.execute(() -> {
+            try {
+                job.task.run();
+            } finally {
+                finished(job);
+            }
+        });
+    }
+
+    private synchronized void finished(Job job) {
+        for (FileStore device : job.devices) {
+            running.merge(device, -1, Integer::sum);
+        }
+        dispatch();
+    }
+
+    private record Job(Set<FileStore> devices, FutureTask<?> task) {
+
+    }
+}
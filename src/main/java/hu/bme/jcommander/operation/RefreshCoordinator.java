@@ -0,0 +1,110 @@
+package hu.bme.jcommander.operation;
+
+import hu.bme.jcommander.pane.Controller;
+
+import javax.swing.*;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Coalesces the refresh requests of controllers, so that a batch of operations finishing one after the other only
+ * costs a single refresh of each view.
+ *
+ * <p>
+ * Every request (re)starts the debounce window of its controller, and the controller only gets refreshed once no more
+ * requests have arrived for it within that window. Requests can be made from any thread, but the refreshes are always
+ * run on the Event Dispatch Thread.
+ * </p>
+ */
+public class RefreshCoordinator {
+
+    /**
+     * The default length of the debounce window in milliseconds.
+     */
+    public static final int DEFAULT_WINDOW = 200;
+
+    // Only accessed on the Event Dispatch Thread.
+    private final Map<Controller, Timer> pending = new HashMap<>();
+    private final LongAdder skipped = new LongAdder();
+    private volatile int window;
+
+    /**
+     * Constructs a RefreshCoordinator with the default debounce window.
+     */
+    public RefreshCoordinator() {
+        this(DEFAULT_WINDOW);
+    }
+
+    /**
+     * Constructs a RefreshCoordinator with the specified debounce window.
+     *
+     * @param window the length of the debounce window in milliseconds
+     */
+    public RefreshCoordinator(int window) {
+        setWindow(window);
+    }
+
+    /**
+     * Requests the given controller to be refreshed once the requests for it have settled down.
+     *
+     * @param controller the controller to be refreshed
+     */
+    public void request(Controller controller) {
+        if (SwingUtilities.isEventDispatchThread()) {
+            schedule(controller);
+        } else {
+            SwingUtilities.invokeLater(() -> schedule(controller));
+        }
+    }
+
+    private void schedule(Controller controller) {
+        Timer timer = pending.get(controller);
+        if (timer != null) {
+            // The pending refresh will cover this request as well, it just has to wait for a bit longer.
+            skipped.increment();
+            timer.setInitialDelay(window);
+            timer.restart();
+            return;
+        }
+
+        timer = new Timer(window, e -> {
+            pending.remove(controller);
+            controller.refresh();
+        });
+        timer.setRepeats(false);
+        pending.put(controller, timer);
+        timer.start();
+    }
+
+    /**
+     * Sets the length of the debounce window. It only affects the requests made from now on.
+     *
+     * @param window the length of the debounce window in milliseconds
+     */
+    public void setWindow(int window) {
+        if (window < 0) {
+            throw new IllegalArgumentException("The debounce window can't be negative.");
+        }
+
+        this.window = window;
+    }
+
+    /**
+     * Retrieves the length of the debounce window.
+     *
+     * @return the length of the debounce window in milliseconds
+     */
+    public int getWindow() {
+        return window;
+    }
+
+    /**
+     * Retrieves the number of refreshes that have been saved by coalescing them with others.
+     *
+     * @return the number of skipped refreshes
+     */
+    public long getSkippedRefreshes() {
+        return skipped.sum();
+    }
+}
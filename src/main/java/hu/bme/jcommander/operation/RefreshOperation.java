@@ -5,19 +5,24 @@ import hu.bme.jcommander.pane.Controller;
 public class RefreshOperation extends Operation {
 
     private final Controller refreshable;
+    private final RefreshCoordinator coordinator;
 
     /**
      * Constructs a RefreshOperation with the specified {@code refreshable} controller.
      *
      * @param refreshable the {@code Controller} to be refreshed
+     * @param coordinator the coordinator that coalesces the refreshes of the controller
      */
-    public RefreshOperation(Controller refreshable) {
+    public RefreshOperation(Controller refreshable, RefreshCoordinator coordinator) {
         this.refreshable = refreshable;
+        this.coordinator = coordinator;
     }
 
     @Override
     public void run() {
-        refreshable.refresh();
+        // The refresh itself happens later on the Event Dispatch Thread, together with the ones requested in the
+        // meantime by the other operations of the same batch.
+        coordinator.request(refreshable);
         failed = false;
     }
 }
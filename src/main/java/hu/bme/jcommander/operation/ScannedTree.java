@@ -0,0 +1,18 @@
+package hu.bme.jcommander.operation;
+
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * A file or directory tree as it's been seen by a {@link PreflightScan}, so that it doesn't have to be walked again.
+ *
+ * @param path      the path of the file or directory
+ * @param directory whether it's a directory
+ * @param bytes     the number of bytes in the tree (the size of the file itself for anything but a directory)
+ * @param files     the number of files (anything but directories) in the tree
+ * @param children  the entries of a directory, an empty list for anything else, or null if the directory couldn't be
+ *                  listed (in which case it's not counted in the totals either)
+ */
+record ScannedTree(Path path, boolean directory, long bytes, long files, List<ScannedTree> children) {
+
+}
@@ -0,0 +1,107 @@
+package hu.bme.jcommander.operation;
+
+import java.nio.file.FileStore;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Schedules operations onto virtual threads by the devices (file stores) they work on.
+ *
+ * <p>
+ * Every operation gets a thread of its own right away, which then waits for the fair semaphores of its devices.
+ * Blocking is cheap for virtual threads, so it's the semaphores that limit the number of operations working on the same
+ * device, rather than the size of a pool.
+ * </p>
+ */
+class SemaphoreIoScheduler implements IoScheduler {
+
+    private final Executor executor;
+    private final Map<FileStore, DeviceSemaphore> semaphores = new HashMap<>();
+    private long created = 0;
+
+    /**
+     * Constructs a scheduler.
+     *
+     * @param executor the executor to run the operations on, which is expected to start a virtual thread for every one
+     */
+    SemaphoreIoScheduler(Executor executor) {
+        this.executor = executor;
+    }
+
+    @Override
+    public synchronized void setLimit(FileStore device, int limit) {
+        if (limit <= 0) {
+            throw new IllegalArgumentException("Limit must be positive.");
+        }
+        semaphoreOf(device).resize(limit);
+    }
+
+    private synchronized DeviceSemaphore semaphoreOf(FileStore device) {
+        return semaphores.computeIfAbsent(device, key -> new DeviceSemaphore(created++, DEFAULT_DEVICE_CONCURRENCY));
+    }
+
+    @Override
+    public void schedule(Operation operation, FutureTask<?> task) {
+        executor.execute(() -> {
+            // The semaphores are always acquired in the order of their creation, so two operations can't end up
+            // holding one of each other's devices while waiting for the other one.
+            List<DeviceSemaphore> wanted = IoScheduler.devicesOf(operation.getPaths())
+                    .stream()
+                    .map(this::semaphoreOf)
+                    .sorted(Comparator.comparingLong(DeviceSemaphore::getOrder))
+                    .toList();
+
+            List<DeviceSemaphore> acquired = new ArrayList<>();
+            try {
+                for (DeviceSemaphore semaphore : wanted) {
+                    semaphore.acquire();
+                    acquired.add(semaphore);
+                }
+
+                // A task that's been cancelled while waiting just gives its slots back without running.
+                if (!task.isDone()) {
+                    task.run();
+                }
+            } catch (InterruptedException e) {
+                task.cancel(false);
+                Thread.currentThread().interrupt();
+            } finally {
+                for (DeviceSemaphore semaphore : acquired) {
+                    semaphore.release();
+                }
+            }
+        });
+    }
+
+    private static class DeviceSemaphore extends Semaphore {
+
+        private final long order;
+        private int limit;
+
+        private DeviceSemaphore(long order, int limit) {
+            super(limit, true);
+            this.order = order;
+            this.limit = limit;
+        }
+
+        private long getOrder() {
+            return order;
+        }
+
+        private void resize(int newLimit) {
+            // The permits held by the running operations stay valid, the limit only applies to the ones starting later.
+            if (newLimit > limit) {
+                release(newLimit - limit);
+            } else {
+                reducePermits(limit - newLimit);
+            }
+            limit = newLimit;
+        }
+    }
+}
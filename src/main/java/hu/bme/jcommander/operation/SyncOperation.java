@@ -0,0 +1,334 @@
+package hu.bme.jcommander.operation;
+
+import java.io.IOException;
+import java.nio.file.DirectoryIteratorException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NotDirectoryException;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.TimeUnit;
+
+import static java.nio.file.LinkOption.NOFOLLOW_LINKS;
+
+public class SyncOperation extends CopyOperation {
+
+    private boolean compareContents = false;
+    private boolean deleteOrphans = false;
+    private final Queue<Path> orphans = new ConcurrentLinkedQueue<>();
+
+    /**
+     * Synchronizes a directory into another one in a single direction, so that the target ends up mirroring the source.
+     *
+     * <p>
+     * Only the files that are missing from the target or have changed since they were last synchronized get copied,
+     * along with their modification times. A file counts as changed if its size or its modification time (to the
+     * second) differs from the target's. Symbolic links are mirrored as links, not as what they point to. The two
+     * trees are listed in parallel, directory by directory, so re-syncing a huge tree with only a few changes costs
+     * little more than reading its metadata.
+     * </p>
+     *
+     * @param from the source directory
+     * @param to   the target directory
+     */
+    public SyncOperation(Path from, Path to) {
+        super(from, to);
+    }
+
+    /**
+     * Sets whether the files of the same size are compared by their contents instead of their modification times.
+     * It's slower, as every such file gets read on both sides, but it can't be fooled by the modification times.
+     *
+     * @param compareContents true if the contents are to be compared, false otherwise
+     */
+    public void setCompareContents(boolean compareContents) {
+        this.compareContents = compareContents;
+    }
+
+    /**
+     * Sets whether the files and directories of the target that are missing from the source get deleted.
+     *
+     * @param deleteOrphans true if the orphans are to be deleted, false otherwise
+     */
+    public void setDeleteOrphans(boolean deleteOrphans) {
+        this.deleteOrphans = deleteOrphans;
+    }
+
+    @Override
+    public void run() {
+        if (!Files.isDirectory(from)) {
+            reportError(from, new NotDirectoryException(from.toString()));
+            return;
+        }
+
+        if (from.getFileSystem().equals(to.getFileSystem()) && (to.toAbsolutePath().startsWith(from.toAbsolutePath())
+                || from.toAbsolutePath().startsWith(to.toAbsolutePath()))) {
+            // A directory can't be mirrored into itself or the other way around.
+            reportError(from, new IOException("A directory can't be synchronized with its own subdirectory."));
+            return;
+        }
+
+        if (!checkpoint()) {
+            return;
+        }
+        FileTaskPool.get().invoke(new DirectorySync(from, to));
+
+        // The orphans are only deleted once everything else is in place.
+        if (!orphans.isEmpty() && checkpoint()) {
+            DeleteOperation deletion = new DeleteOperation(orphans.toArray(new Path[0]));
+            deletion.shareState(this);
+            deletion.run();
+        }
+    }
+
+    private static boolean isChanged(BasicFileAttributes sourceAttributes, BasicFileAttributes targetAttributes) {
+        if (targetAttributes.isDirectory() || sourceAttributes.size() != targetAttributes.size()) {
+            return true;
+        }
+
+        // Whole seconds are compared, as not every file system stores the finer parts.
+        return sourceAttributes.lastModifiedTime().to(TimeUnit.SECONDS)
+                != targetAttributes.lastModifiedTime().to(TimeUnit.SECONDS);
+    }
+
+    private static boolean haveSameContents(Path source, Path target) {
+        try {
+            return Files.mismatch(source, target) == -1;
+        } catch (IOException | SecurityException e) {
+            return false; // let the copy find out what's wrong
+        }
+    }
+
+    private class DirectorySync extends RecursiveTask<Boolean> {
+
+        private final Path source;
+        private final Path target;
+
+        private DirectorySync(Path source, Path target) {
+            this.source = source;
+            this.target = target;
+        }
+
+        @Override
+        protected Boolean compute() {
+            // The target is listed on another worker while the source is being listed here.
+            Listing targetListing = new Listing(target);
+            targetListing.fork();
+            Listing sourceListing = new Listing(source);
+            Map<String, BasicFileAttributes> sourceEntries = sourceListing.invoke();
+            Map<String, BasicFileAttributes> targetEntries = targetListing.join();
+            if (sourceEntries == null) {
+                reportError(source, sourceListing.getFailure());
+                return false;
+            }
+
+            if (targetEntries == null) {
+                try {
+                    Files.createDirectories(target);
+                } catch (IOException | SecurityException e) {
+                    reportError(source, e);
+                    return false; // there's nowhere to copy its entries
+                }
+                targetEntries = Map.of();
+            }
+
+            boolean complete = true;
+            List<ForkJoinTask<Boolean>> tasks = new ArrayList<>();
+            for (Map.Entry<String, BasicFileAttributes> entry : sourceEntries.entrySet()) {
+                if (!checkpoint()) {
+                    complete = false;
+                    break; // whatever has been forked so far will stop at its own checkpoint
+                }
+
+                Path sourceEntry = source.resolve(entry.getKey());
+                // The name is resolved as a string, as the target may be on a different file system.
+                Path targetEntry = target.resolve(entry.getKey());
+                BasicFileAttributes sourceAttributes = entry.getValue();
+                BasicFileAttributes targetAttributes = targetEntries.get(entry.getKey());
+
+                if (sourceAttributes.isSymbolicLink()) {
+                    tasks.add(new LinkSync(sourceEntry, targetEntry, targetAttributes).fork());
+                } else if (sourceAttributes.isDirectory()) {
+                    if (targetAttributes != null && !targetAttributes.isDirectory() && !deleteFile(targetEntry)) {
+                        complete = false;
+                        continue;
+                    }
+                    tasks.add(new DirectorySync(sourceEntry, targetEntry).fork());
+                } else if (targetAttributes == null) {
+                    tasks.add(new FileSync(sourceEntry, targetEntry, sourceAttributes, false).fork());
+                } else if (compareContents && !targetAttributes.isDirectory()
+                        && sourceAttributes.size() == targetAttributes.size()) {
+                    // The contents are compared on a worker of their own, as both files have to be read.
+                    tasks.add(new FileSync(sourceEntry, targetEntry, sourceAttributes, true).fork());
+                } else if (isChanged(sourceAttributes, targetAttributes)) {
+                    tasks.add(new FileSync(sourceEntry, targetEntry, sourceAttributes, false).fork());
+                }
+            }
+
+            if (deleteOrphans && complete) {
+                for (String name : targetEntries.keySet()) {
+                    if (!sourceEntries.containsKey(name)) {
+                        orphans.add(target.resolve(name));
+                    }
+                }
+            }
+
+            for (ForkJoinTask<Boolean> task : tasks) {
+                complete &= task.join();
+            }
+            return complete;
+        }
+
+        private boolean deleteFile(Path file) {
+            try {
+                Files.delete(file); // a directory is about to take its place
+                return true;
+            } catch (IOException | SecurityException e) {
+                reportError(file, e);
+                return false;
+            }
+        }
+    }
+
+    private class FileSync extends RecursiveTask<Boolean> {
+
+        private final Path source;
+        private final Path target;
+        private final BasicFileAttributes attributes;
+        private final boolean compareFirst;
+
+        private FileSync(Path source, Path target, BasicFileAttributes attributes, boolean compareFirst) {
+            this.source = source;
+            this.target = target;
+            this.attributes = attributes;
+            this.compareFirst = compareFirst;
+        }
+
+        @Override
+        protected Boolean compute() {
+            if (!checkpoint()) {
+                return false;
+            }
+
+            if (compareFirst && haveSameContents(source, target)) {
+                return true; // it's up-to-date, so it's not even counted in the progress
+            }
+
+            addToTotal(attributes.size(), 1);
+            startedFile(source);
+            try {
+                if (!copyFile(source, target)) {
+                    return false; // it's been cancelled, and the partial target has been deleted
+                }
+                // It's what tells next time that the file hasn't changed since.
+                Files.setLastModifiedTime(target, attributes.lastModifiedTime());
+                return true;
+            } catch (IOException | SecurityException e) {
+                reportError(source, e);
+                return false;
+            } finally {
+                fileDone();
+            }
+        }
+    }
+
+    /**
+     * Mirrors a symbolic link as a link pointing to the same place, instead of copying what it points to. It's
+     * up-to-date if the target is a link with the same destination, as a link's own modification time can't be set.
+     */
+    private class LinkSync extends RecursiveTask<Boolean> {
+
+        private final Path source;
+        private final Path target;
+        private final BasicFileAttributes targetAttributes;
+
+        private LinkSync(Path source, Path target, BasicFileAttributes targetAttributes) {
+            this.source = source;
+            this.target = target;
+            this.targetAttributes = targetAttributes;
+        }
+
+        @Override
+        protected Boolean compute() {
+            if (!checkpoint()) {
+                return false;
+            }
+
+            Path destination;
+            try {
+                destination = Files.readSymbolicLink(source);
+                if (targetAttributes != null && targetAttributes.isSymbolicLink()
+                        && Files.readSymbolicLink(target).toString().equals(destination.toString())) {
+                    return true;
+                }
+            } catch (IOException | SecurityException e) {
+                reportError(source, e);
+                return false;
+            }
+
+            addToTotal(0, 1);
+            startedFile(source);
+            try {
+                if (targetAttributes != null) {
+                    Files.delete(target);
+                }
+                // The destination is converted by its name, as the target may be on a different file system.
+                Files.createSymbolicLink(target, target.getFileSystem().getPath(destination.toString()));
+                return true;
+            } catch (IOException | SecurityException | UnsupportedOperationException e) {
+                reportError(source, e);
+                return false;
+            } finally {
+                fileDone();
+            }
+        }
+    }
+
+    /**
+     * Lists the entries of a directory along with their attributes, keyed by their names.
+     * It results in null if the directory couldn't be listed (e.g.: it doesn't exist).
+     */
+    private static class Listing extends RecursiveTask<Map<String, BasicFileAttributes>> {
+
+        private final Path directory;
+        private Exception failure = null;
+
+        private Listing(Path directory) {
+            this.directory = directory;
+        }
+
+        @Override
+        protected Map<String, BasicFileAttributes> compute() {
+            Map<String, BasicFileAttributes> entries = new HashMap<>();
+            try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory)) {
+                for (Path entry : stream) {
+                    try {
+                        entries.put(entry.getFileName().toString(),
+                                Files.readAttributes(entry, BasicFileAttributes.class, NOFOLLOW_LINKS));
+                    } catch (IOException e) {
+                        // It's disappeared since it's been listed.
+                    }
+                }
+            } catch (IOException | SecurityException e) {
+                failure = e;
+                return null;
+            } catch (DirectoryIteratorException e) {
+                failure = e.getCause();
+                return null;
+            }
+            return entries;
+        }
+
+        private Exception getFailure() {
+            return failure;
+        }
+    }
+}
@@ -0,0 +1,196 @@
+package hu.bme.jcommander.operation;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.Deflater;
+
+/**
+ * Writes a POSIX tar archive compressed into a single gzip member. Names that don't fit into a tar header are
+ * stored in PAX extended headers, and sizes that don't fit are stored in base-256 (as GNU tar does).
+ */
+final class TarGzArchiveWriter implements ArchiveWriter {
+
+    private static final int RECORD_SIZE = 512;
+    private static final int NAME_LENGTH = 100;
+    private static final long MAX_OCTAL_SIZE = 077777777777L;
+
+    private static final byte TYPE_FILE = '0';
+    private static final byte TYPE_DIRECTORY = '5';
+    private static final byte TYPE_PAX_HEADER = 'x';
+    private static final byte[] PAX_HEADER_NAME = "././@PaxHeader".getBytes(StandardCharsets.US_ASCII);
+
+    // ID1, ID2, deflate, no flags, no modification time, no extra flags, unknown OS
+    private static final byte[] GZIP_HEADER = {0x1f, (byte) 0x8b, 8, 0, 0, 0, 0, 0, 0, (byte) 0xff};
+
+    private final OutputStream output;
+    private final ParallelDeflater tar;
+
+    /**
+     * Constructs a TarGzArchiveWriter writing to the given stream.
+     *
+     * @param output the stream to write the archive to
+     * @throws IOException if the output couldn't be written
+     */
+    TarGzArchiveWriter(OutputStream output) throws IOException {
+        this.output = output;
+        output.write(GZIP_HEADER);
+        tar = new ParallelDeflater(output, Deflater.DEFAULT_COMPRESSION);
+    }
+
+    @Override
+    public void putDirectory(String name, BasicFileAttributes attributes) throws IOException {
+        writeHeader(name + "/", TYPE_DIRECTORY, 0755, 0, attributes);
+    }
+
+    @Override
+    public OutputStream putFile(String name, BasicFileAttributes attributes) throws IOException {
+        writeHeader(name, TYPE_FILE, 0644, attributes.size(), attributes);
+        return new EntryStream(name, attributes.size());
+    }
+
+    @Override
+    public boolean hasFixedSizes() {
+        return true; // they're in the headers
+    }
+
+    @Override
+    public void close() throws IOException {
+        try (output) {
+            tar.write(new byte[2 * RECORD_SIZE]); // the end of the archive
+            tar.finish();
+
+            ByteBuffer trailer = ByteBuffer.allocate(8).order(ByteOrder.LITTLE_ENDIAN);
+            trailer.putInt((int) tar.getCrc());
+            trailer.putInt((int) tar.getBytesIn()); // modulo 2^32, as the format says
+            output.write(trailer.array());
+        }
+    }
+
+    @Override
+    public void abort() {
+        tar.abort();
+        try {
+            output.close();
+        } catch (IOException e) {
+            // It's been given up on anyway.
+        }
+    }
+
+    private void writeHeader(String name, byte type, int mode, long size, BasicFileAttributes attributes)
+            throws IOException {
+        byte[] nameBytes = name.getBytes(StandardCharsets.UTF_8);
+        if (nameBytes.length > NAME_LENGTH) {
+            writePaxHeader(nameBytes);
+            nameBytes = Arrays.copyOf(nameBytes, NAME_LENGTH); // it's overridden by the extended header
+        }
+
+        long modified = Math.max(0, attributes.lastModifiedTime().to(TimeUnit.SECONDS));
+        tar.write(header(nameBytes, type, mode, size, modified));
+    }
+
+    private void writePaxHeader(byte[] nameBytes) throws IOException {
+        // A record is "<length> path=<name>\n", where the length counts its own digits as well.
+        int rest = " path=".length() + nameBytes.length + 1;
+        int length = rest;
+        while (length != rest + Integer.toString(length).length()) {
+            length = rest + Integer.toString(length).length();
+        }
+        byte[] record = new byte[length];
+        byte[] prefix = (length + " path=").getBytes(StandardCharsets.US_ASCII);
+        System.arraycopy(prefix, 0, record, 0, prefix.length);
+        System.arraycopy(nameBytes, 0, record, prefix.length, nameBytes.length);
+        record[length - 1] = '\n';
+
+        tar.write(header(PAX_HEADER_NAME, TYPE_PAX_HEADER, 0644, length, 0));
+        tar.write(record);
+        pad(length);
+    }
+
+    private void pad(long size) throws IOException {
+        int remainder = (int) (size % RECORD_SIZE);
+        if (remainder != 0) {
+            tar.write(new byte[RECORD_SIZE - remainder]);
+        }
+    }
+
+    private static byte[] header(byte[] name, byte type, int mode, long size, long modified) {
+        byte[] header = new byte[RECORD_SIZE];
+        System.arraycopy(name, 0, header, 0, name.length);
+        putOctal(header, 100, 8, mode);
+        putOctal(header, 108, 8, 0); // uid
+        putOctal(header, 116, 8, 0); // gid
+        if (size > MAX_OCTAL_SIZE) {
+            header[124] = (byte) 0x80; // base-256, big-endian
+            for (int i = 135; i > 124; i--, size >>>= 8) {
+                header[i] = (byte) size;
+            }
+        } else {
+            putOctal(header, 124, 12, size);
+        }
+        putOctal(header, 136, 12, modified);
+        Arrays.fill(header, 148, 156, (byte) ' '); // the checksum is computed as if it were blank
+        header[156] = type;
+        System.arraycopy("ustar\u000000".getBytes(StandardCharsets.US_ASCII), 0, header, 257, 8);
+
+        int checksum = 0;
+        for (byte b : header) {
+            checksum += b & 0xff;
+        }
+        putOctal(header, 148, 7, checksum);
+        return header;
+    }
+
+    /**
+     * Puts a number into a field as zero-padded octal digits, terminated by a NUL.
+     */
+    private static void putOctal(byte[] header, int offset, int length, long value) {
+        String digits = Long.toOctalString(value);
+        byte[] field = ("0".repeat(length - 1 - digits.length()) + digits).getBytes(StandardCharsets.US_ASCII);
+        System.arraycopy(field, 0, header, offset, field.length);
+        header[offset + length - 1] = 0;
+    }
+
+    private class EntryStream extends OutputStream {
+
+        private final String name;
+        private final long size;
+        private long written = 0;
+
+        private EntryStream(String name, long size) {
+            this.name = name;
+            this.size = size;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[]{(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            if (written + len > size) {
+                throw new IOException(name + " is larger than its header says.");
+            }
+            tar.write(b, off, len);
+            written += len;
+        }
+
+        @Override
+        public void close() throws IOException {
+            // The header has promised this many bytes, so a file that has shrunk in the meantime is padded to fit.
+            byte[] zeros = new byte[RECORD_SIZE];
+            while (written < size) {
+                int length = (int) Math.min(zeros.length, size - written);
+                tar.write(zeros, 0, length);
+                written += length;
+            }
+            pad(size);
+        }
+    }
+}
@@ -1,5 +1,10 @@
 package hu.bme.jcommander.operation;
 
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
 public class ThenOperation extends Operation {
 
     private final Operation operation;
@@ -10,13 +15,38 @@ public class ThenOperation extends Operation {
     ThenOperation(Operation operation, Operation then) {
         this.operation = operation;
         this.then = then;
+
+        // Both operations report to the chain's tracker, so the progress of the chain is the sum of theirs,
+        // and cancelling the chain cancels whichever of them is running.
+        shareState(this);
+    }
+
+    @Override
+    void shareState(Operation owner) {
+        super.shareState(owner);
+        operation.shareState(owner);
+        then.shareState(owner);
+    }
+
+    @Override
+    void setDeviceSlots(DeviceSlots deviceSlots) {
+        super.setDeviceSlots(deviceSlots);
+        operation.setDeviceSlots(deviceSlots);
+        then.setDeviceSlots(deviceSlots);
+    }
+
+    @Override
+    public Collection<Path> getPaths() {
+        List<Path> paths = new ArrayList<>(operation.getPaths());
+        paths.addAll(then.getPaths());
+        return paths;
     }
 
     @Override
     public void run() {
         operation.run();
 
-        if (operation.isFailed()) {
+        if (operation.isFailed() || !checkpoint()) {
             failed = true;
             return;
         }
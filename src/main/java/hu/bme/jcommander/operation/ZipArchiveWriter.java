@@ -0,0 +1,270 @@
+package hu.bme.jcommander.operation;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.Deflater;
+
+/**
+ * Writes a zip archive as a stream: the sizes and the CRC of every file follow its data in a data descriptor
+ * (the same way {@link java.util.zip.ZipOutputStream} does it), and ZIP64 records are only written where the
+ * numbers don't fit into 32 bits.
+ */
+final class ZipArchiveWriter implements ArchiveWriter {
+
+    private static final long ZIP64_LIMIT = 0xFFFFFFFFL;
+    private static final int MAX_ENTRIES = 0xFFFF;
+
+    private static final int LOCAL_HEADER = 0x04034b50;
+    private static final int DATA_DESCRIPTOR = 0x08074b50;
+    private static final int CENTRAL_HEADER = 0x02014b50;
+    private static final int ZIP64_END = 0x06064b50;
+    private static final int ZIP64_LOCATOR = 0x07064b50;
+    private static final int END = 0x06054b50;
+
+    private static final short VERSION = 20;
+    private static final short ZIP64_VERSION = 45;
+    private static final short FLAG_DATA_DESCRIPTOR = 0x0008;
+    private static final short FLAG_UTF8 = 0x0800;
+    private static final short STORED = 0;
+    private static final short DEFLATED = 8;
+    private static final int DIRECTORY_ATTRIBUTE = 0x10; // as MS-DOS knows it
+
+    private final CountingOutputStream output;
+    private final List<Entry> entries = new ArrayList<>();
+    private ParallelDeflater deflater = null;
+
+    /**
+     * Constructs a ZipArchiveWriter writing to the given stream.
+     *
+     * @param output the stream to write the archive to
+     */
+    ZipArchiveWriter(OutputStream output) {
+        this.output = new CountingOutputStream(output);
+    }
+
+    @Override
+    public void putDirectory(String name, BasicFileAttributes attributes) throws IOException {
+        Entry entry = new Entry((name + "/").getBytes(StandardCharsets.UTF_8), true, dosTime(attributes),
+                output.count);
+        writeLocalHeader(entry, STORED, FLAG_UTF8);
+        entries.add(entry);
+    }
+
+    @Override
+    public OutputStream putFile(String name, BasicFileAttributes attributes) throws IOException {
+        Entry entry = new Entry(name.getBytes(StandardCharsets.UTF_8), false, dosTime(attributes), output.count);
+        writeLocalHeader(entry, DEFLATED, (short) (FLAG_UTF8 | FLAG_DATA_DESCRIPTOR));
+        ParallelDeflater entryDeflater = new ParallelDeflater(output, Deflater.DEFAULT_COMPRESSION);
+        deflater = entryDeflater;
+
+        return new FilterOutputStream(entryDeflater) {
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException {
+                entryDeflater.write(b, off, len);
+            }
+
+            @Override
+            public void close() throws IOException {
+                entryDeflater.finish();
+                deflater = null;
+                entry.crc = entryDeflater.getCrc();
+                entry.size = entryDeflater.getBytesIn();
+                entry.compressedSize = entryDeflater.getBytesOut();
+                writeDataDescriptor(entry);
+                entries.add(entry);
+            }
+        };
+    }
+
+    @Override
+    public boolean hasFixedSizes() {
+        return false; // they're written into the data descriptor after the contents
+    }
+
+    @Override
+    public void close() throws IOException {
+        try (output) {
+            long centralDirectoryOffset = output.count;
+            for (Entry entry : entries) {
+                writeCentralHeader(entry);
+            }
+            long centralDirectorySize = output.count - centralDirectoryOffset;
+            writeEnd(centralDirectoryOffset, centralDirectorySize);
+        }
+    }
+
+    @Override
+    public void abort() {
+        if (deflater != null) {
+            deflater.abort();
+        }
+        try {
+            output.close();
+        } catch (IOException e) {
+            // It's been given up on anyway.
+        }
+    }
+
+    private void writeLocalHeader(Entry entry, short method, short flags) throws IOException {
+        ByteBuffer header = littleEndian(30 + entry.name.length);
+        header.putInt(LOCAL_HEADER)
+                .putShort(VERSION)
+                .putShort(flags)
+                .putShort(method)
+                .putInt(entry.dosTime)
+                .putInt(0) // the CRC and the sizes are in the data descriptor (or they're all zeros)
+                .putInt(0)
+                .putInt(0)
+                .putShort((short) entry.name.length)
+                .putShort((short) 0)
+                .put(entry.name);
+        output.write(header.array());
+    }
+
+    private void writeDataDescriptor(Entry entry) throws IOException {
+        boolean zip64 = entry.size >= ZIP64_LIMIT || entry.compressedSize >= ZIP64_LIMIT;
+        ByteBuffer descriptor = littleEndian(zip64 ? 24 : 16);
+        descriptor.putInt(DATA_DESCRIPTOR).putInt((int) entry.crc);
+        if (zip64) {
+            descriptor.putLong(entry.compressedSize).putLong(entry.size);
+        } else {
+            descriptor.putInt((int) entry.compressedSize).putInt((int) entry.size);
+        }
+        output.write(descriptor.array());
+    }
+
+    private void writeCentralHeader(Entry entry) throws IOException {
+        // Only the numbers that don't fit go into the ZIP64 extra field, in this order.
+        List<Long> zip64Fields = new ArrayList<>();
+        for (long value : new long[]{entry.size, entry.compressedSize, entry.offset}) {
+            if (value >= ZIP64_LIMIT) {
+                zip64Fields.add(value);
+            }
+        }
+        int extraLength = zip64Fields.isEmpty() ? 0 : 4 + 8 * zip64Fields.size();
+        short version = zip64Fields.isEmpty() ? VERSION : ZIP64_VERSION;
+        short flags = entry.directory ? FLAG_UTF8 : (short) (FLAG_UTF8 | FLAG_DATA_DESCRIPTOR);
+
+        ByteBuffer header = littleEndian(46 + entry.name.length + extraLength);
+        header.putInt(CENTRAL_HEADER)
+                .putShort(version) // made by
+                .putShort(version) // needed to extract
+                .putShort(flags)
+                .putShort(entry.directory ? STORED : DEFLATED)
+                .putInt(entry.dosTime)
+                .putInt((int) entry.crc)
+                .putInt((int) Math.min(entry.compressedSize, ZIP64_LIMIT))
+                .putInt((int) Math.min(entry.size, ZIP64_LIMIT))
+                .putShort((short) entry.name.length)
+                .putShort((short) extraLength)
+                .putShort((short) 0) // comment length
+                .putShort((short) 0) // disk number
+                .putShort((short) 0) // internal attributes
+                .putInt(entry.directory ? DIRECTORY_ATTRIBUTE : 0)
+                .putInt((int) Math.min(entry.offset, ZIP64_LIMIT))
+                .put(entry.name);
+        if (!zip64Fields.isEmpty()) {
+            header.putShort((short) 0x0001).putShort((short) (8 * zip64Fields.size()));
+            zip64Fields.forEach(header::putLong);
+        }
+        output.write(header.array());
+    }
+
+    private void writeEnd(long centralDirectoryOffset, long centralDirectorySize) throws IOException {
+        if (entries.size() >= MAX_ENTRIES || centralDirectoryOffset >= ZIP64_LIMIT
+                || centralDirectorySize >= ZIP64_LIMIT) {
+            long zip64EndOffset = output.count;
+            ByteBuffer zip64End = littleEndian(56 + 20);
+            zip64End.putInt(ZIP64_END)
+                    .putLong(44) // the size of the rest of the record
+                    .putShort(ZIP64_VERSION)
+                    .putShort(ZIP64_VERSION)
+                    .putInt(0) // this disk
+                    .putInt(0) // the disk of the central directory
+                    .putLong(entries.size())
+                    .putLong(entries.size())
+                    .putLong(centralDirectorySize)
+                    .putLong(centralDirectoryOffset);
+            zip64End.putInt(ZIP64_LOCATOR)
+                    .putInt(0) // the disk of the ZIP64 end record
+                    .putLong(zip64EndOffset)
+                    .putInt(1); // the number of disks
+            output.write(zip64End.array());
+        }
+
+        ByteBuffer end = littleEndian(22);
+        end.putInt(END)
+                .putShort((short) 0) // this disk
+                .putShort((short) 0) // the disk of the central directory
+                .putShort((short) Math.min(entries.size(), MAX_ENTRIES))
+                .putShort((short) Math.min(entries.size(), MAX_ENTRIES))
+                .putInt((int) Math.min(centralDirectorySize, ZIP64_LIMIT))
+                .putInt((int) Math.min(centralDirectoryOffset, ZIP64_LIMIT))
+                .putShort((short) 0); // comment length
+        output.write(end.array());
+    }
+
+    private static ByteBuffer littleEndian(int size) {
+        return ByteBuffer.allocate(size).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    private static int dosTime(BasicFileAttributes attributes) {
+        LocalDateTime time = LocalDateTime.ofInstant(attributes.lastModifiedTime().toInstant(), ZoneId.systemDefault());
+        if (time.getYear() < 1980) {
+            return (1 << 21) | (1 << 16); // the earliest it can tell: 1980-01-01 00:00:00
+        }
+        if (time.getYear() > 2107) {
+            time = LocalDateTime.of(2107, 12, 31, 23, 59, 58);
+        }
+        return (time.getYear() - 1980) << 25 | time.getMonthValue() << 21 | time.getDayOfMonth() << 16
+                | time.getHour() << 11 | time.getMinute() << 5 | time.getSecond() >> 1;
+    }
+
+    private static class Entry {
+
+        private final byte[] name;
+        private final boolean directory;
+        private final int dosTime;
+        private final long offset;
+        private long crc = 0;
+        private long size = 0;
+        private long compressedSize = 0;
+
+        private Entry(byte[] name, boolean directory, int dosTime, long offset) {
+            this.name = name;
+            this.directory = directory;
+            this.dosTime = dosTime;
+            this.offset = offset;
+        }
+    }
+
+    private static class CountingOutputStream extends FilterOutputStream {
+
+        private long count = 0;
+
+        private CountingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            count += len;
+        }
+    }
+}
@@ -1,6 +1,6 @@
 package hu.bme.jcommander.pane;
 
-import java.io.File;
+import java.nio.file.Path;
 
 /**
  * Defines an interface for controllers that support file selections.
@@ -8,9 +8,9 @@ import java.io.File;
 public interface SelectionController extends Controller {
 
     /**
-     * Retrieves the currently selected files.
+     * Retrieves the paths of the currently selected files.
      *
-     * @return An array of selected files.
+     * @return An array of the paths of the selected files.
      */
-    File[] getSelectedFiles();
+    Path[] getSelectedFiles();
 }
@@ -13,7 +13,7 @@ import hu.bme.jcommander.settings.Settings;
 
 import javax.swing.*;
 import java.awt.*;
-import java.io.File;
+import java.nio.file.Path;
 
 public class WorkPane implements SelectionController, SettingChangeListener {
 
@@ -115,13 +115,22 @@ public class WorkPane implements SelectionController, SettingChangeListener {
         return wd.getAbsolutePath();
     }
 
+    /**
+     * Returns the path of the current working directory, which may belong to any file system.
+     *
+     * @return the path of the current working directory, or null if it is the system root
+     */
+    public Path getWorkingDirectory() {
+        return wd.get().getPath();
+    }
+
     /**
      * Returns the selected files in the directory list.
      *
      * @return an array of selected files
      */
     @Override
-    public File[] getSelectedFiles() {
+    public Path[] getSelectedFiles() {
         return list.getSelectedFiles();
     }
 
@@ -2,6 +2,7 @@ package hu.bme.jcommander.pane.directorylist;
 
 import hu.bme.jcommander.ResourceFactory;
 import hu.bme.jcommander.filesystem.Handle;
+import hu.bme.jcommander.filesystem.MountHandle;
 
 import javax.swing.*;
 import java.awt.*;
@@ -16,6 +17,7 @@ public class DirectoryListCellRenderer implements ListCellRenderer<Handle> {
 
         cell.setText(handle.getName());
         cell.setIcon(ResourceFactory.getIcon(handle.getAssociatedIcon()));
+        cell.setToolTipText(handle instanceof MountHandle mount ? mount.describeStore() : null);
 
         return cell;
     }
@@ -1,19 +1,34 @@
 package hu.bme.jcommander.pane.directorylist;
 
 import hu.bme.jcommander.filesystem.Handle;
+import hu.bme.jcommander.filesystem.MountRegistry;
+import hu.bme.jcommander.filesystem.RegularFileHandle;
 import hu.bme.jcommander.pane.SelectionController;
+import hu.bme.jcommander.pane.model.DirectoryLoader;
 import hu.bme.jcommander.pane.model.WorkingDirectory;
+import hu.bme.jcommander.watch.DirectoryChangeListener;
+import hu.bme.jcommander.watch.DirectoryChangedEvent;
+import hu.bme.jcommander.watch.DirectoryWatcher;
 
 import javax.swing.*;
+import java.awt.*;
 import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
-import java.io.File;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
-public class DirectoryListController implements SelectionController {
+public class DirectoryListController implements SelectionController, DirectoryChangeListener {
 
     private final WorkingDirectory wd;
     private final DirectoryListModel directoryModel;
     private final JList<Handle> listView;
+    private Path watchedDirectory = null;
+    private final DirectoryLoader loader = new DirectoryLoader();
 
     public DirectoryListController(WorkingDirectory wd) {
         this.wd = wd;
@@ -33,10 +48,31 @@ public class DirectoryListController implements SelectionController {
                     }
 
                     Handle file = directoryModel.getElementAt(index);
+                    if (file instanceof RegularFileHandle regularFile) {
+                        // Archives (or anything else that a file system provider can open) are browsed just like
+                        // directories, and nothing happens for every other kind of file.
+                        file = regularFile.open();
+                        if (file == null) {
+                            return;
+                        }
+                    }
                     DirectoryListController.this.wd.setTo(file);
                 }
             }
         });
+
+        // The tooltips of the mount points are only asked for while the mouse hovers over them, so the details of
+        // their file stores get loaded on demand.
+        ToolTipManager.sharedInstance().registerComponent(listView);
+        MountRegistry.getInstance().addChangeListener(e -> {
+            if (this.wd.isRoot()) {
+                refresh();
+            }
+        });
+
+        loader.addChangeListener(e -> listView.setCursor(loader.isLoading()
+                ? Cursor.getPredefinedCursor(Cursor.WAIT_CURSOR)
+                : Cursor.getDefaultCursor()));
     }
 
     public JComponent component() {
@@ -45,20 +81,84 @@ public class DirectoryListController implements SelectionController {
 
     @Override
     public void refresh() {
+        // Watching starts before listing, so that no change can slip through in between.
+        watchWorkingDirectory();
         listView.clearSelection();
-        directoryModel.listDirectory(wd.list());
+        directoryModel.listDirectory(new Handle[0]);
+
+        // The directory is read in the background, and the entries get appended to the list in batches as they
+        // arrive, so even the first screen of a huge directory shows up right away. Whatever was still being read
+        // for the previous directory gets cancelled and dropped.
+        loader.load(wd.stream(), directoryModel::add);
+    }
+
+    private void watchWorkingDirectory() {
+        Path directory = wd.get().getPath();
+        if (directory != null && directory.equals(watchedDirectory)) {
+            return;
+        }
+
+        DirectoryWatcher watcher = DirectoryWatcher.getInstance();
+        if (watchedDirectory != null) {
+            watcher.unwatch(watchedDirectory, this);
+        }
+
+        watchedDirectory = directory;
+        if (directory != null && !watcher.watch(directory, this)) {
+            watchedDirectory = null; // the views will only be updated on explicit refreshes
+        }
+    }
+
+    @Override
+    public void directoryChanged(DirectoryChangedEvent event) {
+        if (!event.getDirectory().equals(watchedDirectory)) {
+            return; // a late event of a directory we've already navigated away from
+        }
+
+        if (event.isOverflow()) {
+            refresh();
+            return;
+        }
+
+        // Entries created while the directory was being listed might already be there, so they're removed as well.
+        Set<String> deleted = new HashSet<>();
+        for (Path path : event.getDeleted()) {
+            deleted.add(path.getFileName().toString());
+        }
+        for (Path path : event.getCreated()) {
+            deleted.add(path.getFileName().toString());
+        }
+        directoryModel.remove(deleted);
+
+        Map<String, Handle> modified = new HashMap<>();
+        for (Path path : event.getModified()) {
+            Handle handle = event.getHandle(path);
+            if (handle != null) {
+                modified.put(path.getFileName().toString(), handle);
+            }
+        }
+        directoryModel.replace(modified);
+
+        List<Handle> created = new ArrayList<>();
+        for (Path path : event.getCreated()) {
+            Handle handle = event.getHandle(path);
+            if (handle != null) {
+                created.add(handle);
+            }
+        }
+        directoryModel.add(created);
     }
 
     @Override
-    public File[] getSelectedFiles() {
+    public Path[] getSelectedFiles() {
         if (wd.isRoot()) {
-            return new File[0];
+            return new Path[0];
         }
 
         return listView.getSelectedValuesList()
                 .stream()
-                .map(handle -> new File(handle.getAbsolutePath()))
+                .map(Handle::getPath)
                 .toList()
-                .toArray(new File[0]);
+                .toArray(new Path[0]);
     }
 }
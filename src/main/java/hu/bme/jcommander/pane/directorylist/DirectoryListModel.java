@@ -6,12 +6,18 @@ import javax.swing.*;
 import javax.swing.event.ListDataEvent;
 import javax.swing.event.ListDataListener;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 public class DirectoryListModel implements ListModel<Handle> {
 
     private final List<ListDataListener> listeners = new ArrayList<>();
-    private Handle[] files = new Handle[0];
+    private final List<Handle> files = new ArrayList<>();
+    // The files are all in the same directory, so they're told apart by their names, which the handles keep anyway,
+    // instead of their absolute paths, which would have to be built for every single one of them.
+    private final Set<String> names = new HashSet<>();
 
     /**
      * Actualizes the model's content with the files provided.
@@ -19,24 +25,112 @@ public class DirectoryListModel implements ListModel<Handle> {
      * @param files the files represented by handles
      */
     public void listDirectory(Handle[] files) {
-        this.files = files;
+        this.files.clear();
+        names.clear();
+        for (Handle file : files) {
+            this.files.add(file);
+            names.add(file.getName());
+        }
         notifyAllContentsChanged(new ListDataEvent(this, ListDataEvent.CONTENTS_CHANGED, 0, files.length));
     }
 
+    /**
+     * Appends the files provided to the end of the model's content, skipping the ones that are already present.
+     * This way, a directory can be listed in batches, each appearing as soon as it has been read.
+     *
+     * @param added the files represented by handles
+     */
+    public void add(List<Handle> added) {
+        int first = files.size();
+        for (Handle file : added) {
+            if (names.add(file.getName())) {
+                files.add(file);
+            }
+        }
+
+        if (files.size() > first) {
+            notifyAllIntervalAdded(new ListDataEvent(this, ListDataEvent.INTERVAL_ADDED, first, files.size() - 1));
+        }
+    }
+
+    /**
+     * Removes the files with the given names from the model's content.
+     *
+     * @param removed the names of the files to be removed
+     */
+    public void remove(Set<String> removed) {
+        if (removed.isEmpty()) {
+            return;
+        }
+
+        // The list is compacted in a single pass, and the removed runs are reported from the back,
+        // so that the indices of the runs that are yet to be reported don't shift.
+        List<int[]> runs = new ArrayList<>();
+        int kept = 0;
+        for (int index = 0; index < files.size(); index++) {
+            Handle file = files.get(index);
+            if (!removed.contains(file.getName())) {
+                files.set(kept++, file);
+            } else if (!runs.isEmpty() && runs.get(runs.size() - 1)[1] == index - 1) {
+                runs.get(runs.size() - 1)[1] = index;
+            } else {
+                runs.add(new int[]{index, index});
+            }
+        }
+        files.subList(kept, files.size()).clear();
+        names.removeAll(removed);
+
+        for (int i = runs.size() - 1; i >= 0; i--) {
+            int[] run = runs.get(i);
+            notifyAllIntervalRemoved(new ListDataEvent(this, ListDataEvent.INTERVAL_REMOVED, run[0], run[1]));
+        }
+    }
+
+    /**
+     * Replaces the files that have the same names as the ones provided.
+     *
+     * @param replacements the new handles of the files keyed by their names
+     */
+    public void replace(Map<String, Handle> replacements) {
+        if (replacements.isEmpty()) {
+            return;
+        }
+
+        for (int index = 0; index < files.size(); index++) {
+            Handle replacement = replacements.get(files.get(index).getName());
+            if (replacement != null) {
+                files.set(index, replacement);
+                notifyAllContentsChanged(new ListDataEvent(this, ListDataEvent.CONTENTS_CHANGED, index, index));
+            }
+        }
+    }
+
     private void notifyAllContentsChanged(ListDataEvent e) {
         for (ListDataListener listener : listeners) {
             listener.contentsChanged(e);
         }
     }
 
+    private void notifyAllIntervalAdded(ListDataEvent e) {
+        for (ListDataListener listener : listeners) {
+            listener.intervalAdded(e);
+        }
+    }
+
+    private void notifyAllIntervalRemoved(ListDataEvent e) {
+        for (ListDataListener listener : listeners) {
+            listener.intervalRemoved(e);
+        }
+    }
+
     @Override
     public int getSize() {
-        return files.length;
+        return files.size();
     }
 
     @Override
     public Handle getElementAt(int index) {
-        return files[index];
+        return files.get(index);
     }
 
     @Override
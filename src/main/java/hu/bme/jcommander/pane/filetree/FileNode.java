@@ -6,15 +6,24 @@ import hu.bme.jcommander.filesystem.RenamingException;
 
 import javax.swing.tree.TreeNode;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
 
 public class FileNode implements TreeNode, FsNode {
 
     private final FileNode parent;
-    private final List<FileNode> children = new ArrayList<>();
     private final FileHandle file;
+    // Both of them are only allocated once the children get loaded, as most nodes are leaves or never expanded.
+    private List<FileNode> children = null;
+    // Nodes are keyed by their identity, as the name and the path of their files change when they're renamed.
+    private Map<FileNode, Integer> indices = null;
 
     /**
      * Constructs a FileNode with a pre-known parent node.
@@ -56,18 +65,142 @@ public class FileNode implements TreeNode, FsNode {
     }
 
     /**
-     * Loads the children of this node's underlying file as individual FileNodes.
+     * Loads the children of this node's underlying file as individual FileNodes, unless they're already loaded.
+     * The children are kept until the node gets invalidated, as JTree asks for them many times per repaint.
      */
     public void lazyLoadChildren() {
-        children.clear();
-        for (Handle child : file.getChildren()) {
+        if (children != null) {
+            return;
+        }
+
+        loadChildren(file.getChildren());
+    }
+
+    /**
+     * Loads the given children of this node's underlying file as individual FileNodes, replacing the ones loaded
+     * so far (e.g.: when they have been listed in the background).
+     *
+     * @param files the children of the underlying file
+     */
+    void loadChildren(Handle[] files) {
+        children = new ArrayList<>(files.length);
+        indices = new HashMap<>();
+        for (Handle child : files) {
             children.add(new FileNode((FileHandle) child, this));
         }
+        reindex(0);
+    }
+
+    /**
+     * Drops the loaded children, so that they get listed again the next time they're needed.
+     */
+    public void invalidate() {
+        children = null;
+        indices = null;
+    }
+
+    /**
+     * Tells whether the children of this node have been loaded (and not invalidated since).
+     *
+     * @return true if the children are loaded, false otherwise
+     */
+    public boolean isLoaded() {
+        return children != null;
+    }
+
+    /**
+     * Removes the loaded children whose underlying files currently have the given absolute paths.
+     *
+     * @param removed the absolute paths of the files to be removed
+     * @return the former indices of the removed children in ascending order, mapped to the removed children
+     */
+    Map<Integer, FileNode> removeChildren(Set<String> removed) {
+        Map<Integer, FileNode> removedChildren = new TreeMap<>();
+        int kept = 0;
+        for (int index = 0; index < children.size(); index++) {
+            FileNode child = children.get(index);
+            if (removed.contains(child.file.getAbsolutePath())) {
+                removedChildren.put(index, child);
+                indices.remove(child);
+            } else {
+                children.set(kept++, child);
+            }
+        }
+        children.subList(kept, children.size()).clear();
+
+        if (!removedChildren.isEmpty()) {
+            reindex(removedChildren.keySet().iterator().next());
+        }
+        return removedChildren;
+    }
+
+    /**
+     * Replaces the loaded children whose files have changed their types (e.g.: a file that got replaced by a directory
+     * of the same name) with new nodes for the given files, in place.
+     *
+     * @param modified the files that got modified
+     * @return the indices of the replaced children in ascending order, mapped to the replaced children
+     */
+    Map<Integer, FileNode> replaceChildren(Collection<FileHandle> modified) {
+        Map<String, FileHandle> byName = new HashMap<>();
+        for (FileHandle handle : modified) {
+            byName.put(handle.getName(), handle);
+        }
+
+        Map<Integer, FileNode> replacedChildren = new TreeMap<>();
+        for (int index = 0; index < children.size() && !byName.isEmpty(); index++) {
+            FileNode child = children.get(index);
+            FileHandle handle = byName.remove(child.file.getName());
+            if (handle != null && handle.isLeaf() != child.isLeaf()) {
+                FileNode replacement = new FileNode(handle, this);
+                children.set(index, replacement);
+                indices.remove(child);
+                indices.put(replacement, index);
+                replacedChildren.put(index, child);
+            }
+        }
+        return replacedChildren;
+    }
+
+    /**
+     * Appends new children for the given files, skipping the ones that are already present.
+     *
+     * @param added the files to be added
+     * @return the indices of the added children
+     */
+    int[] appendChildren(Collection<FileHandle> added) {
+        // The children are matched by the current names of their files, as a child may have been renamed since
+        // it's been loaded.
+        Set<String> present = new HashSet<>();
+        for (FileNode child : children) {
+            present.add(child.file.getName());
+        }
+
+        int first = children.size();
+        for (FileHandle handle : added) {
+            if (present.add(handle.getName())) {
+                FileNode child = new FileNode(handle, this);
+                indices.put(child, children.size());
+                children.add(child);
+            }
+        }
+
+        int[] addedIndices = new int[children.size() - first];
+        for (int i = 0; i < addedIndices.length; i++) {
+            addedIndices[i] = first + i;
+        }
+        return addedIndices;
+    }
+
+    private void reindex(int from) {
+        for (int index = from; index < children.size(); index++) {
+            indices.put(children.get(index), index);
+        }
     }
 
     @Override
     public TreeNode getChildAt(int childIndex) {
-        lazyLoadChildren(); // this way we're always updated on the current directory structure
+        lazyLoadChildren();
         return children.get(childIndex);
     }
 
@@ -84,7 +217,9 @@ public class FileNode implements TreeNode, FsNode {
 
     @Override
     public int getIndex(TreeNode node) {
-        return children.indexOf(node);
+        lazyLoadChildren();
+        Integer index = indices.get(node);
+        return index != null ? index : -1;
     }
 
     @Override
@@ -99,23 +234,10 @@ public class FileNode implements TreeNode, FsNode {
 
     @Override
     public Enumeration<? extends TreeNode> children() {
+        lazyLoadChildren();
         return Collections.enumeration(children);
     }
 
-    @Override
-    public int hashCode() {
-        return file.hashCode();
-    }
-
-    @Override
-    public boolean equals(Object obj) {
-        if (!(obj instanceof FileNode node)) {
-            return false;
-        }
-
-        return file.equals(node.file);
-    }
-
     @Override
     public String toString() {
         return file.getName();
@@ -2,6 +2,7 @@ package hu.bme.jcommander.pane.filetree;
 
 import hu.bme.jcommander.ResourceFactory;
 import hu.bme.jcommander.filesystem.Handle;
+import hu.bme.jcommander.filesystem.MountHandle;
 
 import javax.swing.*;
 import javax.swing.tree.DefaultTreeCellRenderer;
@@ -23,6 +24,7 @@ public class FileTreeCellRenderer implements TreeCellRenderer {
         renderer.setIcon(ResourceFactory.getIcon(handle.getAssociatedIcon()));
         renderer.setEnabled(tree.isEnabled());
         renderer.setText(handle.getName());
+        renderer.setToolTipText(handle instanceof MountHandle mount ? mount.describeStore() : null);
 
         return renderer;
     }
@@ -1,22 +1,39 @@
 package hu.bme.jcommander.pane.filetree;
 
+import hu.bme.jcommander.filesystem.FileHandle;
+import hu.bme.jcommander.filesystem.Handle;
+import hu.bme.jcommander.filesystem.MountRegistry;
 import hu.bme.jcommander.pane.SelectionController;
 import hu.bme.jcommander.pane.model.WorkingDirectory;
+import hu.bme.jcommander.watch.DirectoryChangeListener;
+import hu.bme.jcommander.watch.DirectoryChangedEvent;
+import hu.bme.jcommander.watch.DirectoryWatcher;
 
 import javax.swing.*;
+import javax.swing.event.TreeExpansionEvent;
+import javax.swing.event.TreeExpansionListener;
+import javax.swing.event.TreeWillExpandListener;
 import javax.swing.tree.TreeNode;
 import javax.swing.tree.TreePath;
 import javax.swing.tree.TreeSelectionModel;
 import java.io.File;
+import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
 import java.util.regex.Pattern;
 
-public class FileTreeController implements SelectionController {
+public class FileTreeController implements SelectionController, DirectoryChangeListener {
 
     private final WorkingDirectory wd;
     private final FileTreeModel fileSystemModel;
     private final JTree treeView;
+    private final Map<Path, TreePath> watchedNodes = new HashMap<>();
+    private AncestorPrefetcher prefetcher = null;
 
     /**
      * Constructs the controller of a FileTree consisting of the model,
@@ -33,6 +50,15 @@ public class FileTreeController implements SelectionController {
         treeView.getSelectionModel().setSelectionMode(TreeSelectionModel.SINGLE_TREE_SELECTION);
         treeView.setCellRenderer(new FileTreeCellRenderer());
         treeView.setEditable(true);
+        ToolTipManager.sharedInstance().registerComponent(treeView);
+        MountRegistry.getInstance().addChangeListener(e -> {
+            if (fileSystemModel.reloadRoot()) {
+                // The rebuilt tree is collapsed without any collapse events, so the watches of its former nodes have
+                // to be dropped here, and the working directory gets expanded (and watched) again.
+                unwatchAll();
+                refresh();
+            }
+        });
         treeView.addTreeSelectionListener(e -> {
             TreeNode node = (TreeNode) e.getPath().getLastPathComponent();
             if (node == fileSystemModel.getRoot()) {
@@ -42,6 +68,55 @@ public class FileTreeController implements SelectionController {
                 wd.setTo(fileNode.toFile()); // tries to set, and does nothing if handle is not a directory
             }
         });
+        treeView.addTreeWillExpandListener(new TreeWillExpandListener() {
+            @Override
+            public void treeWillExpand(TreeExpansionEvent event) {
+                if (!(event.getPath().getLastPathComponent() instanceof FileNode node)) {
+                    return;
+                }
+
+                // A node expanded for the first time shows up empty, and its children get inserted once they're
+                // listed. The changes that the watcher couldn't report while the node was collapsed get picked up
+                // the same way, through the model, so that the tree's layout cache learns about them as well.
+                if (!node.isLoaded()) {
+                    node.loadChildren(new Handle[0]);
+                }
+                new ChildrenLoader(event.getPath()).execute();
+            }
+
+            @Override
+            public void treeWillCollapse(TreeExpansionEvent event) {
+                // Nothing to do here, the children are kept until the next expansion.
+            }
+        });
+        treeView.addTreeExpansionListener(new TreeExpansionListener() {
+            @Override
+            public void treeExpanded(TreeExpansionEvent event) {
+                if (event.getPath().getLastPathComponent() instanceof FileNode node) {
+                    Path directory = node.toFile().getPath();
+                    if (DirectoryWatcher.getInstance().watch(directory, FileTreeController.this)) {
+                        watchedNodes.put(directory, event.getPath());
+                    }
+                }
+            }
+
+            @Override
+            public void treeCollapsed(TreeExpansionEvent event) {
+                if (event.getPath().getLastPathComponent() instanceof FileNode node) {
+                    Path directory = node.toFile().getPath();
+                    if (watchedNodes.remove(directory) != null) {
+                        DirectoryWatcher.getInstance().unwatch(directory, FileTreeController.this);
+                    }
+                }
+            }
+        });
+    }
+
+    private void unwatchAll() {
+        for (Path directory : watchedNodes.keySet()) {
+            DirectoryWatcher.getInstance().unwatch(directory, this);
+        }
+        watchedNodes.clear();
     }
 
     private static String[] pseudoPathFromString(String absolutePath) {
@@ -64,30 +139,154 @@ public class FileTreeController implements SelectionController {
 
     @Override
     public void refresh() {
+        if (prefetcher != null) {
+            prefetcher.cancel(false);
+            prefetcher = null;
+        }
+
         if (wd.isRoot()) {
             return;
         }
 
+        prefetcher = new AncestorPrefetcher(wd.get());
+        prefetcher.execute();
+    }
+
+    private void expandWorkingDirectory(Map<String, Handle[]> listings) {
         TreeNode leaf = (TreeNode) fileSystemModel.getRoot();
         List<TreeNode> path = new ArrayList<>();
+        path.add(leaf);
         for (String label : pseudoPathFromString(wd.getAbsolutePath())) {
+            // The nodes along the way get reconciled with their freshly prefetched listings, so that an explicit
+            // refresh also picks up the changes that the watcher couldn't report.
+            if (leaf instanceof FileNode node) {
+                Handle[] listed = listings.get(node.getHandle().getAbsolutePath());
+                if (listed != null) {
+                    fileSystemModel.reload(new TreePath(path.toArray()), listed);
+                }
+            }
             for (int idx = 0; idx < leaf.getChildCount(); idx++) {
                 FileNode child = (FileNode) leaf.getChildAt(idx);
                 if (child.toString().equals(label)) {
                     path.add(child);
+                    leaf = child;
                     break;
                 }
             }
         }
 
         TreePath treePath = new TreePath(path.toArray());
-        treeView.expandPath(treePath); // this does not work as of now
+        treeView.expandPath(treePath);
+    }
+
+    /**
+     * Lists the working directory and its ancestors in the background, and hands the listings over to the Event
+     * Dispatch Thread, which only has to apply them to the nodes on its way down to the working directory.
+     */
+    private class AncestorPrefetcher extends SwingWorker<Map<String, Handle[]>, Void> {
+
+        private final Handle directory;
+
+        private AncestorPrefetcher(Handle directory) {
+            this.directory = directory;
+        }
+
+        @Override
+        protected Map<String, Handle[]> doInBackground() {
+            Map<String, Handle[]> listings = new HashMap<>();
+            for (Handle ancestor = directory; ancestor != null && !isCancelled(); ancestor = ancestor.getParent()) {
+                listings.put(ancestor.getAbsolutePath(), ancestor.getChildren());
+            }
+            return listings;
+        }
+
+        @Override
+        protected void done() {
+            // If the working directory has changed in the meantime, then a newer prefetcher is already on its way.
+            if (prefetcher != this) {
+                return;
+            }
+
+            prefetcher = null;
+            try {
+                expandWorkingDirectory(get());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (ExecutionException e) {
+                System.err.println("Couldn't list working directory: " + e.getCause().getMessage());
+            }
+        }
+    }
+
+    /**
+     * Lists the directory of a node in the background, then applies the differences to its children.
+     */
+    private class ChildrenLoader extends SwingWorker<Handle[], Void> {
+
+        private final TreePath path;
+        private final Handle directory;
+
+        private ChildrenLoader(TreePath path) {
+            this.path = path;
+            this.directory = ((FileNode) path.getLastPathComponent()).getHandle();
+        }
+
+        @Override
+        protected Handle[] doInBackground() {
+            return directory.getChildren();
+        }
+
+        @Override
+        protected void done() {
+            try {
+                fileSystemModel.reload(path, get());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (ExecutionException e) {
+                System.err.println("Couldn't list directory: " + e.getCause().getMessage());
+            }
+        }
+    }
+
+    @Override
+    public void directoryChanged(DirectoryChangedEvent event) {
+        TreePath path = watchedNodes.get(event.getDirectory());
+        if (path == null) {
+            return;
+        }
+
+        if (event.isOverflow()) {
+            new ChildrenLoader(path).execute();
+            return;
+        }
+
+        List<FileHandle> created = new ArrayList<>();
+        for (Path entry : event.getCreated()) {
+            if (event.getHandle(entry) instanceof FileHandle handle) {
+                created.add(handle);
+            }
+        }
+
+        Set<String> deleted = new HashSet<>();
+        for (Path entry : event.getDeleted()) {
+            deleted.add(entry.toString());
+        }
+
+        // e.g.: a file that got replaced by a directory of the same name
+        List<FileHandle> modified = new ArrayList<>();
+        for (Path entry : event.getModified()) {
+            if (event.getHandle(entry) instanceof FileHandle handle) {
+                modified.add(handle);
+            }
+        }
+
+        fileSystemModel.applyChanges(path, created, deleted, modified);
     }
 
     @Override
-    public File[] getSelectedFiles() {
+    public Path[] getSelectedFiles() {
         if (wd.isRoot()) {
-            return new File[0];
+            return new Path[0];
         }
 
         // Since the selection mode prohibits the selection of multiple nodes, it is sufficient to query for one
@@ -96,15 +295,13 @@ public class FileTreeController implements SelectionController {
         // If it returns null, nothing is selected.
         TreePath selectionPath = treeView.getSelectionPath();
         if (selectionPath == null) {
-            return new File[0];
+            return new Path[0];
         }
 
         // Extract the underlying file otherwise.
         FileNode node = (FileNode) selectionPath.getLastPathComponent();
-        File file = new File(node.toFile().getAbsolutePath());
-
-        File[] files = new File[1];
-        files[0] = file;
+        Path[] files = new Path[1];
+        files[0] = node.toFile().getPath();
         return files;
     }
 }
@@ -1,5 +1,7 @@
 package hu.bme.jcommander.pane.filetree;
 
+import hu.bme.jcommander.filesystem.FileHandle;
+import hu.bme.jcommander.filesystem.Handle;
 import hu.bme.jcommander.filesystem.RootHandle;
 
 import javax.swing.event.TreeModelEvent;
@@ -8,7 +10,11 @@ import javax.swing.tree.TreeModel;
 import javax.swing.tree.TreeNode;
 import javax.swing.tree.TreePath;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 public class FileTreeModel implements TreeModel {
 
@@ -64,10 +70,121 @@ public class FileTreeModel implements TreeModel {
         listeners.remove(l);
     }
 
+    /**
+     * Enumerates the mount points again, and rebuilds the whole tree if they have changed.
+     *
+     * @return true if the tree has been rebuilt, false otherwise
+     */
+    public boolean reloadRoot() {
+        if (!rootNode.refresh()) {
+            return false;
+        }
+
+        notifyAllStructureChanged(new TreeModelEvent(rootNode, new TreePath(rootNode)));
+        return true;
+    }
+
+    /**
+     * Applies a fresh listing of the directory of the node at the end of the path to its children. If the node's
+     * children haven't been loaded yet, they're simply loaded from the listing, as nobody could have seen them anyway,
+     * otherwise only the differences are applied.
+     *
+     * @param path     the path of the node to be reloaded
+     * @param children the children of the node's directory, listed off the Event Dispatch Thread
+     */
+    public void reload(TreePath path, Handle[] children) {
+        if (!(path.getLastPathComponent() instanceof FileNode node)) {
+            return;
+        }
+
+        if (!node.isLoaded()) {
+            node.loadChildren(children);
+            return;
+        }
+
+        List<FileHandle> listed = new ArrayList<>();
+        Set<String> listedPaths = new HashSet<>();
+        for (Handle child : children) {
+            listed.add((FileHandle) child);
+            listedPaths.add(child.getAbsolutePath());
+        }
+
+        Set<String> gone = new HashSet<>();
+        for (int index = 0; index < node.getChildCount(); index++) {
+            String childPath = ((FileNode) node.getChildAt(index)).getHandle().getAbsolutePath();
+            if (!listedPaths.contains(childPath)) {
+                gone.add(childPath);
+            }
+        }
+
+        applyChanges(path, listed, gone, listed);
+    }
+
+    /**
+     * Applies the changes of a directory to the children of the node at the end of the path,
+     * notifying the listeners of the removed and inserted nodes only.
+     * Nothing happens if the node's children haven't been loaded yet.
+     *
+     * @param path     the path of the node whose directory changed
+     * @param created  the files that appeared in the directory
+     * @param deleted  the absolute paths of the files that disappeared from the directory
+     * @param modified the files that got modified in the directory
+     */
+    public void applyChanges(TreePath path, Collection<FileHandle> created, Set<String> deleted,
+                             Collection<FileHandle> modified) {
+        if (!(path.getLastPathComponent() instanceof FileNode node) || !node.isLoaded()) {
+            return;
+        }
+
+        Map<Integer, FileNode> removed = node.removeChildren(deleted);
+        if (!removed.isEmpty()) {
+            int[] indices = removed.keySet().stream().mapToInt(Integer::intValue).toArray();
+            notifyAllNodesRemoved(new TreeModelEvent(this, path, indices, removed.values().toArray()));
+        }
+
+        // A child whose file has changed its type is announced as removed, then inserted again at the same place.
+        Map<Integer, FileNode> replaced = node.replaceChildren(modified);
+        if (!replaced.isEmpty()) {
+            int[] indices = replaced.keySet().stream().mapToInt(Integer::intValue).toArray();
+            notifyAllNodesRemoved(new TreeModelEvent(this, path, indices, replaced.values().toArray()));
+            Object[] nodes = new Object[indices.length];
+            for (int i = 0; i < indices.length; i++) {
+                nodes[i] = node.getChildAt(indices[i]);
+            }
+            notifyAllNodesInserted(new TreeModelEvent(this, path, indices, nodes));
+        }
+
+        int[] inserted = node.appendChildren(created);
+        if (inserted.length > 0) {
+            Object[] nodes = new Object[inserted.length];
+            for (int i = 0; i < inserted.length; i++) {
+                nodes[i] = node.getChildAt(inserted[i]);
+            }
+            notifyAllNodesInserted(new TreeModelEvent(this, path, inserted, nodes));
+        }
+    }
+
     private void notifyAllNodeChanged(TreeModelEvent e) {
         for (TreeModelListener listener : listeners) {
             listener.treeNodesChanged(e);
         }
     }
 
+    private void notifyAllStructureChanged(TreeModelEvent e) {
+        for (TreeModelListener listener : listeners) {
+            listener.treeStructureChanged(e);
+        }
+    }
+
+    private void notifyAllNodesRemoved(TreeModelEvent e) {
+        for (TreeModelListener listener : listeners) {
+            listener.treeNodesRemoved(e);
+        }
+    }
+
+    private void notifyAllNodesInserted(TreeModelEvent e) {
+        for (TreeModelListener listener : listeners) {
+            listener.treeNodesInserted(e);
+        }
+    }
 }
@@ -5,6 +5,7 @@ import hu.bme.jcommander.filesystem.Handle;
 import hu.bme.jcommander.filesystem.RootHandle;
 
 import javax.swing.tree.TreeNode;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Enumeration;
@@ -27,12 +28,31 @@ public class RootNode implements TreeNode, FsNode {
 
     /**
      * Refreshes the child nodes of the root node.
+     *
+     * @return true if the mount points have changed since the last refresh, false otherwise
      */
-    public void refresh() {
-        children.clear();
+    public boolean refresh() {
+        List<FileNode> mounts = new ArrayList<>();
         for (Handle mount : root.getChildren()) {
-            children.add(new FileNode((FileHandle) mount));
+            mounts.add(new FileNode((FileHandle) mount));
+        }
+
+        // Nodes are only equal to themselves, so the mount points are compared by their paths.
+        if (pathsOf(mounts).equals(pathsOf(children))) {
+            return false; // the existing nodes (and their loaded children) are kept
+        }
+
+        children.clear();
+        children.addAll(mounts);
+        return true;
+    }
+
+    private static List<Path> pathsOf(List<FileNode> nodes) {
+        List<Path> paths = new ArrayList<>(nodes.size());
+        for (FileNode node : nodes) {
+            paths.add(node.getHandle().getPath());
         }
+        return paths;
     }
 
     @Override
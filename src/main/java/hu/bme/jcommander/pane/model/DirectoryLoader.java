@@ -0,0 +1,129 @@
+package hu.bme.jcommander.pane.model;
+
+import hu.bme.jcommander.filesystem.Handle;
+
+import javax.swing.*;
+import javax.swing.event.ChangeEvent;
+import javax.swing.event.ChangeListener;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Loads the children of a directory in the background, off the Event Dispatch Thread.
+ *
+ * <p>
+ * Only one load can be in progress at a time: starting a new one cancels the previous one, so that quickly navigating
+ * through directories never queues up obsolete scans. The batches of a cancelled load are dropped, even if they had
+ * already been read. Every method is meant to be called on the Event Dispatch Thread, and the consumers and listeners
+ * get called there as well.
+ * </p>
+ */
+public class DirectoryLoader {
+
+    private final List<ChangeListener> listeners = new ArrayList<>();
+    private Task current = null;
+
+    /**
+     * Cancels the load in progress (if any), then starts loading the given children.
+     *
+     * @param children the children of the directory, which will only be read on a background thread
+     * @param consumer the consumer of the batches of children, as they get read
+     */
+    public void load(Stream<Handle> children, Consumer<List<Handle>> consumer) {
+        if (current != null) {
+            current.cancel(false);
+        }
+
+        current = new Task(children, consumer);
+        current.execute();
+        notifyAllStateChanged(new ChangeEvent(this));
+    }
+
+    /**
+     * Cancels the load in progress (if any).
+     */
+    public void cancel() {
+        if (current == null) {
+            return;
+        }
+
+        current.cancel(false);
+        current = null;
+        notifyAllStateChanged(new ChangeEvent(this));
+    }
+
+    /**
+     * Tells whether a load is in progress.
+     *
+     * @return true if a directory is being loaded, false otherwise
+     */
+    public boolean isLoading() {
+        return current != null;
+    }
+
+    /**
+     * Adds a ChangeListener to be notified whenever a load starts or finishes.
+     *
+     * @param listener the ChangeListener to be added
+     */
+    public void addChangeListener(ChangeListener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Removes a ChangeListener from the list of listeners.
+     *
+     * @param listener the ChangeListener to be removed
+     */
+    public void removeChangeListener(ChangeListener listener) {
+        listeners.remove(listener);
+    }
+
+    private void notifyAllStateChanged(ChangeEvent e) {
+        for (ChangeListener listener : listeners) {
+            listener.stateChanged(e);
+        }
+    }
+
+    private class Task extends SwingWorker<Void, Handle> {
+
+        private final Stream<Handle> children;
+        private final Consumer<List<Handle>> consumer;
+
+        private Task(Stream<Handle> children, Consumer<List<Handle>> consumer) {
+            this.children = children;
+            this.consumer = consumer;
+        }
+
+        @Override
+        protected Void doInBackground() {
+            // Cancellation is checked between every entry, so an obsolete scan stops right after the entry
+            // it is currently reading, instead of reading the whole directory.
+            try (children) {
+                Iterator<Handle> iterator = children.iterator();
+                while (!isCancelled() && iterator.hasNext()) {
+                    publish(iterator.next());
+                }
+            }
+            return null;
+        }
+
+        @Override
+        protected void process(List<Handle> chunk) {
+            if (current == this) {
+                consumer.accept(chunk);
+            }
+        }
+
+        @Override
+        protected void done() {
+            if (current == this) {
+                current = null;
+                notifyAllStateChanged(new ChangeEvent(DirectoryLoader.this));
+            }
+        }
+    }
+}
@@ -1,15 +1,34 @@
 package hu.bme.jcommander.pane.model;
 
+import hu.bme.jcommander.filesystem.Archives;
 import hu.bme.jcommander.filesystem.Handle;
 import hu.bme.jcommander.filesystem.RootHandle;
 import hu.bme.jcommander.history.HistoryChangeListener;
 import hu.bme.jcommander.history.TrackedObject;
 
 import javax.swing.event.ChangeListener;
+import java.util.stream.Stream;
 
 public class WorkingDirectory {
 
     private final TrackedObject<Handle> trackedDirectory = new TrackedObject<>();
+    private Handle used = null;
+
+    /**
+     * Constructs a WorkingDirectory, which keeps the archive it's in open for as long as it stays there.
+     */
+    public WorkingDirectory() {
+        trackedDirectory.addChangeListener(e -> use(trackedDirectory.get()));
+    }
+
+    private void use(Handle directory) {
+        // The new one is retained first, so that an archive being browsed within doesn't get closed in between.
+        Archives.retain(directory.getPath());
+        if (used != null) {
+            Archives.release(used.getPath());
+        }
+        used = directory;
+    }
 
     /**
      * Resets the working directory to the root directory.
@@ -67,6 +86,15 @@ public class WorkingDirectory {
         trackedDirectory.removeHistoryChangeListener(listener);
     }
 
+    /**
+     * Returns the Handle of the current working directory.
+     *
+     * @return the Handle of the current working directory.
+     */
+    public Handle get() {
+        return trackedDirectory.get();
+    }
+
     /**
      * Returns an array of Handles representing the children of the current working directory.
      *
@@ -76,6 +104,16 @@ public class WorkingDirectory {
         return trackedDirectory.get().getChildren();
     }
 
+    /**
+     * Returns a stream of Handles representing the children of the current working directory as they are read.
+     * The stream should be closed after use.
+     *
+     * @return a stream of Handles representing the children of the current working directory.
+     */
+    public Stream<Handle> stream() {
+        return trackedDirectory.get().streamChildren();
+    }
+
     /**
      * Returns the absolute path of the current working directory.
      *
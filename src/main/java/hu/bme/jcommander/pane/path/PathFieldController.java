@@ -6,7 +6,9 @@ import hu.bme.jcommander.pane.model.WorkingDirectory;
 
 import javax.swing.*;
 import java.awt.*;
-import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
 
 public class PathFieldController implements Controller {
 
@@ -27,12 +29,16 @@ public class PathFieldController implements Controller {
             if (suggestedPath.isBlank()) {
                 wd.resetToRoot();
             } else {
-                File validatorFile = new File(suggestedPath);
-                if (validatorFile.exists() && validatorFile.isDirectory()) {
-                    wd.setTo(new FileHandleBuilder(validatorFile).toFileHandle());
-                } else {
-                    refresh();
+                try {
+                    Path suggested = Path.of(suggestedPath);
+                    if (Files.isDirectory(suggested)) {
+                        wd.setTo(new FileHandleBuilder(suggested).toFileHandle());
+                        return;
+                    }
+                } catch (InvalidPathException ignored) {
+                    // Treated just like a path that doesn't exist.
                 }
+                refresh();
             }
         });
 
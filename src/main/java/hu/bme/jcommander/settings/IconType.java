@@ -4,7 +4,7 @@ package hu.bme.jcommander.settings;
  * Represents a type of icon that is supported in the application.
  */
 public enum IconType {
-    COMPUTER, COPY, DIRECTORY, DISK, FILE, LEFT, MOVE, NEW_DIRECTORY, DELETE, REFRESH, RIGHT, UP;
+    COMPUTER, COPY, DIRECTORY, DISK, FILE, FIND, LEFT, MOVE, NEW_DIRECTORY, DELETE, PACK, REFRESH, RIGHT, SYNC, UP;
 
     @Override
     public String toString() {
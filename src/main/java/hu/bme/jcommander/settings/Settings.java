@@ -8,6 +8,17 @@ import java.util.Properties;
 
 public class Settings {
 
+    /**
+     * The value of {@link Option#COPY_VERIFICATION} when the copies aren't verified at all.
+     */
+    public static final String NO_VERIFICATION = "NONE";
+
+    /**
+     * The value of {@link Option#FILES_PER_DEVICE} when the number of files worked on at the same time on a device
+     * isn't limited.
+     */
+    public static final int UNLIMITED_FILES = 0;
+
     private final File file;
     private final Properties properties = new Properties();
     private final List<SettingChangeListener> settingChangeListeners = new ArrayList<>();
@@ -111,7 +122,10 @@ public class Settings {
      */
     public enum Option {
         SHOW_TREE_VIEW(true),
-        HIGHLIGHT_ACTIVE_PANE(false);
+        HIGHLIGHT_ACTIVE_PANE(false),
+        USE_VIRTUAL_THREADS(false),
+        COPY_VERIFICATION(Settings.NO_VERIFICATION),
+        FILES_PER_DEVICE(Settings.UNLIMITED_FILES);
 
         private final Object defaultValue;
 
@@ -0,0 +1,14 @@
+package hu.bme.jcommander.watch;
+
+import java.util.EventListener;
+
+public interface DirectoryChangeListener extends EventListener {
+
+    /**
+     * A directory change handler that gets called on the Event Dispatch Thread with a coalesced batch of changes
+     * whenever entries of a watched directory get created, deleted or modified.
+     *
+     * @param event the event
+     */
+    void directoryChanged(DirectoryChangedEvent event);
+}
@@ -0,0 +1,97 @@
+package hu.bme.jcommander.watch;
+
+import hu.bme.jcommander.filesystem.Handle;
+
+import java.nio.file.Path;
+import java.util.EventObject;
+import java.util.Map;
+import java.util.Set;
+
+public class DirectoryChangedEvent extends EventObject {
+
+    private final transient Path directory;
+    private final transient Set<Path> created;
+    private final transient Set<Path> deleted;
+    private final transient Set<Path> modified;
+    private final transient Map<Path, Handle> handles;
+    private final boolean overflow;
+
+    /**
+     * Constructs a DirectoryChangedEvent describing a batch of changes in a single directory.
+     *
+     * @param source    the source object that triggered the event
+     * @param directory the directory whose entries changed
+     * @param created   the absolute paths of the entries that got created
+     * @param deleted   the absolute paths of the entries that got deleted
+     * @param modified  the absolute paths of the entries that got modified
+     * @param handles   the handles of the created and modified entries that still existed when the event got built
+     * @param overflow  indicates whether some changes got lost, so the directory has to be listed again
+     */
+    public DirectoryChangedEvent(Object source, Path directory, Set<Path> created, Set<Path> deleted,
+                                 Set<Path> modified, Map<Path, Handle> handles, boolean overflow) {
+        super(source);
+        this.directory = directory;
+        this.created = created;
+        this.deleted = deleted;
+        this.modified = modified;
+        this.handles = handles;
+        this.overflow = overflow;
+    }
+
+    /**
+     * Retrieves the directory whose entries changed.
+     *
+     * @return the directory
+     */
+    public Path getDirectory() {
+        return directory;
+    }
+
+    /**
+     * Retrieves the entries that got created since the last event.
+     *
+     * @return the absolute paths of the created entries
+     */
+    public Set<Path> getCreated() {
+        return created;
+    }
+
+    /**
+     * Retrieves the entries that got deleted since the last event.
+     *
+     * @return the absolute paths of the deleted entries
+     */
+    public Set<Path> getDeleted() {
+        return deleted;
+    }
+
+    /**
+     * Retrieves the entries that got modified since the last event.
+     *
+     * @return the absolute paths of the modified entries
+     */
+    public Set<Path> getModified() {
+        return modified;
+    }
+
+    /**
+     * Retrieves the handle of a created or modified entry. The handles are built (and their attributes are read)
+     * before the event gets delivered, so that the listeners don't have to touch the disk on the Event Dispatch Thread.
+     *
+     * @param entry the absolute path of the entry
+     * @return the handle of the entry, or null if it no longer exists
+     */
+    public Handle getHandle(Path entry) {
+        return handles.get(entry);
+    }
+
+    /**
+     * Indicates whether the file system dropped some of the changes, in which case the deltas are incomplete
+     * and the whole directory has to be listed again.
+     *
+     * @return true if changes got lost, false otherwise
+     */
+    public boolean isOverflow() {
+        return overflow;
+    }
+}
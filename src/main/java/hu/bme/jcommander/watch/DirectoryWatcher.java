@@ -0,0 +1,270 @@
+package hu.bme.jcommander.watch;
+
+import hu.bme.jcommander.filesystem.FileHandleBuilder;
+import hu.bme.jcommander.filesystem.Handle;
+import hu.bme.jcommander.filesystem.ListingCache;
+
+import javax.swing.*;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystem;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import static java.nio.file.StandardWatchEventKinds.*;
+
+/**
+ * Watches directories for changes of their entries and reports them to listeners as coalesced deltas,
+ * so that views can be updated incrementally instead of listing the whole directory again.
+ */
+public class DirectoryWatcher {
+
+    // Events arriving within this window after the first one are delivered together as a single batch.
+    private static final long COALESCING_WINDOW_MILLIS = 100;
+
+    private static DirectoryWatcher instance;
+
+    private final Map<FileSystem, WatchService> services = new HashMap<>();
+    private final Map<Path, Registration> registrations = new HashMap<>();
+    private final Map<WatchKey, Path> watchedDirectories = new HashMap<>();
+
+    private DirectoryWatcher() {
+        // Use getInstance() instead, as there is no point in watching the same directories twice.
+    }
+
+    /**
+     * Retrieves the watcher shared by the whole application.
+     *
+     * @return the watcher
+     */
+    public static synchronized DirectoryWatcher getInstance() {
+        if (instance == null) {
+            instance = new DirectoryWatcher();
+        }
+        return instance;
+    }
+
+    /**
+     * Starts notifying the listener about the changes in the given directory.
+     *
+     * @param directory the directory to be watched
+     * @param listener  the listener to be notified
+     * @return true if the directory is being watched, false if its file system does not support watching it
+     */
+    public synchronized boolean watch(Path directory, DirectoryChangeListener listener) {
+        directory = directory.toAbsolutePath();
+
+        Registration registration = registrations.get(directory);
+        if (registration == null) {
+            try {
+                WatchKey key = directory.register(serviceOf(directory.getFileSystem()),
+                        ENTRY_CREATE, ENTRY_DELETE, ENTRY_MODIFY);
+                registration = new Registration(key);
+                registrations.put(directory, registration);
+                watchedDirectories.put(key, directory);
+                ListingCache.setWatched(directory, true);
+            } catch (IOException | UnsupportedOperationException | SecurityException e) {
+                return false;
+            }
+        }
+
+        registration.listeners.add(listener);
+        return true;
+    }
+
+    /**
+     * Stops notifying the listener about the changes in the given directory.
+     *
+     * @param directory the directory being watched
+     * @param listener  the listener to be removed
+     */
+    public synchronized void unwatch(Path directory, DirectoryChangeListener listener) {
+        directory = directory.toAbsolutePath();
+
+        Registration registration = registrations.get(directory);
+        if (registration == null) {
+            return;
+        }
+
+        registration.listeners.remove(listener);
+        if (registration.listeners.isEmpty()) {
+            registration.key.cancel();
+            registrations.remove(directory);
+            watchedDirectories.remove(registration.key);
+            ListingCache.setWatched(directory, false);
+        }
+    }
+
+    private WatchService serviceOf(FileSystem fileSystem) throws IOException {
+        WatchService service = services.get(fileSystem);
+        if (service == null) {
+            service = fileSystem.newWatchService();
+            services.put(fileSystem, service);
+
+            WatchService watched = service;
+            Thread thread = new Thread(() -> poll(watched), "directory-watcher");
+            thread.setDaemon(true);
+            thread.start();
+        }
+        return service;
+    }
+
+    private void poll(WatchService service) {
+        try {
+            while (true) {
+                Map<Path, Changes> batch = new LinkedHashMap<>();
+
+                // Block until something happens, then keep on collecting for a short while, so that a burst
+                // of thousands of events results in a few batches instead of thousands of separate updates.
+                WatchKey key = service.take();
+                long deadline = System.currentTimeMillis() + COALESCING_WINDOW_MILLIS;
+                while (key != null) {
+                    collect(key, batch);
+
+                    long remaining = deadline - System.currentTimeMillis();
+                    key = remaining > 0 ? service.poll(remaining, TimeUnit.MILLISECONDS) : null;
+                }
+
+                dispatch(batch);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ClosedWatchServiceException ignored) {
+            // Nothing to watch anymore.
+        }
+    }
+
+    private void collect(WatchKey key, Map<Path, Changes> batch) {
+        Path directory;
+        synchronized (this) {
+            directory = watchedDirectories.get(key);
+        }
+
+        List<WatchEvent<?>> events = key.pollEvents();
+        boolean valid = key.reset();
+        if (directory == null) {
+            return; // it has been unwatched in the meantime
+        }
+
+        // The cached attributes of a watched directory are trusted until one of its entries changes, so the listing
+        // is dropped right away instead of once the batch gets dispatched.
+        ListingCache.invalidate(directory);
+
+        Changes changes = batch.computeIfAbsent(directory, d -> new Changes());
+        for (WatchEvent<?> event : events) {
+            if (event.kind() == OVERFLOW) {
+                changes.overflow = true;
+            } else {
+                changes.record(directory.resolve((Path) event.context()), event.kind());
+            }
+        }
+
+        if (!valid) {
+            // The directory itself is gone (or became inaccessible), so the listeners should find out on their own.
+            changes.overflow = true;
+        }
+    }
+
+    private void dispatch(Map<Path, Changes> batch) {
+        for (Map.Entry<Path, Changes> entry : batch.entrySet()) {
+            Path directory = entry.getKey();
+            Changes changes = entry.getValue();
+
+            List<DirectoryChangeListener> listeners;
+            synchronized (this) {
+                Registration registration = registrations.get(directory);
+                if (registration == null) {
+                    continue;
+                }
+                listeners = new ArrayList<>(registration.listeners);
+            }
+
+            // The entries are stat-ed here on the watcher's thread, so only the finished delta is left to the EDT.
+            DirectoryChangedEvent event = changes.toEvent(this, directory);
+            SwingUtilities.invokeLater(() -> {
+                for (DirectoryChangeListener listener : listeners) {
+                    listener.directoryChanged(event);
+                }
+            });
+        }
+    }
+
+    private static class Registration {
+
+        private final WatchKey key;
+        private final List<DirectoryChangeListener> listeners = new ArrayList<>();
+
+        private Registration(WatchKey key) {
+            this.key = key;
+        }
+    }
+
+    private static class Changes {
+
+        private final Map<Path, WatchEvent.Kind<?>> entries = new LinkedHashMap<>();
+        private boolean overflow = false;
+
+        /**
+         * Merges a new event of an entry with the ones already seen within the same batch,
+         * so that only the net effect gets reported.
+         */
+        private void record(Path entry, WatchEvent.Kind<?> kind) {
+            WatchEvent.Kind<?> previous = entries.get(entry);
+            if (previous == null) {
+                entries.put(entry, kind);
+            } else if (previous == ENTRY_CREATE && kind == ENTRY_DELETE) {
+                entries.remove(entry); // it came and went, nobody has to know about it
+            } else if (previous == ENTRY_DELETE && kind == ENTRY_CREATE) {
+                entries.put(entry, ENTRY_MODIFY); // it got replaced
+            } else if (previous != ENTRY_CREATE) {
+                entries.put(entry, kind);
+            }
+        }
+
+        private DirectoryChangedEvent toEvent(Object source, Path directory) {
+            Set<Path> created = new LinkedHashSet<>();
+            Set<Path> deleted = new LinkedHashSet<>();
+            Set<Path> modified = new LinkedHashSet<>();
+            Map<Path, Handle> handles = new HashMap<>();
+            FileHandleBuilder builder = new FileHandleBuilder();
+            for (Map.Entry<Path, WatchEvent.Kind<?>> entry : entries.entrySet()) {
+                if (entry.getValue() == ENTRY_DELETE) {
+                    deleted.add(entry.getKey());
+                    continue;
+                }
+
+                if (entry.getValue() == ENTRY_CREATE) {
+                    created.add(entry.getKey());
+                } else {
+                    modified.add(entry.getKey());
+                }
+                BasicFileAttributes attributes = readAttributes(entry.getKey());
+                if (attributes != null) {
+                    builder.setPath(entry.getKey()).setAttributes(attributes);
+                    handles.put(entry.getKey(), builder.toFileHandle());
+                }
+            }
+            return new DirectoryChangedEvent(source, directory, created, deleted, modified, handles, overflow);
+        }
+
+        private static BasicFileAttributes readAttributes(Path entry) {
+            try {
+                return Files.readAttributes(entry, BasicFileAttributes.class);
+            } catch (IOException | SecurityException e) {
+                return null; // it's already gone again
+            }
+        }
+    }
+}
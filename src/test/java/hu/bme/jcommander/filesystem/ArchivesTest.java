@@ -0,0 +1,65 @@
+package hu.bme.jcommander.filesystem;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ArchivesTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void testLeastRecentlyUsedArchiveGetsClosed() throws IOException {
+        Path first = Archives.open(createArchive("first.zip"));
+        assertNotNull(first);
+        Handle root = new MountHandle(first); // e.g.: kept in the history of a pane
+        for (int i = 0; i < Archives.MAX_OPEN_ARCHIVES; i++) {
+            assertNotNull(Archives.open(createArchive("archive" + i + ".zip")));
+        }
+
+        assertFalse(first.getFileSystem().isOpen());
+        assertEquals(directory.resolve("first.zip"), Archives.containerOf(first.getFileSystem()));
+        assertEquals(0, root.getChildren().length);
+
+        // it gets opened again when it's entered anew
+        Path reopened = Archives.open(directory.resolve("first.zip"));
+        assertTrue(reopened.getFileSystem().isOpen());
+        assertTrue(Files.exists(reopened.resolve("F1.txt")));
+    }
+
+    @Test
+    void testArchiveInUseIsKeptOpenUntilReleased() throws IOException {
+        Path used = Archives.open(createArchive("used.zip"));
+        assertNotNull(used);
+        Archives.retain(used.resolve("F1.txt")); // e.g.: an operation working on one of its files
+        for (int i = 0; i < Archives.MAX_OPEN_ARCHIVES; i++) {
+            assertNotNull(Archives.open(createArchive("archive" + i + ".zip")));
+        }
+
+        assertTrue(used.getFileSystem().isOpen());
+        assertTrue(Files.exists(used.resolve("F1.txt")));
+
+        // the next archive takes its place once it's released, as it's still the least recently used one
+        Archives.release(used.resolve("F1.txt"));
+        assertNotNull(Archives.open(createArchive("next.zip")));
+        assertFalse(used.getFileSystem().isOpen());
+    }
+
+    private Path createArchive(String name) throws IOException {
+        Path archive = directory.resolve(name);
+        try (ZipOutputStream zip = new ZipOutputStream(Files.newOutputStream(archive))) {
+            zip.putNextEntry(new ZipEntry("F1.txt"));
+            zip.write("F1 from archive".getBytes());
+            zip.closeEntry();
+        }
+        return archive;
+    }
+}
@@ -0,0 +1,101 @@
+package hu.bme.jcommander.filesystem;
+
+import com.google.common.jimfs.Configuration;
+import com.google.common.jimfs.Jimfs;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.FileSystem;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DirectoryListingTest {
+
+    private FileSystem fs;
+    private Path directory;
+
+    @BeforeEach
+    void init() throws IOException {
+        fs = Jimfs.newFileSystem(Configuration.unix());
+        directory = fs.getPath("/src");
+        Files.createDirectories(directory.resolve("D1"));
+        Files.writeString(directory.resolve("F1.txt"), "F1 from src");
+        Files.setLastModifiedTime(directory.resolve("F1.txt"), FileTime.fromMillis(1_000_000));
+    }
+
+    @Test
+    void testTypesAndSizesComeFromTheListing() {
+        Map<String, Handle> children = list();
+
+        assertEquals(2, children.size());
+        assertInstanceOf(DirectoryHandle.class, children.get("D1"));
+        assertFalse(children.get("D1").isLeaf());
+        assertInstanceOf(RegularFileHandle.class, children.get("F1.txt"));
+        assertTrue(children.get("F1.txt").isLeaf());
+        assertEquals("F1 from src".length(), ((FileHandle) children.get("F1.txt")).getSize());
+        assertEquals(1_000_000, ((FileHandle) children.get("F1.txt")).getLastModified());
+    }
+
+    @Test
+    void testEntriesAreNotStatedAgainAfterTheListing() throws IOException {
+        Map<String, Handle> children = list();
+
+        // everything the handles tell has been read along with the listing, so they don't notice the changes since
+        Files.writeString(directory.resolve("F1.txt"), "F1 changed since the listing");
+        Files.delete(directory.resolve("F1.txt"));
+        Files.delete(directory.resolve("D1"));
+
+        FileHandle file = (FileHandle) children.get("F1.txt");
+        assertEquals("F1 from src".length(), file.getSize());
+        assertEquals(1_000_000, file.getLastModified());
+        assertFalse(children.get("D1").isLeaf());
+    }
+
+    @Test
+    void testDanglingSymbolicLinkIsDescribedByItself() throws IOException {
+        Files.createSymbolicLink(directory.resolve("dangling"), fs.getPath("/nowhere"));
+
+        Map<String, Handle> children = list();
+
+        assertEquals(3, children.size());
+        assertInstanceOf(RegularFileHandle.class, children.get("dangling"));
+        assertTrue(children.get("dangling").isLeaf());
+        assertEquals(directory.resolve("dangling"), children.get("dangling").getPath());
+    }
+
+    @Test
+    void testStreamedChildrenAreTheSameAsListedOnes() {
+        Handle handle = new FileHandleBuilder(directory).toFileHandle();
+
+        Map<String, Handle> streamed = new HashMap<>();
+        try (Stream<Handle> children = handle.streamChildren()) {
+            children.forEach(child -> streamed.put(child.getName(), child));
+        }
+
+        assertEquals(list().keySet(), streamed.keySet());
+        assertSame(handle, streamed.get("F1.txt").getParent());
+    }
+
+    @Test
+    void testMissingDirectoryHasNoChildren() throws IOException {
+        Handle handle = new FileHandleBuilder(directory.resolve("D1")).toFileHandle();
+        Files.delete(directory.resolve("D1"));
+
+        assertEquals(0, handle.getChildren().length);
+    }
+
+    private Map<String, Handle> list() {
+        Map<String, Handle> children = new HashMap<>();
+        for (Handle child : new FileHandleBuilder(directory).toFileHandle().getChildren()) {
+            children.put(child.getName(), child);
+        }
+        return children;
+    }
+}
@@ -0,0 +1,83 @@
+package hu.bme.jcommander.filesystem;
+
+import com.google.common.jimfs.Configuration;
+import com.google.common.jimfs.Jimfs;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.FileSystem;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Comparator;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FileHandleBuilderTest {
+
+    private FileSystem fs;
+
+    @BeforeEach
+    void init() throws IOException {
+        fs = Jimfs.newFileSystem(Configuration.unix());
+        Files.createDirectories(fs.getPath("/src/D1"));
+        Files.writeString(fs.getPath("/src/F1.txt"), "F1 from src");
+    }
+
+    @Test
+    void testMountPoint() {
+        Handle handle = new FileHandleBuilder(fs.getPath("/")).toFileHandle();
+
+        assertInstanceOf(MountHandle.class, handle);
+        assertEquals("/", handle.getName());
+        assertInstanceOf(RootHandle.class, handle.getParent());
+    }
+
+    @Test
+    void testListingOfAnotherFileSystem() {
+        Handle directory = new FileHandleBuilder(fs.getPath("/src")).toFileHandle();
+        assertInstanceOf(DirectoryHandle.class, directory);
+
+        Handle[] children = directory.getChildren();
+        Arrays.sort(children, Comparator.comparing(Handle::getName));
+
+        assertEquals(2, children.length);
+        assertInstanceOf(DirectoryHandle.class, children[0]);
+        assertEquals("D1", children[0].getName());
+        assertInstanceOf(RegularFileHandle.class, children[1]);
+        assertEquals("F1.txt", children[1].getName());
+        assertEquals("F1 from src".length(), ((FileHandle) children[1]).getSize());
+        assertSame(fs, children[1].getPath().getFileSystem());
+        assertEquals("/src", children[1].getParent().getAbsolutePath());
+    }
+
+    @Test
+    void testRename() throws RenamingException {
+        Path renamed = fs.getPath("/src/F2.txt");
+        Handle file = new FileHandleBuilder(fs.getPath("/src/F1.txt")).toFileHandle();
+
+        file.rename("F2.txt");
+
+        assertEquals(renamed, file.getPath());
+        assertTrue(Files.exists(renamed));
+        assertThrows(RenamingException.class, () -> file.rename("D1"));
+    }
+
+    @Test
+    void testListedHandlesShareTheirDirectory() throws RenamingException {
+        Handle directory = new FileHandleBuilder(fs.getPath("/src")).toFileHandle();
+        Handle[] children = directory.getChildren();
+        Arrays.sort(children, Comparator.comparing(Handle::getName));
+
+        assertSame(directory, children[0].getParent());
+        assertSame(directory, children[1].getParent());
+        assertEquals(fs.getPath("/src/F1.txt"), children[1].getPath());
+
+        children[1].rename("F2.txt");
+
+        assertEquals("F2.txt", children[1].getName());
+        assertEquals(fs.getPath("/src/F2.txt"), children[1].getPath());
+        assertTrue(Files.exists(fs.getPath("/src/F2.txt")));
+    }
+}
@@ -0,0 +1,110 @@
+package hu.bme.jcommander.filesystem;
+
+import hu.bme.jcommander.watch.DirectoryChangeListener;
+import hu.bme.jcommander.watch.DirectoryWatcher;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ListingCacheTest {
+
+    @TempDir
+    Path directory;
+
+    private Handle handle;
+
+    @BeforeEach
+    void init() throws IOException {
+        Files.createFile(directory.resolve("F1.txt"));
+        Files.createDirectory(directory.resolve("D1"));
+        age(directory, 2);
+
+        ListingCache.clear();
+        handle = new FileHandleBuilder(directory.toFile()).toFileHandle();
+    }
+
+    @Test
+    void testRepeatedListingIsServedFromMemory() {
+        long hits = ListingCache.getHits();
+        long misses = ListingCache.getMisses();
+
+        assertEquals(2, handle.getChildren().length);
+        assertEquals(2, handle.getChildren().length);
+
+        assertEquals(misses + 1, ListingCache.getMisses());
+        assertEquals(hits + 1, ListingCache.getHits());
+    }
+
+    @Test
+    void testModifiedDirectoryIsListedAgain() throws IOException {
+        assertEquals(2, handle.getChildren().length);
+
+        Files.createFile(directory.resolve("F2.txt"));
+        age(directory, 1);
+
+        long misses = ListingCache.getMisses();
+        assertEquals(3, handle.getChildren().length);
+        assertEquals(misses + 1, ListingCache.getMisses());
+    }
+
+    @Test
+    void testCachedAttributesOfUnwatchedDirectoryExpire() throws IOException, InterruptedException {
+        assertEquals(0, sizeOf("F1.txt"));
+
+        // writing to an entry doesn't change the directory's modification time
+        FileTime listedAt = Files.getLastModifiedTime(directory);
+        Files.writeString(directory.resolve("F1.txt"), "F1 from directory");
+        Files.setLastModifiedTime(directory, listedAt);
+        Thread.sleep(ListingCache.ATTRIBUTES_TTL_MILLIS + 100);
+
+        long hits = ListingCache.getHits();
+        assertEquals("F1 from directory".length(), sizeOf("F1.txt"));
+        assertEquals(hits + 1, ListingCache.getHits());
+    }
+
+    @Test
+    void testWatchedDirectoryGetsFreshAttributesOnModification() throws IOException, InterruptedException {
+        DirectoryChangeListener listener = event -> {
+        };
+        assertTrue(DirectoryWatcher.getInstance().watch(directory, listener));
+        try {
+            assertEquals(0, sizeOf("F1.txt"));
+
+            FileTime listedAt = Files.getLastModifiedTime(directory);
+            Files.writeString(directory.resolve("F1.txt"), "F1 from directory");
+            Files.setLastModifiedTime(directory, listedAt);
+
+            long deadline = System.currentTimeMillis() + 5_000;
+            while (sizeOf("F1.txt") != "F1 from directory".length() && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+            assertEquals("F1 from directory".length(), sizeOf("F1.txt"));
+        } finally {
+            DirectoryWatcher.getInstance().unwatch(directory, listener);
+        }
+    }
+
+    private long sizeOf(String name) {
+        for (Handle child : handle.getChildren()) {
+            if (child.getName().equals(name)) {
+                return ((FileHandle) child).getSize();
+            }
+        }
+        throw new AssertionError(name + " hasn't been listed.");
+    }
+
+    private static void age(Path path, int hours) throws IOException {
+        // freshly modified directories are never cached, so the tests have to pretend that some time has passed
+        Files.setLastModifiedTime(path, FileTime.from(Instant.now().minus(hours, ChronoUnit.HOURS)));
+    }
+}
@@ -0,0 +1,55 @@
+package hu.bme.jcommander.filesystem;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MountRegistryTest {
+
+    @Test
+    void testMountsAreTheRootDirectories() {
+        List<Path> expected = new ArrayList<>();
+        FileSystems.getDefault().getRootDirectories().forEach(expected::add);
+
+        List<Path> actual = new ArrayList<>();
+        for (Handle mount : new RootHandle().getChildren()) {
+            assertTrue(mount instanceof MountHandle);
+            actual.add(mount.getPath());
+        }
+
+        assertEquals(expected, actual);
+    }
+
+    @Test
+    void testRootHandlesAreEqual() {
+        assertEquals(new RootHandle(), new RootHandle());
+        assertEquals(new RootHandle().hashCode(), new RootHandle().hashCode());
+    }
+
+    @Test
+    void testStoreInfoIsLoadedInTheBackground() throws InterruptedException {
+        MountHandle mount = (MountHandle) new RootHandle().getChildren()[0];
+
+        MountInfo info = mount.getStoreInfo();
+        for (int attempt = 0; info == null && attempt < 50; attempt++) {
+            Thread.sleep(100);
+            info = mount.getStoreInfo();
+        }
+
+        assertNotNull(info);
+        assertTrue(info.totalSpace() >= info.usableSpace());
+    }
+
+    @Test
+    void testDescription() {
+        MountInfo info = new MountInfo("ext4", 100L * 1024 * 1024 * 1024, 1536L * 1024 * 1024);
+        assertEquals(String.format("ext4 - %.1f GB free of %.1f GB", 1.5, 100.0), info.describe());
+    }
+}
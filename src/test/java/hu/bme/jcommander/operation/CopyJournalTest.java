@@ -0,0 +1,139 @@
+package hu.bme.jcommander.operation;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CopyJournalTest extends FileSystemTest {
+
+    private static final int LARGE_FILE_SIZE = 3 * (int) CopyOperation.LARGE_FILE_THRESHOLD;
+
+    private Path journals;
+    private Path srcLarge;
+    private byte[] largeContent;
+
+    @BeforeEach
+    void initJournals() throws IOException {
+        journals = fs.getPath("/journals");
+
+        srcLarge = srcD1.resolve("large.bin");
+        largeContent = new byte[LARGE_FILE_SIZE];
+        new Random(42).nextBytes(largeContent);
+        Files.write(srcLarge, largeContent);
+        Files.writeString(srcD1.resolve("F1.txt"), "F1 from D1");
+    }
+
+    @Test
+    void testRecordsAreReadBack() throws IOException {
+        CopyJournal journal = CopyJournal.create(journals, "Copy", srcD1, dstD1);
+        journal.fileDone(srcD1.resolve("F1.txt"));
+        journal.progress(srcLarge, 1024);
+        journal.close(); // as if the application died
+
+        List<Path> left = CopyJournal.list(journals);
+        assertEquals(1, left.size());
+
+        CopyJournal readBack = CopyJournal.open(left.get(0));
+        assertEquals("Copy", readBack.getKind());
+        assertEquals(srcD1, readBack.getFrom());
+        assertEquals(dstD1, readBack.getTo());
+        assertTrue(readBack.isDone(srcD1.resolve("F1.txt")));
+        assertEquals(1024, readBack.getOffset(srcLarge));
+        assertEquals(0, readBack.getOffset(srcD1.resolve("F1.txt")));
+    }
+
+    @Test
+    void testTornRecordIsIgnored() throws IOException {
+        CopyJournal journal = CopyJournal.create(journals, "Copy", srcD1, dstD1);
+        journal.progress(srcLarge, 1024);
+        journal.close();
+        Path file = CopyJournal.list(journals).get(0);
+        Files.writeString(file, "P 2048 large.b", StandardOpenOption.APPEND);
+
+        CopyJournal readBack = CopyJournal.open(file);
+        assertEquals(1024, readBack.getOffset(srcLarge));
+
+        // The torn record gets overwritten by the next one.
+        readBack.fileDone(srcLarge);
+        readBack.close();
+        assertTrue(CopyJournal.open(file).isDone(srcLarge));
+    }
+
+    @Test
+    void testUnusedJournalIsNeverWritten() {
+        CopyOperation op = new CopyOperation(srcF1, dstF1);
+        op.setJournal(CopyJournal.create(journals, "Copy", srcF1, dstF1));
+        op.run();
+        assertFalse(op.isFailed());
+
+        assertTrue(CopyJournal.list(journals).isEmpty());
+    }
+
+    @Test
+    void testResumeSkipsDoneFilesAndContinuesPartialFile() throws IOException {
+        // The first run died after copying F1.txt and the first part of the large file.
+        Files.createDirectory(dstD1);
+        Files.writeString(dstD1.resolve("F1.txt"), "F1 copied before");
+        long offset = CopyOperation.LARGE_FILE_THRESHOLD;
+        Files.write(dstD1.resolve("large.bin"), Arrays.copyOf(largeContent, (int) offset));
+        CopyJournal journal = CopyJournal.create(journals, "Copy", srcD1, dstD1);
+        journal.fileDone(srcD1.resolve("F1.txt"));
+        journal.progress(srcLarge, offset);
+        journal.close();
+
+        FileOperation op = OperationExecutor.resumed(CopyJournal.open(CopyJournal.list(journals).get(0)));
+        assertNotNull(op);
+        op.run();
+        assertFalse(op.isFailed());
+
+        assertEquals("F1 copied before", Files.readString(dstD1.resolve("F1.txt")));
+        assertArrayEquals(largeContent, Files.readAllBytes(dstD1.resolve("large.bin")));
+        assertTrue(CopyJournal.list(journals).isEmpty());
+    }
+
+    @Test
+    void testResumeRestartsFileWithWrongPrefix() throws IOException {
+        Files.createDirectory(dstD1);
+        long offset = CopyOperation.LARGE_FILE_THRESHOLD;
+        Files.write(dstD1.resolve("large.bin"), new byte[(int) offset]); // it's never made it to the disk
+        CopyJournal journal = CopyJournal.create(journals, "Copy", srcD1, dstD1);
+        journal.progress(srcLarge, offset);
+        journal.close();
+
+        FileOperation op = OperationExecutor.resumed(CopyJournal.open(CopyJournal.list(journals).get(0)));
+        assertNotNull(op);
+        op.run();
+        assertFalse(op.isFailed());
+
+        assertArrayEquals(largeContent, Files.readAllBytes(dstD1.resolve("large.bin")));
+        assertEquals("F1 from D1", Files.readString(dstD1.resolve("F1.txt")));
+    }
+
+    @Test
+    void testCancelledFileIsNotJournaledAsDone() {
+        CopyJournal journal = CopyJournal.create(journals, "Copy", srcLarge, dstF1);
+        CopyOperation op = new CopyOperation(srcLarge, dstF1) {
+            @Override
+            protected void chunkCopied(Path source, long bytes) {
+                super.chunkCopied(source, bytes);
+                cancel();
+            }
+        };
+        op.setChunkSize(CopyOperation.LARGE_FILE_THRESHOLD);
+        op.setJournal(journal);
+        op.run();
+        assertTrue(op.isFailed());
+
+        assertFalse(journal.isDone(srcLarge));
+        assertEquals(CopyOperation.LARGE_FILE_THRESHOLD, journal.getOffset(srcLarge));
+    }
+}
@@ -3,7 +3,14 @@ package hu.bme.jcommander.operation;
 import org.junit.jupiter.api.Test;
 
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.TimeUnit;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.junit.jupiter.api.Assumptions.assumeFalse;
@@ -56,4 +63,226 @@ class CopyOperationTest extends FileSystemTest {
         assertTrue(Files.exists(srcD1));
         assertTrue(Files.exists(dstD1));
     }
+
+    @Test
+    void testCopyDirectoryRecursively() throws IOException {
+        Path nested = srcD1.resolve("nested");
+        Files.createDirectory(nested);
+        for (int i = 0; i < 100; i++) {
+            Files.writeString(srcD1.resolve("F" + i + ".txt"), "F" + i + " from src");
+            Files.writeString(nested.resolve("N" + i + ".txt"), "N" + i + " from src");
+        }
+
+        CopyOperation op = new CopyOperation(srcD1, dstD1);
+        op.run();
+        assertFalse(op.isFailed());
+
+        Path dstNested = dstD1.resolve("nested");
+        assertTrue(Files.isDirectory(dstNested));
+        for (int i = 0; i < 100; i++) {
+            assertEquals("F" + i + " from src", Files.readString(dstD1.resolve("F" + i + ".txt")));
+            assertEquals("N" + i + " from src", Files.readString(dstNested.resolve("N" + i + ".txt")));
+        }
+    }
+
+    @Test
+    void testCopyScannedDirectory() throws IOException {
+        Files.writeString(srcD1.resolve("F1.txt"), "F1 from D1");
+        Files.createDirectory(srcD1.resolve("D1"));
+        Files.writeString(srcD1.resolve("D1").resolve("F1.txt"), "F1 from D1/D1");
+        PreflightScan scan = new PreflightScan(List.of(srcD1), dstDir, false);
+        assumeTrue(scan.run());
+
+        CopyOperation op = new CopyOperation(srcD1, dstD1);
+        op.setScannedTree(scan.getTree(srcD1));
+        op.run();
+        assertFalse(op.isFailed());
+
+        assertEquals("F1 from D1", Files.readString(dstD1.resolve("F1.txt")));
+        assertEquals("F1 from D1/D1", Files.readString(dstD1.resolve("D1").resolve("F1.txt")));
+        assertEquals(scan.getBytes(), op.getProgress().bytesTotal());
+        assertEquals(2, op.getProgress().filesTotal());
+    }
+
+    @Test
+    void testVerifiedCopy() throws IOException {
+        byte[] content = new byte[(int) (2 * CopyOperation.LARGE_FILE_THRESHOLD + 42)];
+        new Random(42).nextBytes(content);
+        Files.write(srcF1, content);
+
+        for (ChecksumAlgorithm algorithm : ChecksumAlgorithm.values()) {
+            CopyOperation op = new CopyOperation(srcF1, dstF2);
+            op.setVerification(algorithm);
+            op.run();
+            assertFalse(op.isFailed());
+
+            assertArrayEquals(content, Files.readAllBytes(dstF2));
+            assertEquals(content.length, op.getProgress().bytesDone());
+        }
+    }
+
+    @Test
+    void testVerifiedCopyReportsMismatch() {
+        CopyOperation op = new CopyOperation(srcF1, dstF1) {
+            @Override
+            protected void chunkCopied(Path source, long bytes) {
+                try {
+                    Files.writeString(dstF1, "F1 gone bad"); // as if the device had corrupted it
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+        };
+        op.setVerification(ChecksumAlgorithm.CRC32C);
+        op.run();
+        assertTrue(op.isFailed());
+
+        assertInstanceOf(ChecksumMismatchException.class, op.getErrors().get(srcF1));
+    }
+
+    @Test
+    void testCopyDirectoryIntoItself() {
+        CopyOperation op = new CopyOperation(srcDir, srcD1.resolve("src"));
+
+        op.run();
+        assertTrue(op.isFailed());
+        assertTrue(op.getErrors().containsKey(srcDir));
+
+        assertFalse(Files.exists(srcD1.resolve("src")));
+    }
+
+    @Test
+    void testCopyLargeFileInChunks() throws IOException {
+        byte[] content = new byte[(int) (3 * CopyOperation.LARGE_FILE_THRESHOLD + 42)];
+        new Random(42).nextBytes(content);
+        Files.write(srcF1, content);
+
+        List<Long> chunks = new ArrayList<>();
+        CopyOperation op = new CopyOperation(srcF1, dstF2) {
+            @Override
+            protected void chunkCopied(Path source, long bytes) {
+                chunks.add(bytes);
+            }
+        };
+        op.setChunkSize(CopyOperation.LARGE_FILE_THRESHOLD);
+
+        op.run();
+        assertFalse(op.isFailed());
+
+        assertArrayEquals(content, Files.readAllBytes(dstF2));
+        assertEquals(4, chunks.size());
+        assertEquals(content.length, chunks.stream().mapToLong(Long::longValue).sum());
+    }
+
+    @Test
+    void testProgressOfChain() throws IOException {
+        Files.writeString(srcD1.resolve("F1.txt"), "F1 from D1");
+        Files.writeString(srcD1.resolve("F2.txt"), "F2 from D1");
+
+        Operation op = new CopyOperation(srcD1, dstD1).then(new CopyOperation(srcF1, dstF1));
+        op.run();
+        assertFalse(op.isFailed());
+
+        Progress progress = op.getProgress();
+        long bytes = "F1 from D1".length() + "F2 from D1".length() + "F1 from src".length();
+        assertEquals(bytes, progress.bytesTotal());
+        assertEquals(bytes, progress.bytesDone());
+        assertEquals(3, progress.filesTotal());
+        assertEquals(3, progress.filesDone());
+        assertEquals(srcF1, progress.currentFile());
+        assertEquals(1.0, progress.fraction());
+    }
+
+    @Test
+    void testCancelDuringLargeFileRemovesPartialTarget() throws IOException {
+        Files.write(srcF1, new byte[(int) (3 * CopyOperation.LARGE_FILE_THRESHOLD)]);
+
+        CopyOperation op = new CopyOperation(srcF1, dstF1) {
+            @Override
+            protected void chunkCopied(Path source, long bytes) {
+                super.chunkCopied(source, bytes);
+                cancel();
+            }
+        };
+        op.setChunkSize(CopyOperation.LARGE_FILE_THRESHOLD);
+
+        op.run();
+        assertTrue(op.isFailed());
+
+        assertFalse(Files.exists(dstF1));
+        assertEquals(CopyOperation.LARGE_FILE_THRESHOLD, op.getProgress().bytesDone());
+    }
+
+    @Test
+    void testCancelledVerifiedCopyIsNotTakenAsCopied() throws IOException {
+        Files.write(srcF1, new byte[(int) (3 * CopyOperation.LARGE_FILE_THRESHOLD)]);
+
+        List<Path> copied = new ArrayList<>();
+        CopyOperation op = new CopyOperation(srcF1, dstF1) {
+            @Override
+            protected void chunkCopied(Path source, long bytes) {
+                super.chunkCopied(source, bytes);
+                cancel();
+            }
+
+            @Override
+            protected void fileCopied(Path source) {
+                copied.add(source);
+            }
+        };
+        op.setVerification(ChecksumAlgorithm.CRC32C);
+
+        op.run();
+        assertTrue(op.isFailed());
+
+        assertFalse(Files.exists(dstF1));
+        assertTrue(copied.isEmpty());
+    }
+
+    @Test
+    void testPausedCopyDoesNotHoldUpOtherOperations() throws Exception {
+        byte[] content = new byte[(int) (4 * CopyOperation.LARGE_FILE_THRESHOLD)];
+        for (int i = 0; i < 2 * FileTaskPool.MAX_CONCURRENT_FILES; i++) {
+            Files.write(srcD1.resolve("F" + i + ".bin"), content);
+        }
+        Files.writeString(srcD2.resolve("F1.txt"), "F1 from D2");
+
+        CopyOperation copy = new CopyOperation(srcD1, dstD1);
+        copy.setChunkSize(4 * 1024);
+        Thread copier = new Thread(copy);
+        copier.start();
+        // It's paused in the middle of its large files, so its tasks stop on every worker of the pool.
+        while (!Files.exists(dstD1.resolve("F0.bin")) && copier.isAlive()) {
+            Thread.onSpinWait();
+        }
+        copy.pause();
+
+        // The deletion runs on the pool as well, and it's only polled, so it can't be helped along from here.
+        DeleteOperation delete = new DeleteOperation(new Path[]{srcD2});
+        ForkJoinTask<?> deletion = FileTaskPool.get().submit(delete);
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!deletion.isDone() && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        boolean deletedWhilePaused = deletion.isDone();
+
+        copy.resume();
+        copier.join();
+        deletion.join();
+        assertTrue(deletedWhilePaused);
+        assertFalse(delete.isFailed());
+        assertFalse(copy.isFailed());
+        assertFalse(Files.exists(srcD2));
+    }
+
+    @Test
+    void testCancelledDirectoryCopyDoesNothing() {
+        CopyOperation op = new CopyOperation(srcD1, dstD1);
+        op.cancel();
+
+        op.run();
+        assertTrue(op.isFailed());
+
+        assertFalse(Files.exists(dstD1));
+    }
 }
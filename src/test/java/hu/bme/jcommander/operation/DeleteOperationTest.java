@@ -2,10 +2,14 @@ package hu.bme.jcommander.operation;
 
 import org.junit.jupiter.api.Test;
 
+import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.Set;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assumptions.assumeTrue;
 
 class DeleteOperationTest extends FileSystemTest {
@@ -43,6 +47,38 @@ class DeleteOperationTest extends FileSystemTest {
         assertFilesNotExist(paths);
     }
 
+    @Test
+    void testDeleteRecursively() throws IOException {
+        Path nested = srcD1.resolve("nested");
+        Files.createDirectory(nested);
+        for (int i = 0; i < 100; i++) {
+            Files.writeString(srcD1.resolve("F" + i + ".txt"), "F" + i);
+            Files.writeString(nested.resolve("N" + i + ".txt"), "N" + i);
+        }
+
+        Path[] paths = {srcD1, srcF1};
+        DeleteOperation op = new DeleteOperation(paths);
+
+        op.run();
+        assertFalse(op.isFailed());
+        assertTrue(op.getErrors().isEmpty());
+        assertFilesNotExist(paths);
+        assertEquals(203, op.getProgress().filesDone());
+    }
+
+    @Test
+    void testDeleteReportsErrorsPerPath() {
+        Path missing = srcDir.resolve("missing");
+        Path[] paths = {srcD1, missing, srcD2};
+        DeleteOperation op = new DeleteOperation(paths);
+
+        op.run();
+        assertTrue(op.isFailed());
+        assertEquals(Set.of(missing), op.getErrors().keySet());
+        assertFilesNotExist(paths);
+        assertEquals(op.getProgress().filesTotal(), op.getProgress().filesDone());
+    }
+
     private static void assumeFilesExist(Path[] paths) {
         for (Path path : paths) {
             assumeTrue(Files.exists(path));
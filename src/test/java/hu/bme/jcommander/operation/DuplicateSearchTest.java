@@ -0,0 +1,69 @@
+package hu.bme.jcommander.operation;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DuplicateSearchTest extends FileSystemTest {
+
+    @Test
+    void testIdenticalFilesAreGrouped() throws IOException {
+        Path copy = srcD1.resolve("F1 copy.txt");
+        Files.writeString(copy, Files.readString(srcF1));
+        Files.writeString(srcD1.resolve("other.txt"), "F1 from SRC"); // same size, different contents
+
+        DuplicateSearch search = new DuplicateSearch(new Path[]{srcDir});
+        search.run();
+        assertFalse(search.isFailed());
+
+        List<DuplicateGroup> duplicates = search.getDuplicates();
+        assertEquals(1, duplicates.size());
+        assertEquals(Set.of(srcF1, copy), Set.copyOf(duplicates.get(0).files()));
+        assertEquals(Files.size(srcF1), duplicates.get(0).reclaimableBytes());
+    }
+
+    @Test
+    void testLargeFilesDifferingInTheMiddleAreNotGrouped() throws IOException {
+        byte[] content = new byte[8 * DuplicateSearch.PARTIAL_BYTES];
+        new Random(42).nextBytes(content);
+        Files.write(srcD1.resolve("a.bin"), content);
+        Files.write(srcD1.resolve("b.bin"), content);
+        content[content.length / 2]++;
+        Files.write(srcD1.resolve("c.bin"), content);
+
+        DuplicateSearch search = new DuplicateSearch(new Path[]{srcD1});
+        search.run();
+        assertFalse(search.isFailed());
+
+        List<DuplicateGroup> duplicates = search.getDuplicates();
+        assertEquals(1, duplicates.size());
+        assertEquals(Set.of(srcD1.resolve("a.bin"), srcD1.resolve("b.bin")), Set.copyOf(duplicates.get(0).files()));
+        // Only the three files sharing their first and last bytes have been read completely.
+        assertEquals(3L * content.length, search.getProgress().bytesTotal());
+    }
+
+    @Test
+    void testGroupsAreOrderedByReclaimableBytes() throws IOException {
+        for (String name : List.of("x1", "x2", "x3")) {
+            Files.writeString(srcD1.resolve(name), "x");
+        }
+        for (String name : List.of("y1", "y2")) {
+            Files.writeString(srcD1.resolve(name), "yyyyyyyyyy");
+        }
+
+        DuplicateSearch search = new DuplicateSearch(new Path[]{srcD1});
+        search.run();
+
+        List<DuplicateGroup> duplicates = search.getDuplicates();
+        assertEquals(2, duplicates.size());
+        assertEquals(10, duplicates.get(0).reclaimableBytes());
+        assertEquals(2, duplicates.get(1).reclaimableBytes());
+    }
+}
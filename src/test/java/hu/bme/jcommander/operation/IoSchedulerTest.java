@@ -0,0 +1,106 @@
+package hu.bme.jcommander.operation;
+
+import com.google.common.jimfs.Configuration;
+import com.google.common.jimfs.Jimfs;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.FileSystem;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+abstract class IoSchedulerTest extends FileSystemTest {
+
+    private final IoScheduler scheduler = createScheduler();
+
+    /**
+     * Creates the scheduler to be tested.
+     *
+     * @return the scheduler
+     */
+    abstract IoScheduler createScheduler();
+
+    @Test
+    void testSameDeviceIsLimited() throws IOException, InterruptedException {
+        scheduler.setLimit(Files.getFileStore(srcDir), 1);
+
+        BlockingOperation first = new BlockingOperation(srcF1);
+        BlockingOperation second = new BlockingOperation(dstF2);
+        scheduler.schedule(first, new FutureTask<>(first, null));
+        scheduler.schedule(second, new FutureTask<>(second, null));
+
+        // Whichever gets its device first, the other one has to wait for it.
+        BlockingOperation running = awaitEither(first, second);
+        BlockingOperation waiting = running == first ? second : first;
+        assertFalse(waiting.started.await(100, TimeUnit.MILLISECONDS));
+
+        running.release.countDown();
+        assertTrue(waiting.started.await(1, TimeUnit.SECONDS));
+        waiting.release.countDown();
+    }
+
+    @Test
+    void testIndependentDevicesRunInParallel() throws IOException, InterruptedException {
+        scheduler.setLimit(Files.getFileStore(srcDir), 1);
+
+        try (FileSystem other = Jimfs.newFileSystem(Configuration.unix())) {
+            BlockingOperation first = new BlockingOperation(srcF1);
+            BlockingOperation second = new BlockingOperation(other.getPath("/"));
+            scheduler.schedule(first, new FutureTask<>(first, null));
+            scheduler.schedule(second, new FutureTask<>(second, null));
+
+            assertTrue(first.started.await(1, TimeUnit.SECONDS));
+            assertTrue(second.started.await(1, TimeUnit.SECONDS));
+
+            first.release.countDown();
+            second.release.countDown();
+        }
+    }
+
+    private static BlockingOperation awaitEither(BlockingOperation first, BlockingOperation second)
+            throws InterruptedException {
+        for (int attempt = 0; attempt < 100; attempt++) {
+            if (first.started.await(10, TimeUnit.MILLISECONDS)) {
+                return first;
+            }
+            if (second.started.await(10, TimeUnit.MILLISECONDS)) {
+                return second;
+            }
+        }
+        throw new AssertionError("Neither of the operations has started.");
+    }
+
+    private static class BlockingOperation extends Operation {
+
+        private final Path path;
+        private final CountDownLatch started = new CountDownLatch(1);
+        private final CountDownLatch release = new CountDownLatch(1);
+
+        private BlockingOperation(Path path) {
+            this.path = path;
+        }
+
+        @Override
+        public Collection<Path> getPaths() {
+            return List.of(path);
+        }
+
+        @Override
+        public void run() {
+            started.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
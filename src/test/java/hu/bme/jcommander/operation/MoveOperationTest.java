@@ -1,9 +1,15 @@
 package hu.bme.jcommander.operation;
 
+import com.google.common.jimfs.Configuration;
+import com.google.common.jimfs.Jimfs;
 import org.junit.jupiter.api.Test;
 
 import java.io.IOException;
+import java.nio.file.FileSystem;
 import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.junit.jupiter.api.Assumptions.assumeFalse;
@@ -64,4 +70,66 @@ class MoveOperationTest extends FileSystemTest {
         assertFalse(Files.exists(srcD1));
         assertTrue(Files.exists(dstD1));
     }
+
+    @Test
+    void testMoveDirectoryToAnotherFileSystem() throws IOException {
+        Files.writeString(srcD1.resolve("F1.txt"), "F1 from D1");
+        Path target;
+        try (FileSystem other = Jimfs.newFileSystem(Configuration.unix())) {
+            target = other.getPath("/D1");
+            MoveOperation op = new MoveOperation(srcD1, target);
+
+            op.run();
+            assertFalse(op.isFailed());
+
+            assertFalse(Files.exists(srcD1));
+            assertEquals("F1 from D1", Files.readString(target.resolve("F1.txt")));
+        }
+    }
+
+    @Test
+    void testPartialMoveKeepsWhatIsLeft() throws IOException {
+        Files.writeString(srcD1.resolve("F1.txt"), "F1 from D1");
+        Files.writeString(srcD1.resolve("F2.txt"), "F2 from D1");
+        try (FileSystem other = Jimfs.newFileSystem(Configuration.unix())) {
+            Path target = other.getPath("/D1");
+            // F2.txt can't replace a non-empty directory, so it has to stay where it is.
+            Files.createDirectories(target.resolve("F2.txt").resolve("blocker"));
+            MoveOperation op = new MoveOperation(srcD1, target);
+
+            op.run();
+            assertTrue(op.isFailed());
+
+            assertEquals(Set.of(srcD1.resolve("F2.txt")), op.getErrors().keySet());
+            assertFalse(Files.exists(srcD1.resolve("F1.txt")));
+            assertEquals("F1 from D1", Files.readString(target.resolve("F1.txt")));
+            assertEquals("F2 from D1", Files.readString(srcD1.resolve("F2.txt")));
+        }
+    }
+
+    @Test
+    void testCancelledMoveToAnotherFileSystemKeepsSource() throws Exception {
+        byte[] content = new byte[(int) (16 * CopyOperation.LARGE_FILE_THRESHOLD)];
+        new Random(42).nextBytes(content);
+        Files.write(srcF1, content);
+        try (FileSystem other = Jimfs.newFileSystem(Configuration.unix())) {
+            Path target = other.getPath("/F1.txt");
+            MoveOperation op = new MoveOperation(srcF1, target);
+            op.setChunkSize(16 * 1024);
+
+            Thread mover = new Thread(op);
+            mover.start();
+            // The move is held as soon as the target shows up, so it gets cancelled halfway for sure.
+            while (!Files.exists(target) && mover.isAlive()) {
+                Thread.onSpinWait();
+            }
+            op.pause();
+            op.cancel();
+            mover.join();
+            assertTrue(op.isFailed());
+
+            assertArrayEquals(content, Files.readAllBytes(srcF1));
+            assertFalse(Files.exists(target));
+        }
+    }
 }
@@ -0,0 +1,167 @@
+package hu.bme.jcommander.operation;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OperationExecutorTest extends FileSystemTest {
+
+    private final OperationExecutor executor = new OperationExecutor();
+
+    @Test
+    void testSubmit() throws InterruptedException, IOException {
+        OperationHandle handle = executor.submit(new CopyOperation(srcF1, dstF1), "Copy F1.txt");
+
+        handle.await();
+        assertTrue(handle.isDone());
+        assertFalse(handle.isFailed());
+        assertTrue(executor.getActiveOperations().isEmpty());
+
+        assertEquals(Files.readString(srcF1), Files.readString(dstF1));
+    }
+
+    @Test
+    void testSubmitOnVirtualThreads() throws InterruptedException, IOException {
+        OperationExecutor virtual = new OperationExecutor(ExecutionMode.VIRTUAL_THREADS);
+        OperationHandle handle = virtual.submit(new CopyOperation(srcF1, dstF1), "Copy F1.txt");
+
+        handle.await();
+        assertFalse(handle.isFailed());
+        assertTrue(virtual.getActiveOperations().isEmpty());
+
+        assertEquals(Files.readString(srcF1), Files.readString(dstF1));
+    }
+
+    @Test
+    void testCancelPausedOperation() throws InterruptedException {
+        Operation operation = new NewDirectoryOperation(dstD1);
+        operation.pause();
+
+        OperationHandle handle = executor.submit(operation, "New Directory");
+        assertTrue(handle.isPaused());
+
+        handle.cancel();
+        handle.await();
+        assertTrue(handle.isDone());
+        assertTrue(handle.isFailed());
+
+        assertFalse(Files.exists(dstD1));
+    }
+
+    @Test
+    void testResumePausedOperation() throws InterruptedException {
+        Operation operation = new NewDirectoryOperation(dstD1);
+        operation.pause();
+
+        OperationHandle handle = executor.submit(operation, "New Directory");
+        Thread.sleep(50);
+        assertFalse(Files.exists(dstD1));
+
+        handle.resume();
+        handle.await();
+        assertFalse(handle.isFailed());
+
+        assertTrue(Files.exists(dstD1));
+    }
+
+    @Test
+    void testDeviceLimitHoldsForTheFilesOfASingleOperation() throws InterruptedException, IOException {
+        for (int i = 0; i < 2 * FileTaskPool.MAX_CONCURRENT_FILES; i++) {
+            Files.writeString(srcD1.resolve("F" + i + ".txt"), "F" + i);
+        }
+        executor.setDeviceConcurrency(Files.getFileStore(srcDir), 1);
+
+        ConcurrencyProbe probe = new ConcurrencyProbe();
+        OperationHandle handle = executor.submit(new ProbedCopy(srcD1, dstD1, probe), "Copy D1");
+        handle.await();
+        assertFalse(handle.isFailed());
+
+        assertEquals(1, probe.max.get());
+        assertEquals("F0", Files.readString(dstD1.resolve("F0.txt")));
+    }
+
+    @Test
+    void testFilesPerDeviceAreNotLimitedByDefault() throws InterruptedException, IOException {
+        for (int i = 0; i < 2 * FileTaskPool.MAX_CONCURRENT_FILES; i++) {
+            Files.writeString(srcD1.resolve("F" + i + ".txt"), "F" + i);
+        }
+
+        ConcurrencyProbe probe = new ConcurrencyProbe();
+        OperationHandle handle = executor.submit(new ProbedCopy(srcD1, dstD1, probe), "Copy D1");
+        handle.await();
+        assertFalse(handle.isFailed());
+
+        assertTrue(probe.max.get() > 1);
+    }
+
+    @Test
+    void testFilesPerDeviceLimitHoldsForEveryDevice() throws InterruptedException, IOException {
+        for (int i = 0; i < 2 * FileTaskPool.MAX_CONCURRENT_FILES; i++) {
+            Files.writeString(srcD1.resolve("F" + i + ".txt"), "F" + i);
+        }
+        executor.setFilesPerDevice(1);
+
+        ConcurrencyProbe probe = new ConcurrencyProbe();
+        OperationHandle handle = executor.submit(new ProbedCopy(srcD1, dstD1, probe), "Copy D1");
+        handle.await();
+        assertFalse(handle.isFailed());
+
+        assertEquals(1, probe.max.get());
+    }
+
+    @Test
+    void testDeviceLimitHoldsWithinABatch() throws InterruptedException, IOException {
+        executor.setDeviceConcurrency(Files.getFileStore(srcDir), 1);
+
+        ConcurrencyProbe probe = new ConcurrencyProbe();
+        OperationGraph batch = new OperationGraph();
+        batch.add(new ProbedCopy(srcF1, dstF1, probe));
+        batch.add(new ProbedCopy(dstF2, srcD1.resolve("F2.txt"), probe));
+        OperationHandle handle = executor.submit(batch, "Copy 2 item(s)");
+        handle.await();
+        assertFalse(handle.isFailed());
+
+        assertEquals(1, probe.max.get());
+        assertEquals("F2 from dst", Files.readString(srcD1.resolve("F2.txt")));
+    }
+
+    /**
+     * Keeps track of the number of files being copied at the same time.
+     */
+    private static class ConcurrencyProbe {
+
+        private final AtomicInteger current = new AtomicInteger();
+        private final AtomicInteger max = new AtomicInteger();
+    }
+
+    /**
+     * A copy that lingers on every file, so that the ones copied at the same time surely overlap.
+     */
+    private static class ProbedCopy extends CopyOperation {
+
+        private final ConcurrencyProbe probe;
+
+        private ProbedCopy(Path from, Path to, ConcurrencyProbe probe) {
+            super(from, to);
+            this.probe = probe;
+        }
+
+        @Override
+        protected void chunkCopied(Path source, long bytes) {
+            probe.max.accumulateAndGet(probe.current.incrementAndGet(), Math::max);
+            try {
+                Thread.sleep(20);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                probe.current.decrementAndGet();
+            }
+            super.chunkCopied(source, bytes);
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package hu.bme.jcommander.operation;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OperationGraphTest extends FileSystemTest {
+
+    @Test
+    void testDirectoryIsCreatedBeforeCopiesIntoIt() throws IOException {
+        Files.writeString(srcD1.resolve("F1.txt"), "F1 from D1");
+
+        OperationGraph graph = new OperationGraph();
+        Operation mkdir = graph.add(new NewDirectoryOperation(dstD1));
+        graph.add(new CopyOperation(srcF1, dstD1.resolve("F1.txt")), mkdir);
+        graph.add(new CopyOperation(srcD1.resolve("F1.txt"), dstD1.resolve("F2.txt")), mkdir);
+        graph.run();
+        assertFalse(graph.isFailed());
+
+        assertEquals("F1 from src", Files.readString(dstD1.resolve("F1.txt")));
+        assertEquals("F1 from D1", Files.readString(dstD1.resolve("F2.txt")));
+    }
+
+    @Test
+    void testFailureOnlyPropagatesToDependents() {
+        AtomicBoolean dependentRan = new AtomicBoolean(false);
+        AtomicBoolean independentRan = new AtomicBoolean(false);
+        AtomicBoolean finallyRan = new AtomicBoolean(false);
+
+        OperationGraph graph = new OperationGraph();
+        Operation failing = graph.add(new CopyOperation(srcDir.resolve("missing.txt"), dstF1));
+        Operation dependent = graph.add(new FlagOperation(dependentRan), failing);
+        Operation independent = graph.add(new FlagOperation(independentRan));
+        graph.addFinally(new FlagOperation(finallyRan), dependent, independent);
+        graph.run();
+
+        assertTrue(graph.isFailed());
+        assertFalse(dependentRan.get());
+        assertTrue(independentRan.get());
+        assertTrue(finallyRan.get());
+    }
+
+    @Test
+    void testIndependentOperationsRunConcurrently() {
+        // Neither of them can end unless the other one is running at the same time.
+        CountDownLatch bothRunning = new CountDownLatch(2);
+        OperationGraph graph = new OperationGraph();
+        graph.add(new RendezvousOperation(bothRunning));
+        graph.add(new RendezvousOperation(bothRunning));
+        graph.run();
+
+        assertFalse(graph.isFailed());
+    }
+
+    @Test
+    void testDependenciesHaveToBeAddedFirst() {
+        OperationGraph graph = new OperationGraph();
+        assertThrows(IllegalArgumentException.class,
+                () -> graph.add(new FlagOperation(new AtomicBoolean()), new NewDirectoryOperation(dstD1)));
+    }
+
+    @Test
+    void testCancelledGraphRunsNothing() {
+        AtomicBoolean ran = new AtomicBoolean(false);
+        OperationGraph graph = new OperationGraph();
+        graph.add(new FlagOperation(ran));
+        graph.cancel();
+        graph.run();
+
+        assertTrue(graph.isFailed());
+        assertFalse(ran.get());
+    }
+
+    private static class FlagOperation extends Operation {
+
+        private final AtomicBoolean ran;
+
+        private FlagOperation(AtomicBoolean ran) {
+            this.ran = ran;
+        }
+
+        @Override
+        public void run() {
+            ran.set(true);
+        }
+    }
+
+    private static class RendezvousOperation extends Operation {
+
+        private final CountDownLatch latch;
+
+        private RendezvousOperation(CountDownLatch latch) {
+            this.latch = latch;
+        }
+
+        @Override
+        public void run() {
+            latch.countDown();
+            try {
+                failed = !latch.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                failed = true;
+            }
+        }
+    }
+}
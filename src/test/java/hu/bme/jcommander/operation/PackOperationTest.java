@@ -0,0 +1,230 @@
+package hu.bme.jcommander.operation;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PackOperationTest extends FileSystemTest {
+
+    // Large enough to be compressed in several parallel blocks, and partly compressible.
+    private static final int LARGE_FILE_SIZE = 5 * ParallelDeflater.BLOCK_SIZE + 123;
+
+    private byte[] largeContent;
+
+    @BeforeEach
+    void initFiles() throws IOException {
+        largeContent = new byte[LARGE_FILE_SIZE];
+        new Random(42).nextBytes(largeContent);
+        for (int i = 0; i < largeContent.length / 2; i++) {
+            largeContent[i] = (byte) (i % 61);
+        }
+        Files.write(srcD1.resolve("large.bin"), largeContent);
+        Files.writeString(srcD1.resolve("F1.txt"), "F1 from D1");
+    }
+
+    @Test
+    void testPackIntoZip() throws IOException {
+        Path archive = dstDir.resolve("packed.zip");
+        PackOperation op = new PackOperation(new Path[]{srcF1, srcD1}, archive, ArchiveFormat.ZIP);
+        op.run();
+        assertFalse(op.isFailed());
+
+        Map<String, byte[]> entries = new HashMap<>();
+        try (ZipInputStream zip = new ZipInputStream(Files.newInputStream(archive))) {
+            ZipEntry entry;
+            while ((entry = zip.getNextEntry()) != null) {
+                entries.put(entry.getName(), zip.readAllBytes());
+            }
+        }
+
+        assertEquals("F1 from src", new String(entries.get("F1.txt"), StandardCharsets.UTF_8));
+        assertEquals("F1 from D1", new String(entries.get("D1/F1.txt"), StandardCharsets.UTF_8));
+        assertArrayEquals(largeContent, entries.get("D1/large.bin"));
+        assertTrue(entries.containsKey("D1/"));
+        assertEquals(LARGE_FILE_SIZE + "F1 from src".length() + "F1 from D1".length(),
+                op.getProgress().bytesDone());
+    }
+
+    @Test
+    void testPackIntoTarGz() throws IOException {
+        String longName = "a".repeat(120) + ".txt"; // doesn't fit into a tar header
+        Files.writeString(srcD1.resolve(longName), "long");
+
+        Path archive = dstDir.resolve("packed.tar.gz");
+        PackOperation op = new PackOperation(new Path[]{srcD1}, archive, ArchiveFormat.TAR_GZ);
+        op.run();
+        assertFalse(op.isFailed());
+
+        Map<String, byte[]> entries;
+        try (InputStream tar = new GZIPInputStream(Files.newInputStream(archive))) {
+            entries = readTar(tar);
+        }
+
+        assertArrayEquals(largeContent, entries.get("D1/large.bin"));
+        assertEquals("F1 from D1", new String(entries.get("D1/F1.txt"), StandardCharsets.UTF_8));
+        assertEquals("long", new String(entries.get("D1/" + longName), StandardCharsets.UTF_8));
+        assertTrue(entries.containsKey("D1/"));
+    }
+
+    @Test
+    void testArchiveInsidePackedDirectoryIsLeftOut() throws IOException {
+        Path archive = srcD1.resolve("packed.zip");
+        PackOperation op = new PackOperation(new Path[]{srcD1}, archive, ArchiveFormat.ZIP);
+        op.run();
+        assertFalse(op.isFailed());
+
+        try (ZipInputStream zip = new ZipInputStream(Files.newInputStream(archive))) {
+            ZipEntry entry;
+            while ((entry = zip.getNextEntry()) != null) {
+                assertNotEquals("D1/packed.zip", entry.getName());
+            }
+        }
+    }
+
+    @Test
+    void testCancelledArchiveIsDeleted() {
+        Path archive = dstDir.resolve("packed.zip");
+        PackOperation op = new PackOperation(new Path[]{srcD1}, archive, ArchiveFormat.ZIP);
+        op.cancel();
+        op.run();
+        assertTrue(op.isFailed());
+
+        assertFalse(Files.exists(archive));
+    }
+
+    @Test
+    void testFileGrowingWhilePackedIsCutOffAtItsWalkedSize() throws IOException {
+        Path large = srcD1.resolve("large.bin");
+        Path archive = dstDir.resolve("packed.tar.gz");
+        PackOperation op = new ResizingPack(srcD1, archive, large, () -> {
+            Files.write(large, new byte[1000], StandardOpenOption.APPEND);
+        });
+        op.run();
+
+        Map<String, byte[]> entries;
+        try (InputStream tar = new GZIPInputStream(Files.newInputStream(archive))) {
+            entries = readTar(tar);
+        }
+        assertArrayEquals(largeContent, entries.get("D1/large.bin"));
+        assertEquals("F1 from D1", new String(entries.get("D1/F1.txt"), StandardCharsets.UTF_8));
+        assertEquals(Set.of(large), op.getErrors().keySet());
+    }
+
+    @Test
+    void testFileShrinkingWhilePackedIsPaddedWithZeros() throws IOException {
+        Path large = srcD1.resolve("large.bin");
+        Path archive = dstDir.resolve("packed.tar.gz");
+        int shrunkSize = LARGE_FILE_SIZE / 2;
+        PackOperation op = new ResizingPack(srcD1, archive, large, () -> {
+            try (FileChannel channel = FileChannel.open(large, StandardOpenOption.WRITE)) {
+                channel.truncate(shrunkSize);
+            }
+        });
+        op.run();
+
+        Map<String, byte[]> entries;
+        try (InputStream tar = new GZIPInputStream(Files.newInputStream(archive))) {
+            entries = readTar(tar);
+        }
+        byte[] expected = Arrays.copyOf(largeContent, shrunkSize);
+        assertArrayEquals(Arrays.copyOf(expected, LARGE_FILE_SIZE), entries.get("D1/large.bin"));
+        assertEquals("F1 from D1", new String(entries.get("D1/F1.txt"), StandardCharsets.UTF_8));
+        assertEquals(Set.of(large), op.getErrors().keySet());
+    }
+
+    @Test
+    void testFileGrowingWhilePackedIntoZipIsPackedWhole() throws IOException {
+        Path large = srcD1.resolve("large.bin");
+        Path archive = dstDir.resolve("packed.zip");
+        PackOperation op = new ResizingPack(srcD1, archive, large, () -> {
+            Files.write(large, new byte[1000], StandardOpenOption.APPEND);
+        });
+        op.run();
+        assertFalse(op.isFailed());
+
+        try (ZipInputStream zip = new ZipInputStream(Files.newInputStream(archive))) {
+            ZipEntry entry;
+            while ((entry = zip.getNextEntry()) != null) {
+                if (entry.getName().equals("D1/large.bin")) {
+                    assertEquals(LARGE_FILE_SIZE + 1000, zip.readAllBytes().length);
+                }
+            }
+        }
+    }
+
+    private interface Resize {
+        void run() throws IOException;
+    }
+
+    /**
+     * Packs a directory, resizing one of its files after it's been walked, right before it's packed.
+     */
+    private static final class ResizingPack extends PackOperation {
+
+        private final Path resized;
+        private final Resize resize;
+
+        ResizingPack(Path source, Path target, Path resized, Resize resize) {
+            super(new Path[]{source}, target, target.toString().endsWith(".zip") ? ArchiveFormat.ZIP : ArchiveFormat.TAR_GZ);
+            this.resized = resized;
+            this.resize = resize;
+        }
+
+        @Override
+        protected void startedFile(Path file) {
+            super.startedFile(file);
+            if (file.equals(resized)) {
+                try {
+                    resize.run();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+        }
+    }
+
+    /**
+     * Reads the regular files and directories of a tar archive, along with the paths of PAX extended headers.
+     */
+    private static Map<String, byte[]> readTar(InputStream tar) throws IOException {
+        Map<String, byte[]> entries = new HashMap<>();
+        String extendedName = null;
+        while (true) {
+            byte[] header = tar.readNBytes(512);
+            if (header.length < 512 || header[0] == 0) {
+                return entries;
+            }
+
+            String name = new String(header, 0, 100, StandardCharsets.UTF_8).replace("\0", "");
+            long size = Long.parseLong(new String(header, 124, 11, StandardCharsets.US_ASCII), 8);
+            byte[] content = tar.readNBytes((int) size);
+            tar.readNBytes((int) ((512 - size % 512) % 512));
+
+            if (header[156] == 'x') {
+                String record = new String(content, StandardCharsets.UTF_8);
+                extendedName = record.substring(record.indexOf("path=") + 5, record.length() - 1);
+                continue;
+            }
+            entries.put(extendedName != null ? extendedName : name, content);
+            extendedName = null;
+        }
+    }
+}
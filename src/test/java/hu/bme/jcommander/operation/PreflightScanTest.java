@@ -0,0 +1,80 @@
+package hu.bme.jcommander.operation;
+
+import com.google.common.jimfs.Configuration;
+import com.google.common.jimfs.Jimfs;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.FileSystem;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PreflightScanTest extends FileSystemTest {
+
+    @Test
+    void testTotals() throws IOException {
+        Files.writeString(srcD1.resolve("F1.txt"), "F1 from D1");
+        Files.createDirectory(srcD1.resolve("D1"));
+        Files.writeString(srcD1.resolve("D1").resolve("F1.txt"), "F1 from D1/D1");
+        PreflightScan scan = new PreflightScan(List.of(srcF1, srcD1, srcD2), dstDir, false);
+
+        assertTrue(scan.run());
+
+        assertEquals(3, scan.getFiles());
+        assertEquals(Files.size(srcF1) + "F1 from D1".length() + "F1 from D1/D1".length(), scan.getBytes());
+        assertEquals(scan.getBytes(), scan.getRequiredSpace());
+        assertTrue(scan.hasEnoughSpace());
+        assertTrue(scan.getConflicts().isEmpty());
+        assertEquals(2, scan.getTree(srcD1).files());
+    }
+
+    @Test
+    void testConflicts() throws IOException {
+        Path srcF2 = srcDir.resolve("F2.txt");
+        Files.writeString(srcF2, "F2 from src");
+        PreflightScan scan = new PreflightScan(List.of(srcF1, srcF2), dstDir, false);
+
+        assertTrue(scan.run());
+
+        assertEquals(List.of(srcF2), scan.getConflicts());
+        // The replaced file is deleted before its copy gets written, so it doesn't take up any more space.
+        assertEquals(Files.size(srcF1), scan.getRequiredSpace());
+    }
+
+    @Test
+    void testMoveWithinDeviceTakesNoSpace() {
+        PreflightScan scan = new PreflightScan(List.of(srcF1), dstDir, true);
+
+        assertTrue(scan.run());
+
+        assertEquals(1, scan.getFiles());
+        assertEquals(0, scan.getRequiredSpace());
+    }
+
+    @Test
+    void testNotEnoughSpace() throws IOException {
+        Configuration configuration = Configuration.unix().toBuilder().setMaxSize(64 * 1024).build();
+        try (FileSystem small = Jimfs.newFileSystem(configuration)) {
+            Path source = small.getPath("/large.bin");
+            Files.write(source, new byte[40 * 1024]);
+            Files.createDirectory(small.getPath("/dst"));
+            PreflightScan scan = new PreflightScan(List.of(source), small.getPath("/dst"), false);
+
+            assertTrue(scan.run());
+
+            assertFalse(scan.hasEnoughSpace());
+        }
+    }
+
+    @Test
+    void testCancelledScan() {
+        PreflightScan scan = new PreflightScan(List.of(srcD1), dstDir, false);
+        scan.cancel();
+
+        assertFalse(scan.run());
+        assertNull(scan.getTree(srcD1));
+    }
+}
@@ -0,0 +1,34 @@
+package hu.bme.jcommander.operation;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ProgressTrackerTest {
+
+    private static final long QUEUED_MILLIS = 500;
+
+    @Test
+    void testTimeBeforeStartIsNotCounted() throws InterruptedException {
+        ProgressTracker tracker = new ProgressTracker(new DeleteOperation(new Path[0]));
+        Thread.sleep(QUEUED_MILLIS); // as if it's been waiting in the executor's queue
+
+        tracker.start();
+        tracker.addToTotal(2000, 1);
+        tracker.addBytesDone(1000);
+
+        // Had the queue time been counted, the average couldn't be more than 1000 bytes per half a second.
+        Progress progress = tracker.snapshot();
+        assertTrue(progress.averageThroughput() > 1000 * 1000.0 / QUEUED_MILLIS);
+        assertTrue(progress.eta().toMillis() < QUEUED_MILLIS);
+    }
+
+    @Test
+    void testNotStartedTrackerHasNoThroughput() {
+        ProgressTracker tracker = new ProgressTracker(new DeleteOperation(new Path[0]));
+        assertEquals(0, tracker.snapshot().averageThroughput());
+    }
+}
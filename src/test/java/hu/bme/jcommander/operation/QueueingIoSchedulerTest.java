@@ -0,0 +1,11 @@
+package hu.bme.jcommander.operation;
+
+import java.util.concurrent.Executors;
+
+class QueueingIoSchedulerTest extends IoSchedulerTest {
+
+    @Override
+    IoScheduler createScheduler() {
+        return new QueueingIoScheduler(Executors.newFixedThreadPool(8));
+    }
+}
@@ -0,0 +1,77 @@
+package hu.bme.jcommander.operation;
+
+import hu.bme.jcommander.pane.Controller;
+import org.junit.jupiter.api.Test;
+
+import javax.swing.*;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RefreshCoordinatorTest {
+
+    private final RefreshCoordinator coordinator = new RefreshCoordinator(50);
+
+    @Test
+    void testBurstIsCoalesced() throws InterruptedException {
+        CountingController controller = new CountingController();
+
+        for (int i = 0; i < 1000; i++) {
+            coordinator.request(controller);
+        }
+
+        assertTrue(controller.refreshed.await(1, TimeUnit.SECONDS));
+        Thread.sleep(200);
+        assertEquals(1, controller.refreshes.get());
+        assertEquals(999, coordinator.getSkippedRefreshes());
+        assertTrue(controller.onEventDispatchThread.get());
+    }
+
+    @Test
+    void testControllersAreRefreshedSeparately() throws InterruptedException {
+        CountingController left = new CountingController();
+        CountingController right = new CountingController();
+
+        coordinator.request(left);
+        coordinator.request(right);
+
+        assertTrue(left.refreshed.await(1, TimeUnit.SECONDS));
+        assertTrue(right.refreshed.await(1, TimeUnit.SECONDS));
+        assertEquals(0, coordinator.getSkippedRefreshes());
+    }
+
+    @Test
+    void testRequestAfterRefreshIsNotSkipped() throws InterruptedException {
+        CountingController controller = new CountingController();
+
+        coordinator.request(controller);
+        assertTrue(controller.refreshed.await(1, TimeUnit.SECONDS));
+        coordinator.request(controller);
+        Thread.sleep(200);
+
+        assertEquals(2, controller.refreshes.get());
+        assertEquals(0, coordinator.getSkippedRefreshes());
+    }
+
+    private static class CountingController implements Controller {
+
+        private final AtomicInteger refreshes = new AtomicInteger();
+        private final AtomicBoolean onEventDispatchThread = new AtomicBoolean();
+        private final CountDownLatch refreshed = new CountDownLatch(1);
+
+        @Override
+        public JComponent component() {
+            return null;
+        }
+
+        @Override
+        public void refresh() {
+            onEventDispatchThread.set(SwingUtilities.isEventDispatchThread());
+            refreshes.incrementAndGet();
+            refreshed.countDown();
+        }
+    }
+}
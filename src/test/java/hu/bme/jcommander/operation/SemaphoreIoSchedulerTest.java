@@ -0,0 +1,11 @@
+package hu.bme.jcommander.operation;
+
+import java.util.concurrent.Executors;
+
+class SemaphoreIoSchedulerTest extends IoSchedulerTest {
+
+    @Override
+    IoScheduler createScheduler() {
+        return new SemaphoreIoScheduler(Executors.newVirtualThreadPerTaskExecutor());
+    }
+}
@@ -0,0 +1,103 @@
+package hu.bme.jcommander.operation;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SyncOperationTest extends FileSystemTest {
+
+    @Test
+    void testSyncIntoEmptyDirectory() throws IOException {
+        Files.writeString(srcD1.resolve("F1.txt"), "F1 from D1");
+
+        SyncOperation op = new SyncOperation(srcDir, dstD1);
+        op.run();
+        assertFalse(op.isFailed());
+
+        assertEquals("F1 from src", Files.readString(dstD1.resolve("F1.txt")));
+        assertEquals("F1 from D1", Files.readString(dstD1.resolve("D1").resolve("F1.txt")));
+        assertTrue(Files.isDirectory(dstD1.resolve("D3")));
+        assertEquals(Files.getLastModifiedTime(srcF1), Files.getLastModifiedTime(dstD1.resolve("F1.txt")));
+    }
+
+    @Test
+    void testResyncOnlyCopiesChangedFiles() throws IOException {
+        Path srcF2 = srcDir.resolve("F2.txt");
+        Files.writeString(srcF2, "F2 from src");
+        new SyncOperation(srcDir, dstD1).run();
+
+        Files.writeString(srcF1, "F1 changed");
+        SyncOperation op = new SyncOperation(srcDir, dstD1);
+        op.run();
+        assertFalse(op.isFailed());
+
+        assertEquals("F1 changed", Files.readString(dstD1.resolve("F1.txt")));
+        assertEquals(1, op.getProgress().filesTotal());
+    }
+
+    @Test
+    void testSameSizeAndTimeIsNotCopiedUnlessContentsAreCompared() throws IOException {
+        new SyncOperation(srcDir, dstD1).run();
+        FileTime time = Files.getLastModifiedTime(srcF1);
+        Files.writeString(srcF1, "F1 from SRC"); // same size
+        Files.setLastModifiedTime(srcF1, time);
+
+        new SyncOperation(srcDir, dstD1).run();
+        assertEquals("F1 from src", Files.readString(dstD1.resolve("F1.txt")));
+
+        SyncOperation op = new SyncOperation(srcDir, dstD1);
+        op.setCompareContents(true);
+        op.run();
+        assertFalse(op.isFailed());
+
+        assertEquals("F1 from SRC", Files.readString(dstD1.resolve("F1.txt")));
+        assertEquals(1, op.getProgress().filesTotal());
+    }
+
+    @Test
+    void testOrphansAreOnlyDeletedWhenAsked() throws IOException {
+        Files.createDirectory(dstD1);
+        Path orphan = dstD1.resolve("orphan.txt");
+        Files.writeString(orphan, "orphan");
+
+        new SyncOperation(srcDir, dstD1).run();
+        assertTrue(Files.exists(orphan));
+
+        SyncOperation op = new SyncOperation(srcDir, dstD1);
+        op.setDeleteOrphans(true);
+        op.run();
+        assertFalse(op.isFailed());
+
+        assertFalse(Files.exists(orphan));
+        assertTrue(Files.exists(dstD1.resolve("F1.txt")));
+    }
+
+    @Test
+    void testLinksAreMirroredAsLinksAndNotCopiedAgain() throws IOException {
+        Files.createSymbolicLink(srcDir.resolve("linkToF1"), srcF1.getFileName());
+        Files.createSymbolicLink(srcDir.resolve("linkToD1"), srcD1.getFileName());
+        new SyncOperation(srcDir, dstD1).run();
+
+        assertTrue(Files.isSymbolicLink(dstD1.resolve("linkToF1")));
+        assertTrue(Files.isSymbolicLink(dstD1.resolve("linkToD1")));
+        assertEquals(srcD1.getFileName(), Files.readSymbolicLink(dstD1.resolve("linkToD1")));
+
+        SyncOperation op = new SyncOperation(srcDir, dstD1);
+        op.run();
+        assertFalse(op.isFailed());
+        assertEquals(0, op.getProgress().filesTotal());
+    }
+
+    @Test
+    void testSyncIntoItself() {
+        SyncOperation op = new SyncOperation(srcDir, srcD1);
+        op.run();
+        assertTrue(op.isFailed());
+        assertTrue(op.getErrors().containsKey(srcDir));
+    }
+}
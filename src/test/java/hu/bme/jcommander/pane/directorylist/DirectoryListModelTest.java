@@ -0,0 +1,96 @@
+package hu.bme.jcommander.pane.directorylist;
+
+import com.google.common.jimfs.Configuration;
+import com.google.common.jimfs.Jimfs;
+import hu.bme.jcommander.filesystem.FileHandleBuilder;
+import hu.bme.jcommander.filesystem.Handle;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.swing.event.ListDataEvent;
+import javax.swing.event.ListDataListener;
+import java.io.IOException;
+import java.nio.file.FileSystem;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class DirectoryListModelTest {
+
+    private final DirectoryListModel model = new DirectoryListModel();
+    private final List<ListDataEvent> events = new ArrayList<>();
+    private Handle[] files;
+
+    @BeforeEach
+    void init() throws IOException {
+        FileSystem fs = Jimfs.newFileSystem(Configuration.unix());
+        files = new Handle[5];
+        for (int i = 0; i < files.length; i++) {
+            files[i] = new FileHandleBuilder(Files.createFile(fs.getPath("/F" + i + ".txt"))).toFileHandle();
+        }
+
+        model.addListDataListener(new ListDataListener() {
+            @Override
+            public void intervalAdded(ListDataEvent e) {
+                events.add(e);
+            }
+
+            @Override
+            public void intervalRemoved(ListDataEvent e) {
+                events.add(e);
+            }
+
+            @Override
+            public void contentsChanged(ListDataEvent e) {
+                events.add(e);
+            }
+        });
+    }
+
+    @Test
+    void testBatchesAreAppendedAsSingleIntervals() {
+        model.add(List.of(files[0], files[1], files[2]));
+        model.add(List.of(files[3], files[4]));
+
+        assertEquals(5, model.getSize());
+        assertEquals(2, events.size());
+        assertInterval(ListDataEvent.INTERVAL_ADDED, 0, 2, events.get(0));
+        assertInterval(ListDataEvent.INTERVAL_ADDED, 3, 4, events.get(1));
+    }
+
+    @Test
+    void testFilesAlreadyPresentAreSkipped() {
+        model.add(List.of(files[0], files[1]));
+        model.add(List.of(files[1], files[2]));
+        model.add(List.of(files[0], files[2]));
+
+        assertEquals(3, model.getSize());
+        assertEquals(files[2], model.getElementAt(2));
+        assertEquals(2, events.size()); // nothing new, nothing to tell
+        assertInterval(ListDataEvent.INTERVAL_ADDED, 2, 2, events.get(1));
+    }
+
+    @Test
+    void testRemovedRunsAreReportedFromTheBack() {
+        model.listDirectory(files);
+        events.clear();
+
+        model.remove(Set.of("F0.txt", "F1.txt", "F3.txt"));
+
+        assertEquals(2, model.getSize());
+        assertEquals(files[2], model.getElementAt(0));
+        assertEquals(files[4], model.getElementAt(1));
+        assertEquals(2, events.size());
+        assertInterval(ListDataEvent.INTERVAL_REMOVED, 3, 3, events.get(0));
+        assertInterval(ListDataEvent.INTERVAL_REMOVED, 0, 1, events.get(1));
+    }
+
+    private static void assertInterval(int type, int first, int last, ListDataEvent event) {
+        assertEquals(type, event.getType());
+        assertEquals(first, event.getIndex0());
+        assertEquals(last, event.getIndex1());
+    }
+}
@@ -0,0 +1,156 @@
+package hu.bme.jcommander.pane.filetree;
+
+import com.google.common.jimfs.Configuration;
+import com.google.common.jimfs.Jimfs;
+import hu.bme.jcommander.filesystem.FileHandle;
+import hu.bme.jcommander.filesystem.Handle;
+import hu.bme.jcommander.settings.IconType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.swing.tree.TreePath;
+import java.io.IOException;
+import java.nio.file.FileSystem;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FileNodeTest {
+
+    private static final int REPAINTS = 100;
+
+    private CountingHandle directory;
+    private FileNode node;
+
+    @BeforeEach
+    void init() {
+        directory = new CountingHandle(Path.of("/dir"), false);
+        directory.children = new Handle[]{
+                new CountingHandle(Path.of("/dir/F1.txt"), true),
+                new CountingHandle(Path.of("/dir/F2.txt"), true),
+                new CountingHandle(Path.of("/dir/D1"), false)
+        };
+        node = new FileNode(directory);
+    }
+
+    @Test
+    void testRepaintsListOnlyOnce() {
+        // this is roughly what JTree does on every repaint of an expanded node
+        for (int repaint = 0; repaint < REPAINTS; repaint++) {
+            for (int index = 0; index < node.getChildCount(); index++) {
+                assertEquals(index, node.getIndex(node.getChildAt(index)));
+            }
+        }
+
+        assertEquals(1, directory.listings);
+    }
+
+    @Test
+    void testInvalidateListsAgain() {
+        assertEquals(3, node.getChildCount());
+
+        directory.children = new Handle[]{new CountingHandle(Path.of("/dir/F1.txt"), true)};
+        node.invalidate();
+
+        assertEquals(1, node.getChildCount());
+        assertEquals(2, directory.listings);
+    }
+
+    @Test
+    void testChangesKeepIndicesConsistent() {
+        FileTreeModel model = new FileTreeModel();
+        TreePath path = new TreePath(new Object[]{model.getRoot(), node});
+        assertEquals(3, node.getChildCount());
+
+        model.applyChanges(path, List.of(new CountingHandle(Path.of("/dir/F3.txt"), true)),
+                Set.of(Path.of("/dir/F1.txt").toString()), List.of());
+
+        assertEquals(3, node.getChildCount());
+        for (int index = 0; index < node.getChildCount(); index++) {
+            assertEquals(index, node.getIndex(node.getChildAt(index)));
+        }
+        assertEquals("F3.txt", node.getChildAt(2).toString());
+        assertEquals(1, directory.listings);
+    }
+
+    @Test
+    void testFileReplacedByDirectoryIsReplacedInPlace() {
+        FileTreeModel model = new FileTreeModel();
+        TreePath path = new TreePath(new Object[]{model.getRoot(), node});
+        assertTrue(node.getChildAt(0).isLeaf());
+
+        model.applyChanges(path, List.of(), Set.of(), List.of(new CountingHandle(Path.of("/dir/F1.txt"), false),
+                new CountingHandle(Path.of("/dir/F2.txt"), true)));
+
+        assertEquals(3, node.getChildCount());
+        assertFalse(node.getChildAt(0).isLeaf());
+        assertTrue(node.getChildAt(1).isLeaf());
+        for (int index = 0; index < node.getChildCount(); index++) {
+            assertEquals(index, node.getIndex(node.getChildAt(index)));
+        }
+    }
+
+    @Test
+    void testRenamedChildKeepsItsIndex() throws IOException {
+        try (FileSystem fs = Jimfs.newFileSystem(Configuration.unix())) {
+            Path dir = Files.createDirectory(fs.getPath("/dir"));
+            Path renamed = Files.createFile(dir.resolve("F1.txt"));
+            directory.children = new Handle[]{
+                    new CountingHandle(renamed, true),
+                    new CountingHandle(dir.resolve("F2.txt"), true)
+            };
+
+            FileTreeModel model = new FileTreeModel();
+            TreePath path = new TreePath(new Object[]{model.getRoot(), node});
+            FileNode child = (FileNode) node.getChildAt(0);
+            assertTrue(child.rename("F3.txt"));
+            assertEquals(0, node.getIndex(child));
+
+            // the watcher reports the rename as a deletion and a creation
+            model.applyChanges(path, List.of(new CountingHandle(dir.resolve("F3.txt"), true)),
+                    Set.of(renamed.toString()), List.of());
+
+            assertEquals(2, node.getChildCount());
+            assertEquals(0, node.getIndex(child));
+            assertEquals("F3.txt", node.getChildAt(0).toString());
+        }
+    }
+
+    private static class CountingHandle extends FileHandle {
+
+        private final boolean leaf;
+        private Handle[] children = new Handle[0];
+        private int listings = 0;
+
+        private CountingHandle(Path path, boolean leaf) {
+            super(path);
+            this.leaf = leaf;
+        }
+
+        @Override
+        public String getName() {
+            return getPath().getFileName().toString();
+        }
+
+        @Override
+        public Handle[] getChildren() {
+            listings++;
+            return children;
+        }
+
+        @Override
+        public IconType getAssociatedIcon() {
+            return leaf ? IconType.FILE : IconType.DIRECTORY;
+        }
+
+        @Override
+        public boolean isLeaf() {
+            return leaf;
+        }
+    }
+}
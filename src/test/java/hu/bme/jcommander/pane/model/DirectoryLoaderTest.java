@@ -0,0 +1,75 @@
+package hu.bme.jcommander.pane.model;
+
+import com.google.common.jimfs.Configuration;
+import com.google.common.jimfs.Jimfs;
+import hu.bme.jcommander.filesystem.FileHandleBuilder;
+import hu.bme.jcommander.filesystem.Handle;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.swing.*;
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.nio.file.FileSystem;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DirectoryLoaderTest {
+
+    private static final long PATIENCE = 10; // s
+
+    private final DirectoryLoader loader = new DirectoryLoader();
+    private Handle first;
+    private Handle second;
+
+    @BeforeEach
+    void init() throws IOException {
+        FileSystem fs = Jimfs.newFileSystem(Configuration.unix());
+        first = new FileHandleBuilder(Files.createFile(fs.getPath("/first.txt"))).toFileHandle();
+        second = new FileHandleBuilder(Files.createFile(fs.getPath("/second.txt"))).toFileHandle();
+    }
+
+    @Test
+    void testNavigatingAwayCancelsTheLoadInProgress() throws InterruptedException, InvocationTargetException {
+        CountDownLatch firstStarted = new CountDownLatch(1);
+        CountDownLatch firstReleased = new CountDownLatch(1);
+        AtomicInteger firstRead = new AtomicInteger();
+        // a huge, slow directory, which only goes on once it's been navigated away from
+        Stream<Handle> slow = Stream.generate(() -> {
+            firstStarted.countDown();
+            try {
+                firstReleased.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            firstRead.incrementAndGet();
+            return first;
+        });
+
+        List<Handle> consumed = new CopyOnWriteArrayList<>();
+        CountDownLatch finished = new CountDownLatch(1);
+        SwingUtilities.invokeAndWait(() -> loader.load(slow, consumed::addAll));
+        assertTrue(firstStarted.await(PATIENCE, TimeUnit.SECONDS));
+
+        SwingUtilities.invokeAndWait(() -> {
+            loader.load(Stream.of(second), consumed::addAll);
+            loader.addChangeListener(e -> {
+                if (!loader.isLoading()) {
+                    finished.countDown();
+                }
+            });
+        });
+        firstReleased.countDown();
+        assertTrue(finished.await(PATIENCE, TimeUnit.SECONDS));
+
+        SwingUtilities.invokeAndWait(() -> assertEquals(List.of(second), consumed));
+        assertTrue(firstRead.get() <= 1); // it stops right after the entry it's been reading
+    }
+}
@@ -0,0 +1,112 @@
+package hu.bme.jcommander.watch;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DirectoryWatcherTest {
+
+    private static final long PATIENCE = 10; // s
+
+    @TempDir
+    Path directory;
+
+    private final BlockingQueue<DirectoryChangedEvent> events = new LinkedBlockingQueue<>();
+    private final DirectoryChangeListener listener = events::add;
+
+    @BeforeEach
+    void watch() {
+        assertTrue(DirectoryWatcher.getInstance().watch(directory, listener));
+    }
+
+    @AfterEach
+    void unwatch() {
+        DirectoryWatcher.getInstance().unwatch(directory, listener);
+    }
+
+    @Test
+    void testCreatedModifiedAndDeletedEntriesAreReported() throws IOException, InterruptedException {
+        Path file = directory.resolve("F1.txt");
+
+        Files.writeString(file, "F1");
+        DirectoryChangedEvent created = awaitEvent(event -> event.getCreated().contains(file));
+        assertEquals(directory, created.getDirectory());
+        assertNotNull(created.getHandle(file));
+        events.clear();
+
+        Files.writeString(file, "F1 modified");
+        DirectoryChangedEvent modified = awaitEvent(event -> event.getModified().contains(file));
+        assertFalse(modified.getDeleted().contains(file));
+        events.clear();
+
+        Files.delete(file);
+        DirectoryChangedEvent deleted = awaitEvent(event -> event.getDeleted().contains(file));
+        assertNull(deleted.getHandle(file));
+    }
+
+    @Test
+    void testBurstOfChangesIsCoalesced() throws IOException, InterruptedException {
+        int count = 50;
+        Set<Path> files = new HashSet<>();
+        for (int i = 0; i < count; i++) {
+            Path file = directory.resolve("F" + i + ".txt");
+            Files.createFile(file);
+            files.add(file);
+        }
+
+        Set<Path> reported = new HashSet<>();
+        int batches = 0;
+        while (!reported.containsAll(files)) {
+            DirectoryChangedEvent event = events.poll(PATIENCE, TimeUnit.SECONDS);
+            assertNotNull(event, "Not every created file has been reported.");
+            reported.addAll(event.getCreated());
+            batches++;
+        }
+        assertTrue(batches < count);
+    }
+
+    @Test
+    void testEntryCreatedAndDeletedWithinABatchIsNotReported() throws IOException, InterruptedException {
+        Path shortLived = directory.resolve("short-lived.txt");
+        Path marker = directory.resolve("marker.txt");
+        Files.createFile(shortLived);
+        Files.delete(shortLived);
+        Files.createFile(marker);
+
+        List<DirectoryChangedEvent> seen = new ArrayList<>();
+        DirectoryChangedEvent last = awaitEvent(event -> {
+            seen.add(event);
+            return event.getCreated().contains(marker);
+        });
+        assertNotNull(last);
+        for (DirectoryChangedEvent event : seen) {
+            assertFalse(event.getCreated().contains(shortLived));
+            assertFalse(event.getDeleted().contains(shortLived));
+        }
+    }
+
+    private DirectoryChangedEvent awaitEvent(Predicate<DirectoryChangedEvent> condition) throws InterruptedException {
+        while (true) {
+            DirectoryChangedEvent event = events.poll(PATIENCE, TimeUnit.SECONDS);
+            assertNotNull(event, "The expected change hasn't been reported.");
+            if (condition.test(event)) {
+                return event;
+            }
+        }
+    }
+}